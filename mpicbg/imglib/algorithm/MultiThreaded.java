@@ -16,6 +16,10 @@
  */
 package mpicbg.imglib.algorithm;
 
+import java.util.concurrent.ExecutorService;
+
+import mpicbg.imglib.multithreading.SimpleMultiThreading;
+
 public interface MultiThreaded 
 {
 	/**
@@ -34,4 +38,16 @@ public interface MultiThreaded
 	 * @return - the number of threads
 	 */
 	public int getNumThreads();
+	
+	/**
+	 * Sets the {@link ExecutorService} that runs the threads of the algorithm
+	 * @param executorService - the pool to use, null for the pool shared by all algorithms ({@link SimpleMultiThreading#getSharedExecutorService()})
+	 */
+	public void setExecutorService( final ExecutorService executorService );
+	
+	/**
+	 * The {@link ExecutorService} used by the algorithm
+	 * @return - the pool, null if the shared pool is used
+	 */
+	public ExecutorService getExecutorService();
 }
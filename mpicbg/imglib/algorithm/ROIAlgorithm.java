@@ -3,6 +3,7 @@ package mpicbg.imglib.algorithm;
 import java.util.Arrays;
 
 import mpicbg.imglib.cursor.LocalizableCursor;
+import mpicbg.imglib.cursor.special.InteriorBorderRegions;
 import mpicbg.imglib.cursor.special.RegionOfInterestCursor;
 import mpicbg.imglib.image.Image;
 import mpicbg.imglib.image.ImageFactory;
@@ -20,6 +21,9 @@ import mpicbg.imglib.type.numeric.ComplexType;
  * patch of a given size in the input image.  patchOperation() is responsible for setting the
  * value of the pixel at the given position in the output image.
  * 
+ * Patches that lie completely inside the input image are iterated by a cursor that does not
+ * check bounds, only patches touching the border go through the {@link OutOfBoundsStrategyFactory}.
+ * 
  * @author Larry Lindsey
  *
  * @param <T>
@@ -30,6 +34,8 @@ public abstract class ROIAlgorithm <T extends ComplexType<T>, S extends ComplexT
 {
 
 	private final RegionOfInterestCursor<T> roiCursor;
+	private final RegionOfInterestCursor<T> interiorRoiCursor;
+	private final InteriorBorderRegions regions;
 	private final int[] patchSize;
 	private final int[] originOffset;
 	private final Image<T> inputImage;
@@ -92,11 +98,22 @@ public abstract class ROIAlgorithm <T extends ComplexType<T>, S extends ComplexT
 		roiCursor = imageIn.createLocalizableByDimCursor(outsideFactory)
 			.createRegionOfInterestCursor(initPos, patchSize);
 		
+		interiorRoiCursor = imageIn.createLocalizableByDimCursor()
+			.createRegionOfInterestCursor(initPos, patchSize);
+		
+		final int[] minOffset = new int[nd];
+		final int[] maxOffset = new int[nd];
+		
 		for (int i = 0; i < nd; ++i)
 		{
 			//Dividing an int by 2 automatically takes the floor, which is what we want.
 			originOffset[i] = patchSize[i] / 2;
-		}		
+			
+			minOffset[i] = -originOffset[i];
+			maxOffset[i] = patchSize[i] - 1 - originOffset[i];
+		}
+		
+		regions = new InteriorBorderRegions(imageIn.getDimensions(), minOffset, maxOffset);
 	}
 
 	/**
@@ -139,6 +156,20 @@ public abstract class ROIAlgorithm <T extends ComplexType<T>, S extends ComplexT
 	{
 		return patchSize.clone();
 	}
+	
+	protected Image<T> getInputImage()
+	{
+		return inputImage;
+	}
+	
+	/**
+	 * @return the {@link OutOfBoundsStrategyFactory} used for patches touching the border of the 
+	 * input image.
+	 */
+	protected OutOfBoundsStrategyFactory<T> getOutOfBoundsStrategyFactory()
+	{
+		return outsideFactory;
+	}
 
 	/**
 	 * Returns the {@link Image} that will eventually become the result of this
@@ -222,9 +253,12 @@ public abstract class ROIAlgorithm <T extends ComplexType<T>, S extends ComplexT
 		{
 			outputCursor.fwd();			
 			outputCursor.getPosition(pos);
-			roiCursor.reset(positionOffset(pos, offsetPos));
+			
+			// patches inside the image do not need the out of bounds strategy
+			final RegionOfInterestCursor<T> cursor = regions.isInterior(pos) ? interiorRoiCursor : roiCursor;
+			cursor.reset(positionOffset(pos, offsetPos));
 						
-			if (!patchOperation(pos, roiCursor))
+			if (!patchOperation(pos, cursor))
 			{
 				outputCursor.close();
 				
@@ -241,12 +275,13 @@ public abstract class ROIAlgorithm <T extends ComplexType<T>, S extends ComplexT
 	@Override
 	public boolean checkInput()
 	{
-		return roiCursor.isActive();
+		return roiCursor.isActive() && interiorRoiCursor.isActive();
 	}
 	
 	public void close()
 	{
 		roiCursor.close();
+		interiorRoiCursor.close();
 	}
 
 	@Override
@@ -0,0 +1,481 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.algorithm.convolution;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mpicbg.imglib.algorithm.Benchmark;
+import mpicbg.imglib.algorithm.MultiThreaded;
+import mpicbg.imglib.algorithm.OutputAlgorithm;
+import mpicbg.imglib.algorithm.Precision.PrecisionReal;
+import mpicbg.imglib.cursor.LocalizableByDimCursor;
+import mpicbg.imglib.cursor.LocalizableCursor;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.multithreading.SimpleMultiThreading;
+import mpicbg.imglib.outofbounds.OutOfBoundsStrategyFactory;
+import mpicbg.imglib.type.logic.BitType;
+import mpicbg.imglib.type.numeric.RealType;
+import mpicbg.imglib.type.numeric.integer.Unsigned12BitType;
+
+/**
+ * Convolves an {@link Image} of any dimensionality, {@link RealType} and container with a separable kernel,
+ * one 1d kernel per dimension. Each line is copied into a primitive buffer padded by the {@link OutOfBoundsStrategyFactory},
+ * convolved there and written back, so the {@link RealType} is only touched once per pixel and pass.
+ * 
+ * Like the {@link mpicbg.imglib.algorithm.gauss.GaussianConvolution} the kernels are applied without mirroring them, 
+ * the center of a kernel is at kernel.length / 2. A kernel that is null leaves its dimension untouched.
+ * 
+ * The output may be the input image itself, the convolution is then computed in place.
+ */
+public class SeparableConvolution<T extends RealType<T>> implements MultiThreaded, OutputAlgorithm<T>, Benchmark
+{
+	final Image<T> image, output;
+	final OutOfBoundsStrategyFactory<T> outOfBoundsFactory;
+	final int numDimensions;
+	final double[][] kernel;
+	final float[][] kernelFloat;
+
+	PrecisionReal precision;
+	long processingTime;
+	int numThreads;
+	ExecutorService executorService = null;
+	String errorMessage = "";
+
+	public SeparableConvolution( final Image<T> image, final Image<T> output, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory, final double[][] kernel )
+	{
+		this.image = image;
+		this.output = output;
+		this.outOfBoundsFactory = outOfBoundsFactory;
+		this.kernel = kernel;
+		this.kernelFloat = toFloat( kernel );
+		this.numDimensions = ( image == null ) ? 0 : image.getNumDimensions();
+		this.precision = ( image == null ) ? PrecisionReal.Double : image.createType().getPreferredRealPrecision();
+		this.processingTime = -1;
+		setNumThreads();
+	}
+
+	public SeparableConvolution( final Image<T> image, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory, final double[][] kernel )
+	{
+		this( image, ( image == null ) ? null : image.createNewImage(), outOfBoundsFactory, kernel );
+	}
+
+	public void setPrecision( final PrecisionReal precision ) { this.precision = precision; }
+	public PrecisionReal getPrecision() { return precision; }
+
+	@Override
+	public long getProcessingTime() { return processingTime; }
+	
+	@Override
+	public void setNumThreads() { this.numThreads = Runtime.getRuntime().availableProcessors(); }
+
+	@Override
+	public void setNumThreads( final int numThreads ) { this.numThreads = numThreads; }
+
+	@Override
+	public int getNumThreads() { return numThreads; }	
+
+	@Override
+	public void setExecutorService( final ExecutorService executorService ) { this.executorService = executorService; }
+
+	@Override
+	public ExecutorService getExecutorService() { return executorService; }
+
+	@Override
+	public Image<T> getResult() { return output; }
+
+	@Override
+	public boolean checkInput() 
+	{
+		if ( errorMessage.length() > 0 )
+		{
+			return false;
+		}
+		else if ( image == null )
+		{
+			errorMessage = "SeparableConvolution: [Image<T> img] is null.";
+			return false;
+		}
+		else if ( output == null )
+		{
+			errorMessage = "SeparableConvolution: [Image<T> output] is null.";
+			return false;
+		}
+		else if ( outOfBoundsFactory == null )
+		{
+			errorMessage = "SeparableConvolution: [OutOfBoundsStrategyFactory<T>] is null.";
+			return false;
+		}
+		else if ( kernel == null || kernel.length != numDimensions )
+		{
+			errorMessage = "SeparableConvolution: The number of kernels does not match the dimensionality of the image.";
+			return false;
+		}
+		
+		for ( int d = 0; d < numDimensions; ++d )
+		{
+			if ( output.getDimension( d ) != image.getDimension( d ) )
+			{
+				errorMessage = "SeparableConvolution: The output image does not have the same dimensions as the input image.";
+				return false;				
+			}
+			else if ( kernel[ d ] != null && kernel[ d ].length == 0 )
+			{
+				errorMessage = "SeparableConvolution: The kernel for dimension " + d + " is empty.";
+				return false;				
+			}
+		}
+		
+		return true;
+	}
+
+	@Override
+	public String getErrorMessage() { return errorMessage; }
+
+	@Override
+	public boolean process() 
+	{		
+		final long startTime = System.currentTimeMillis();
+		
+		// the first pass reads the input, all others work in place on the output
+		Image<T> source = image;
+		
+		for ( int d = 0; d < numDimensions; ++d )
+		{
+			if ( !isConvolved( d ) )
+				continue;
+			
+			convolveDimension( source, output, d );
+			source = output;
+		}
+		
+		// no dimension was convolved
+		if ( source != output )
+			copy( image, output );
+		
+		processingTime = System.currentTimeMillis() - startTime;
+		
+		return true;
+	}
+
+	protected void convolveDimension( final Image<T> source, final Image<T> target, final int dim )
+	{
+		final int size = source.getDimension( dim );
+		final long numLines = source.getNumPixelsLong() / size;
+		
+		// the lines are handed out one by one to the next free thread, packed pixels of 
+		// neighbouring lines share one int so they cannot be written by different threads
+		final AtomicLong lines = new AtomicLong( 0 );
+		final Runnable[] tasks = new Runnable[ isPacked( target.createType() ) ? 1 : numThreads ];
+		
+		for ( int ithread = 0; ithread < tasks.length; ++ithread )
+			tasks[ ithread ] = new Runnable()
+			{
+				public void run()
+				{
+					if ( precision == PrecisionReal.Float )
+						convolveLinesFloat( source, target, dim, lines, numLines );
+					else
+						convolveLinesDouble( source, target, dim, lines, numLines );
+				}
+			};
+		
+		SimpleMultiThreading.startAndJoin( tasks, executorService );
+	}
+	
+	/**
+	 * @return - true if the type stores several pixels in one int of a {@link mpicbg.imglib.container.basictypecontainer.array.BitArray}
+	 */
+	protected static boolean isPacked( final RealType<?> type )
+	{
+		return type instanceof BitType || type instanceof Unsigned12BitType;
+	}
+	
+	protected void convolveLinesDouble( final Image<T> source, final Image<T> target, final int dim, final AtomicLong lines, final long numLines )
+	{
+		final int size = source.getDimension( dim );
+		final int left = getPaddingLeft( dim );
+		final int right = getPaddingRight( dim );
+
+		// the line including the out of bounds pixels the kernel reaches on both sides
+		final double[] line = new double[ left + size + right ];
+		final double[] result = new double[ size ];
+		final int[] position = new int[ numDimensions ];
+		
+		final LocalizableByDimCursor<T> inputCursor = source.createLocalizableByDimCursor();
+		final LocalizableByDimCursor<T> outOfBoundsCursor = source.createLocalizableByDimCursor( outOfBoundsFactory );
+		final LocalizableByDimCursor<T> outputCursor = target.createLocalizableByDimCursor();
+		
+		for ( long l = lines.getAndIncrement(); l < numLines; l = lines.getAndIncrement() )
+		{
+			getLinePosition( source, dim, l, position );
+			
+			// read the line
+			if ( left > 0 )
+			{
+				position[ dim ] = -left;
+				outOfBoundsCursor.setPosition( position );
+				
+				for ( int i = 0; i < left; ++i )
+				{
+					line[ i ] = outOfBoundsCursor.getType().getRealDouble();
+					outOfBoundsCursor.fwd( dim );
+				}
+			}
+			
+			position[ dim ] = 0;
+			inputCursor.setPosition( position );
+
+			for ( int i = left; i < left + size - 1; ++i )
+			{
+				line[ i ] = inputCursor.getType().getRealDouble();
+				inputCursor.fwd( dim );
+			}
+			line[ left + size - 1 ] = inputCursor.getType().getRealDouble();
+			
+			if ( right > 0 )
+			{
+				position[ dim ] = size;
+				outOfBoundsCursor.setPosition( position );
+				
+				for ( int i = left + size; i < line.length; ++i )
+				{
+					line[ i ] = outOfBoundsCursor.getType().getRealDouble();
+					outOfBoundsCursor.fwd( dim );
+				}
+			}
+			
+			convolveLine( dim, line, result );
+			
+			// and write it back
+			position[ dim ] = 0;
+			outputCursor.setPosition( position );
+			
+			for ( int i = 0; i < size - 1; ++i )
+			{
+				outputCursor.getType().setReal( result[ i ] );
+				outputCursor.fwd( dim );
+			}
+			outputCursor.getType().setReal( result[ size - 1 ] );
+		}
+		
+		inputCursor.close();
+		outOfBoundsCursor.close();
+		outputCursor.close();
+	}
+
+	protected void convolveLinesFloat( final Image<T> source, final Image<T> target, final int dim, final AtomicLong lines, final long numLines )
+	{
+		final int size = source.getDimension( dim );
+		final int left = getPaddingLeft( dim );
+		final int right = getPaddingRight( dim );
+
+		// the line including the out of bounds pixels the kernel reaches on both sides
+		final float[] line = new float[ left + size + right ];
+		final float[] result = new float[ size ];
+		final int[] position = new int[ numDimensions ];
+		
+		final LocalizableByDimCursor<T> inputCursor = source.createLocalizableByDimCursor();
+		final LocalizableByDimCursor<T> outOfBoundsCursor = source.createLocalizableByDimCursor( outOfBoundsFactory );
+		final LocalizableByDimCursor<T> outputCursor = target.createLocalizableByDimCursor();
+		
+		for ( long l = lines.getAndIncrement(); l < numLines; l = lines.getAndIncrement() )
+		{
+			getLinePosition( source, dim, l, position );
+			
+			// read the line
+			if ( left > 0 )
+			{
+				position[ dim ] = -left;
+				outOfBoundsCursor.setPosition( position );
+				
+				for ( int i = 0; i < left; ++i )
+				{
+					line[ i ] = outOfBoundsCursor.getType().getRealFloat();
+					outOfBoundsCursor.fwd( dim );
+				}
+			}
+			
+			position[ dim ] = 0;
+			inputCursor.setPosition( position );
+
+			for ( int i = left; i < left + size - 1; ++i )
+			{
+				line[ i ] = inputCursor.getType().getRealFloat();
+				inputCursor.fwd( dim );
+			}
+			line[ left + size - 1 ] = inputCursor.getType().getRealFloat();
+			
+			if ( right > 0 )
+			{
+				position[ dim ] = size;
+				outOfBoundsCursor.setPosition( position );
+				
+				for ( int i = left + size; i < line.length; ++i )
+				{
+					line[ i ] = outOfBoundsCursor.getType().getRealFloat();
+					outOfBoundsCursor.fwd( dim );
+				}
+			}
+			
+			convolveLine( dim, line, result );
+			
+			// and write it back
+			position[ dim ] = 0;
+			outputCursor.setPosition( position );
+			
+			for ( int i = 0; i < size - 1; ++i )
+			{
+				outputCursor.getType().setReal( result[ i ] );
+				outputCursor.fwd( dim );
+			}
+			outputCursor.getType().setReal( result[ size - 1 ] );
+		}
+		
+		inputCursor.close();
+		outOfBoundsCursor.close();
+		outputCursor.close();
+	}
+
+	/**
+	 * @return - if dimension dim is convolved at all
+	 */
+	protected boolean isConvolved( final int dim ) { return kernel[ dim ] != null; }
+	
+	/**
+	 * @return - the number of out of bounds pixels in front of each line of dimension dim
+	 */
+	protected int getPaddingLeft( final int dim ) { return kernel[ dim ].length / 2; }
+
+	/**
+	 * @return - the number of out of bounds pixels behind each line of dimension dim
+	 */
+	protected int getPaddingRight( final int dim ) { return kernel[ dim ].length - 1 - kernel[ dim ].length / 2; }
+	
+	/**
+	 * Convolves one line of dimension dim
+	 * 
+	 * @param dim - the dimension
+	 * @param line - the line padded by {@link #getPaddingLeft(int)} and {@link #getPaddingRight(int)} out of bounds pixels, may be overwritten
+	 * @param result - the convolved line without padding
+	 */
+	protected void convolveLine( final int dim, final double[] line, final double[] result )
+	{
+		final double[] k = kernel[ dim ];
+		final int kernelSize = k.length;
+		
+		for ( int i = 0; i < result.length; ++i )
+		{
+			double sum = 0;
+			
+			for ( int f = 0; f < kernelSize; ++f )
+				sum += line[ i + f ] * k[ f ];
+			
+			result[ i ] = sum;
+		}
+	}
+
+	/**
+	 * Convolves one line of dimension dim in float precision
+	 * 
+	 * @param dim - the dimension
+	 * @param line - the line padded by {@link #getPaddingLeft(int)} and {@link #getPaddingRight(int)} out of bounds pixels, may be overwritten
+	 * @param result - the convolved line without padding
+	 */
+	protected void convolveLine( final int dim, final float[] line, final float[] result )
+	{
+		final float[] k = kernelFloat[ dim ];
+		final int kernelSize = k.length;
+		
+		for ( int i = 0; i < result.length; ++i )
+		{
+			float sum = 0;
+			
+			for ( int f = 0; f < kernelSize; ++f )
+				sum += line[ i + f ] * k[ f ];
+			
+			result[ i ] = sum;
+		}
+	}
+
+	/**
+	 * Computes the start of a line from its index, the lines are counted with dimension 0 
+	 * (or 1 if the lines are along dimension 0) varying fastest.
+	 */
+	final public static void getLinePosition( final Image<?> image, final int dim, long index, final int[] position )
+	{
+		for ( int d = 0; d < position.length; ++d )
+		{
+			if ( d == dim )
+				continue;
+			
+			final int size = image.getDimension( d );
+			position[ d ] = (int)( index % size );
+			index /= size;
+		}
+	}
+	
+	final protected static float[][] toFloat( final double[][] kernel )
+	{
+		if ( kernel == null )
+			return null;
+		
+		final float[][] kernelFloat = new float[ kernel.length ][];
+		
+		for ( int d = 0; d < kernel.length; ++d )
+		{
+			if ( kernel[ d ] == null )
+				continue;
+			
+			kernelFloat[ d ] = new float[ kernel[ d ].length ];
+			
+			for ( int f = 0; f < kernel[ d ].length; ++f )
+				kernelFloat[ d ][ f ] = (float)kernel[ d ][ f ];
+		}
+		
+		return kernelFloat;
+	}
+	
+	final protected static <T extends RealType<T>> void copy( final Image<T> source, final Image<T> target )
+	{
+		final LocalizableCursor<T> sourceCursor = source.createLocalizableCursor();
+		final LocalizableByDimCursor<T> targetCursor = target.createLocalizableByDimCursor();
+		
+		while ( sourceCursor.hasNext() )
+		{
+			sourceCursor.fwd();
+			targetCursor.setPosition( sourceCursor );
+			targetCursor.getType().set( sourceCursor.getType() );
+		}
+		
+		sourceCursor.close();
+		targetCursor.close();
+	}
+}
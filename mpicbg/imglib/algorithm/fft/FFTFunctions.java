@@ -20,11 +20,14 @@
  */
 package mpicbg.imglib.algorithm.fft;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import edu.mines.jtk.dsp.FftComplex;
 import edu.mines.jtk.dsp.FftReal;
 
+import mpicbg.imglib.container.ContainerFactory;
+import mpicbg.imglib.container.basictypecontainer.array.ArrayPool;
 import mpicbg.imglib.cursor.LocalizableByDimCursor;
 import mpicbg.imglib.cursor.array.ArrayLocalizableCursor;
 import mpicbg.imglib.image.Image;
@@ -44,6 +47,33 @@ final public class FFTFunctions
 						                   final boolean scale, final boolean cropBack,
 						                   final int[] originalSize, final int[] originalOffset,
 						                   final float additionalNormalization )
+	{
+		return computeInverseFFT( complex, type, numThreads, null, scale, cropBack, originalSize, originalOffset, additionalNormalization );
+	}
+
+	/**
+	 * Computes the inverse FFT running the lines on the given {@link ExecutorService}, null means the shared one
+	 */
+	final public static <T extends RealType<T>, S extends ComplexType<S>> Image<T> 
+						computeInverseFFT( final Image<S> complex, final T type,  
+						                   final int numThreads, final ExecutorService executorService,
+						                   final boolean scale, final boolean cropBack,
+						                   final int[] originalSize, final int[] originalOffset,
+						                   final float additionalNormalization )
+	{
+		return computeInverseFFT( complex, type, numThreads, executorService, null, scale, cropBack, originalSize, originalOffset, additionalNormalization );
+	}
+
+	/**
+	 * Computes the inverse FFT into an {@link Image} created by containerFactory, null means the factory of complex
+	 */
+	final public static <T extends RealType<T>, S extends ComplexType<S>> Image<T> 
+						computeInverseFFT( final Image<S> complex, final T type,  
+						                   final int numThreads, final ExecutorService executorService,
+						                   final ContainerFactory containerFactory,
+						                   final boolean scale, final boolean cropBack,
+						                   final int[] originalSize, final int[] originalOffset,
+						                   final float additionalNormalization )
 	{
 		// not enough memory
 		if ( complex == null )
@@ -60,7 +90,7 @@ final public class FFTFunctions
 		dimensionsReal[ 0 ] = nfft;
 		
 		// create the output image
-		final ImageFactory<T> imgFactory = new ImageFactory<T>( type, complex.getContainerFactory() );
+		final ImageFactory<T> imgFactory = new ImageFactory<T>( type, containerFactory == null ? complex.getContainerFactory() : containerFactory );
 		final Image<T> realImage;
 		
 		if ( cropBack )
@@ -79,19 +109,17 @@ final public class FFTFunctions
 		{
 			final int dim = d;
 			
-			final AtomicInteger ai = new AtomicInteger();
-			final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
+			final AtomicInteger lines = new AtomicInteger( 0 );
+			final Runnable[] tasks = new Runnable[ numThreads ];
 
-			for (int ithread = 0; ithread < threads.length; ++ithread)
-				threads[ithread] = new Thread(new Runnable()
+			for ( int ithread = 0; ithread < tasks.length; ++ithread )
+				tasks[ ithread ] = new Runnable()
 				{
 					public void run()
 					{
-						final int myNumber = ai.getAndIncrement();
-												
 						final int size = complex.getDimension( dim );
 						
-						final float[] tempIn = new float[ size * 2 ];						
+						final float[] tempIn = ArrayPool.getSharedPool().getFloatArray( size * 2 );						
 						final FftComplex fftc = new FftComplex( size );
 						
 						final LocalizableByDimCursor<S> cursor = complex.createLocalizableByDimCursor(); 
@@ -110,15 +138,20 @@ final public class FFTFunctions
 
 						final ArrayLocalizableCursor<FakeType> cursorDim = ArrayLocalizableCursor.createLinearCursor( fakeSize );
 						
-						final float[] tempOut = new float[ size * 2 ];
+						final float[] tempOut = ArrayPool.getSharedPool().getFloatArray( size * 2 );
 						
+						int line = -1;
+						int next = lines.getAndIncrement();
+
 						// iterate over all dimensions except the one we are computing the fft in, which is dim=0 here
 						while( cursorDim.hasNext() )
 						{
-							cursorDim.fwd();							
+							cursorDim.fwd();
 
-							if ( cursorDim.getPosition( 0 ) % numThreads == myNumber )
+							if ( ++line == next )
 							{
+								next = lines.getAndIncrement();
+
 								// update all positions except for the one we are currrently doing the inverse fft on
 								cursorDim.getPosition( fakeSize );
 
@@ -171,20 +204,23 @@ final public class FFTFunctions
 						
 						cursor.close();
 						cursorDim.close();
+						ArrayPool.getSharedPool().release( tempIn );
+						ArrayPool.getSharedPool().release( tempOut );
 					}
-				});
+				};
 			
-			SimpleMultiThreading.startAndJoin( threads );						
+			SimpleMultiThreading.startAndJoin( tasks, executorService );						
 		}
 		
 		//
 		// compute inverse fft into the real dimension
 		//
 		final AtomicInteger ai = new AtomicInteger();
-		final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
+		final AtomicInteger lines = new AtomicInteger( 0 );
+		final Runnable[] tasks = new Runnable[ numThreads ];
 		
-		for (int ithread = 0; ithread < threads.length; ++ithread)
-			threads[ithread] = new Thread(new Runnable()
+		for ( int ithread = 0; ithread < tasks.length; ++ithread )
+			tasks[ ithread ] = new Runnable()
 			{
 				public void run()
 				{
@@ -192,7 +228,7 @@ final public class FFTFunctions
 										
 					final int realSize = dimensionsReal[ 0 ];
 					final int complexSize = complex.getDimension( 0 );
-					final float[] tempIn = new float[ complexSize * 2 ];				
+					final float[] tempIn = ArrayPool.getSharedPool().getFloatArray( complexSize * 2 );				
 					final FftReal fft = new FftReal( realSize );
 
 					final int cropX1, cropX2;					
@@ -223,15 +259,20 @@ final public class FFTFunctions
 						
 						final ArrayLocalizableCursor<FakeType> cursorDim = ArrayLocalizableCursor.createLinearCursor( fakeSize );
 							
-						final float[] tempOut = new float[ realSize ];
+						final float[] tempOut = ArrayPool.getSharedPool().getFloatArray( realSize );
 																		
+						int line = -1;
+						int next = lines.getAndIncrement();
+
 						// iterate over all dimensions except the one we are computing the fft in, which is dim=0 here
 A:						while( cursorDim.hasNext() )
 						{
-							cursorDim.fwd();							
+							cursorDim.fwd();
+
+							if ( ++line == next )
+							{
+								next = lines.getAndIncrement();
 
-							if ( cursorDim.getPosition( 0 ) % numThreads == myNumber )
-							{							
 								// get all dimensions except the one we are currently doing the fft on
 								cursorDim.getPosition( fakeSize );
 
@@ -301,6 +342,7 @@ A:						while( cursorDim.hasNext() )
 						cursorOut.close();
 						cursor.close();
 						cursorDim.close();						
+						ArrayPool.getSharedPool().release( tempOut );
 					}
 					else
 					{
@@ -322,7 +364,7 @@ A:						while( cursorDim.hasNext() )
 							tempIn[ (complexSize-1) * 2 + 1 ] = cursor.getType().getComplexFloat();
 							
 							// compute the fft in dimension 0 ( real -> complex )
-							final float[] tempOut = new float[ realSize ];
+							final float[] tempOut = ArrayPool.getSharedPool().getFloatArray( realSize );
 							fft.complexToReal( 1, tempIn, tempOut );
 							
 							// set the cursor in the fft output image to 0 in the first (and only) dimension
@@ -347,14 +389,18 @@ A:						while( cursorDim.hasNext() )
 								}
 								cursorOut.getType().setReal( tempOut[ cropX2-1 ] * additionalNormalization );
 							}
+
+							ArrayPool.getSharedPool().release( tempOut );
 						}
 						cursorOut.close();
 						cursor.close();						
 					}
+
+					ArrayPool.getSharedPool().release( tempIn );
 				}
-			});
+			};
 		
-		SimpleMultiThreading.startAndJoin(threads);
+		SimpleMultiThreading.startAndJoin( tasks, executorService );
 		
 		return realImage;
 	}
@@ -363,6 +409,29 @@ A:						while( cursorDim.hasNext() )
 						computeFFT( final Image<T> img, final S complexType, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory,
 						            final int[] imageOffset, final int[] imageSize,
 						            final int numThreads, final boolean scale )
+	{
+		return computeFFT( img, complexType, outOfBoundsFactory, imageOffset, imageSize, numThreads, null, scale );
+	}
+
+	/**
+	 * Computes the FFT running the lines on the given {@link ExecutorService}, null means the shared one
+	 */
+	final public static <T extends RealType<T>, S extends ComplexType<S>> Image<S> 
+						computeFFT( final Image<T> img, final S complexType, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory,
+						            final int[] imageOffset, final int[] imageSize,
+						            final int numThreads, final ExecutorService executorService, final boolean scale )
+	{
+		return computeFFT( img, complexType, outOfBoundsFactory, imageOffset, imageSize, numThreads, executorService, null, scale );
+	}
+
+	/**
+	 * Computes the FFT into an {@link Image} created by containerFactory, null means the factory of img
+	 */
+	final public static <T extends RealType<T>, S extends ComplexType<S>> Image<S> 
+						computeFFT( final Image<T> img, final S complexType, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory,
+						            final int[] imageOffset, final int[] imageSize,
+						            final int numThreads, final ExecutorService executorService, 
+						            final ContainerFactory containerFactory, final boolean scale )
 	{
 		final int numDimensions = img.getNumDimensions();
 		
@@ -374,7 +443,7 @@ A:						while( cursorDim.hasNext() )
 		for ( int d = 1; d < numDimensions; ++d )
 			complexSize[ d ] = imageSize[ d ];
 		
-		final ImageFactory<S> imgFactory = new ImageFactory<S>( complexType, img.getContainerFactory() );
+		final ImageFactory<S> imgFactory = new ImageFactory<S>( complexType, containerFactory == null ? img.getContainerFactory() : containerFactory );
 		final Image<S> fftImage = imgFactory.createImage( complexSize );
 		
 		// not enough memory
@@ -382,10 +451,11 @@ A:						while( cursorDim.hasNext() )
 			return null;
 		
 		final AtomicInteger ai = new AtomicInteger(0);
-		Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
+		final AtomicInteger lines = new AtomicInteger( 0 );
+		final Runnable[] tasks = new Runnable[ numThreads ];
 		
-		for (int ithread = 0; ithread < threads.length; ++ithread)
-			threads[ithread] = new Thread(new Runnable()
+		for ( int ithread = 0; ithread < tasks.length; ++ithread )
+			tasks[ ithread ] = new Runnable()
 			{
 				public void run()
 				{
@@ -394,7 +464,7 @@ A:						while( cursorDim.hasNext() )
 					final int realSize = imageSize[ 0 ];
 					final int complexSize = fftImage.getDimension( 0 );
 							
-					final float[] tempIn = new float[ realSize ];				
+					final float[] tempIn = ArrayPool.getSharedPool().getFloatArray( realSize );				
 					final FftReal fft = new FftReal( realSize );
 					
 					final LocalizableByDimCursor<T> cursor = img.createLocalizableByDimCursor( outOfBoundsFactory );
@@ -414,15 +484,20 @@ A:						while( cursorDim.hasNext() )
 						
 						final ArrayLocalizableCursor<FakeType> cursorDim = ArrayLocalizableCursor.createLinearCursor( fakeSize );
 
-						final float[] tempOut = new float[ complexSize * 2 ];
+						final float[] tempOut = ArrayPool.getSharedPool().getFloatArray( complexSize * 2 );
 						
+						int line = -1;
+						int next = lines.getAndIncrement();
+
 						// iterate over all dimensions except the one we are computing the fft in, which is dim=0 here
 						while( cursorDim.hasNext() )
 						{
-							cursorDim.fwd();							
+							cursorDim.fwd();
+
+							if ( ++line == next )
+							{
+								next = lines.getAndIncrement();
 
-							if ( cursorDim.getPosition( 0 ) % numThreads == myNumber )
-							{							
 								// get all dimensions except the one we are currently doing the fft on
 								cursorDim.getPosition( fakeSize );
 
@@ -477,6 +552,7 @@ A:						while( cursorDim.hasNext() )
 						cursorOut.close();
 						cursor.close();
 						cursorDim.close();						
+						ArrayPool.getSharedPool().release( tempOut );
 					}
 					else
 					{
@@ -495,7 +571,7 @@ A:						while( cursorDim.hasNext() )
 							tempIn[ realSize-1 ] = cursor.getType().getRealFloat();
 							
 							// compute the fft in dimension 0 ( real -> complex )
-							final float[] tempOut = new float[ complexSize * 2 ];
+							final float[] tempOut = ArrayPool.getSharedPool().getFloatArray( complexSize * 2 );
 							fft.realToComplex( -1, tempIn, tempOut );
 							
 							// set the cursor in the fft output image to 0 in the first (and only) dimension
@@ -520,14 +596,18 @@ A:						while( cursorDim.hasNext() )
 								}
 								cursorOut.getType().setComplexNumber( tempOut[ (complexSize-1) * 2 ], tempOut[ (complexSize-1) * 2 + 1 ] );									
 							}	
+
+							ArrayPool.getSharedPool().release( tempOut );
 						}
 						cursorOut.close();
 						cursor.close();						
 					}
+
+					ArrayPool.getSharedPool().release( tempIn );
 				}
-			});
+			};
 		
-		SimpleMultiThreading.startAndJoin(threads);
+		SimpleMultiThreading.startAndJoin( tasks, executorService );
 				
 		//
 		// do fft in all the other dimensions		
@@ -536,19 +616,16 @@ A:						while( cursorDim.hasNext() )
 		{
 			final int dim = d;
 			
-			ai.set( 0 );
-			threads = SimpleMultiThreading.newThreads( numThreads );
+			lines.set( 0 );
 
-			for (int ithread = 0; ithread < threads.length; ++ithread)
-				threads[ithread] = new Thread(new Runnable()
+			for ( int ithread = 0; ithread < tasks.length; ++ithread )
+				tasks[ ithread ] = new Runnable()
 				{
 					public void run()
 					{
-						final int myNumber = ai.getAndIncrement();
-						
 						final int size = fftImage.getDimension( dim );
 						
-						final float[] tempIn = new float[ size * 2 ];						
+						final float[] tempIn = ArrayPool.getSharedPool().getFloatArray( size * 2 );						
 						final FftComplex fftc = new FftComplex( size );
 						
 						final LocalizableByDimCursor<S> cursor = fftImage.createLocalizableByDimCursor(); 
@@ -567,15 +644,20 @@ A:						while( cursorDim.hasNext() )
 
 						final ArrayLocalizableCursor<FakeType> cursorDim = ArrayLocalizableCursor.createLinearCursor( fakeSize );
 						
-						final float[] tempOut = new float[ size * 2 ];
+						final float[] tempOut = ArrayPool.getSharedPool().getFloatArray( size * 2 );
 						
+						int line = -1;
+						int next = lines.getAndIncrement();
+
 						// iterate over all dimensions except the one we are computing the fft in, which is dim=0 here
 						while( cursorDim.hasNext() )
 						{
-							cursorDim.fwd();							
+							cursorDim.fwd();
 
-							if ( cursorDim.getPosition( 0 ) % numThreads == myNumber )
+							if ( ++line == next )
 							{
+								next = lines.getAndIncrement();
+
 								// update all positions except for the one we are currrently doing the fft on
 								cursorDim.getPosition( fakeSize );
 
@@ -628,10 +710,12 @@ A:						while( cursorDim.hasNext() )
 						
 						cursor.close();
 						cursorDim.close();
+						ArrayPool.getSharedPool().release( tempIn );
+						ArrayPool.getSharedPool().release( tempOut );
 					}
-				});
+				};
 			
-			SimpleMultiThreading.startAndJoin( threads );
+			SimpleMultiThreading.startAndJoin( tasks, executorService );
 		}
 		return fftImage;
 	}
@@ -682,7 +766,7 @@ A:						while( cursorDim.hasNext() )
 		cursor2.close();		
 	}
 
-	final private static <T extends Type<T>> void rearrangeQuadrantFFTDimZero( final Image<T> fftImage, final int numThreads )
+	final private static <T extends Type<T>> void rearrangeQuadrantFFTDimZero( final Image<T> fftImage, final int numThreads, final ExecutorService executorService )
 	{
 		final int numDimensions = fftImage.getNumDimensions();
 		
@@ -693,16 +777,14 @@ A:						while( cursorDim.hasNext() )
 		}
 		
 		//swap in dimension 0
-		final AtomicInteger ai = new AtomicInteger(0);
-		Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
+		final AtomicInteger lines = new AtomicInteger( 0 );
+		final Runnable[] tasks = new Runnable[ numThreads ];
 
-		for (int ithread = 0; ithread < threads.length; ++ithread)
-			threads[ithread] = new Thread(new Runnable()
+		for ( int ithread = 0; ithread < tasks.length; ++ithread )
+			tasks[ ithread ] = new Runnable()
 			{
 				public void run()
 				{
-					final int myNumber = ai.getAndIncrement();
-
 					final int sizeDim = fftImage.getDimension( 0 );					
 					final int halfSizeDim = sizeDim / 2;
 					final int sizeDimMinus1 = sizeDim - 1;
@@ -723,13 +805,18 @@ A:						while( cursorDim.hasNext() )
 					
 					final ArrayLocalizableCursor<FakeType> cursorDim = ArrayLocalizableCursor.createLinearCursor( fakeSize );
 					
+					int line = -1;
+					int next = lines.getAndIncrement();
+
 					// iterate over all dimensions except the one we are computing the fft in, which is dim=0 here
 					while( cursorDim.hasNext() )
 					{
 						cursorDim.fwd();
-						
-						if ( cursorDim.getPosition( 0 ) % numThreads == myNumber )
-						{							
+
+						if ( ++line == next )
+						{
+							next = lines.getAndIncrement();
+
 							// update all positions except for the one we are currrently doing the fft on
 							cursorDim.getPosition( fakeSize );
 			
@@ -774,12 +861,12 @@ A:						while( cursorDim.hasNext() )
 					cursor1.close();
 					cursor2.close();
 				}
-			});
+			};
 		
-		SimpleMultiThreading.startAndJoin( threads );		
+		SimpleMultiThreading.startAndJoin( tasks, executorService );		
 	}
 
-	final private static <T extends Type<T>> void rearrangeQuadrantDim( final Image<T> fftImage, final int dim, final int numThreads )
+	final private static <T extends Type<T>> void rearrangeQuadrantDim( final Image<T> fftImage, final int dim, final int numThreads, final ExecutorService executorService )
 	{
 		final int numDimensions = fftImage.getNumDimensions();
 		
@@ -791,16 +878,14 @@ A:						while( cursorDim.hasNext() )
 		}
 		*/
 		
-		final AtomicInteger ai = new AtomicInteger(0);
-		Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
+		final AtomicInteger lines = new AtomicInteger( 0 );
+		final Runnable[] tasks = new Runnable[ numThreads ];
 		
-		for (int ithread = 0; ithread < threads.length; ++ithread)
-			threads[ithread] = new Thread(new Runnable()
+		for ( int ithread = 0; ithread < tasks.length; ++ithread )
+			tasks[ ithread ] = new Runnable()
 			{
 				public void run()
 				{
-					final int myNumber = ai.getAndIncrement();
-
 					final int sizeDim = fftImage.getDimension( dim );
 					final int halfSizeDim = sizeDim / 2;
 		
@@ -823,13 +908,18 @@ A:						while( cursorDim.hasNext() )
 					
 					final ArrayLocalizableCursor<FakeType> cursorDim = ArrayLocalizableCursor.createLinearCursor( fakeSize );
 		
+					int line = -1;
+					int next = lines.getAndIncrement();
+
 					// iterate over all dimensions except the one we are computing the fft in, which is dim=0 here
 					while( cursorDim.hasNext() )
 					{
 						cursorDim.fwd();
-						
-						if ( cursorDim.getPosition( 0 ) % numThreads == myNumber )
-						{							
+
+						if ( ++line == next )
+						{
+							next = lines.getAndIncrement();
+
 							// update all positions except for the one we are currrently doing the fft on
 							cursorDim.getPosition( fakeSize );
 			
@@ -877,16 +967,21 @@ A:						while( cursorDim.hasNext() )
 					cursor2.close();
 					cursorDim.close();
 				}
-			});
+			};
 		
-		SimpleMultiThreading.startAndJoin( threads );								
+		SimpleMultiThreading.startAndJoin( tasks, executorService );								
 	}
 		
 	final public static <T extends Type<T>> void rearrangeFFTQuadrants( final Image<T> fftImage, final int numThreads )
 	{
-		rearrangeQuadrantFFTDimZero( fftImage, numThreads );
+		rearrangeFFTQuadrants( fftImage, numThreads, null );
+	}
+
+	final public static <T extends Type<T>> void rearrangeFFTQuadrants( final Image<T> fftImage, final int numThreads, final ExecutorService executorService )
+	{
+		rearrangeQuadrantFFTDimZero( fftImage, numThreads, executorService );
 		
 		for ( int d = 1; d < fftImage.getNumDimensions(); ++d )
-			rearrangeQuadrantDim( fftImage, d, numThreads );		
+			rearrangeQuadrantDim( fftImage, d, numThreads, executorService );		
 	}	
 }
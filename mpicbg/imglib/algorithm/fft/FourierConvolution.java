@@ -20,6 +20,8 @@
  */
 package mpicbg.imglib.algorithm.fft;
 
+import java.util.concurrent.ExecutorService;
+
 import mpicbg.imglib.algorithm.Benchmark;
 import mpicbg.imglib.algorithm.MultiThreaded;
 import mpicbg.imglib.algorithm.OutputAlgorithm;
@@ -28,6 +30,8 @@ import mpicbg.imglib.algorithm.fft.FourierTransform.Rearrangement;
 import mpicbg.imglib.algorithm.gauss.GaussianConvolution;
 import mpicbg.imglib.algorithm.math.MathLib;
 import mpicbg.imglib.container.ContainerFactory;
+import mpicbg.imglib.container.array.ArrayContainerFactory;
+import mpicbg.imglib.container.basictypecontainer.array.ArrayPool;
 import mpicbg.imglib.cursor.Cursor;
 import mpicbg.imglib.cursor.LocalizableByDimCursor;
 import mpicbg.imglib.cursor.LocalizableCursor;
@@ -50,6 +54,7 @@ public class FourierConvolution<T extends RealType<T>, S extends RealType<S>> im
 
 	String errorMessage = "";
 	int numThreads;
+	ExecutorService executorService = null;
 	long processingTime;
 
 	public FourierConvolution( final Image<T> image, final Image<S> kernel )
@@ -190,6 +195,9 @@ public class FourierConvolution<T extends RealType<T>, S extends RealType<S>> im
 	public boolean process() 
 	{		
 		final long startTime = System.currentTimeMillis();
+		
+		// the Fourier images and the kernel template are taken from the shared pool, they return there when closed
+		final ContainerFactory tempFactory = ArrayContainerFactory.getPooledFactory( image.getContainerFactory(), ArrayPool.getSharedPool() );
 
 		//
 		// compute fft of the input image
@@ -198,6 +206,8 @@ public class FourierConvolution<T extends RealType<T>, S extends RealType<S>> im
 		{
 			fftImage = new FourierTransform<T, ComplexFloatType>( image, new ComplexFloatType() );
 			fftImage.setNumThreads( this.getNumThreads() );
+			fftImage.setExecutorService( this.getExecutorService() );
+			fftImage.setContainerFactory( tempFactory );
 			
 			// how to extend the input image out of its boundaries for computing the FFT,
 			// we simply mirror the content at the borders
@@ -236,7 +246,7 @@ public class FourierConvolution<T extends RealType<T>, S extends RealType<S>> im
 			// instaniate real valued kernel template
 			// which is of the same container type as the image
 			// so that the computation is easy
-			final ImageFactory<S> kernelTemplateFactory = new ImageFactory<S>( kernel.createType(), image.getContainer().getFactory() );
+			final ImageFactory<S> kernelTemplateFactory = new ImageFactory<S>( kernel.createType(), tempFactory );
 			final Image<S> kernelTemplate = kernelTemplateFactory.createImage( kernelTemplateDim );
 			
 			// copy the kernel into the kernelTemplate,
@@ -271,6 +281,8 @@ public class FourierConvolution<T extends RealType<T>, S extends RealType<S>> im
 			//
 			final FourierTransform<S, ComplexFloatType> fftKernel = new FourierTransform<S, ComplexFloatType>( kernelTemplate, new ComplexFloatType() );
 			fftKernel.setNumThreads( this.getNumThreads() );
+			fftKernel.setExecutorService( this.getExecutorService() );
+			fftKernel.setContainerFactory( tempFactory );
 			
 			fftKernel.setPreProcessing( PreProcessing.NONE );		
 			fftKernel.setRearrangement( fftImage.getRearrangement() );
@@ -307,6 +319,8 @@ public class FourierConvolution<T extends RealType<T>, S extends RealType<S>> im
 		final InverseFourierTransform<T, ComplexFloatType> invFFT = new InverseFourierTransform<T, ComplexFloatType>( imgFFT, fftImage );
 		invFFT.setInPlaceTransform( true );
 		invFFT.setNumThreads( this.getNumThreads() );
+		invFFT.setExecutorService( this.getExecutorService() );
+		invFFT.setContainerFactory( image.getContainerFactory() );
 
 		if ( !invFFT.checkInput() || !invFFT.process() )
 		{
@@ -315,6 +329,7 @@ public class FourierConvolution<T extends RealType<T>, S extends RealType<S>> im
 		}
 		
 		imgFFT.close();
+		imgFFT = null;
 		
 		convolved = invFFT.getResult();	
 		
@@ -334,6 +349,12 @@ public class FourierConvolution<T extends RealType<T>, S extends RealType<S>> im
 	@Override
 	public int getNumThreads() { return numThreads; }	
 
+	@Override
+	public void setExecutorService( final ExecutorService executorService ) { this.executorService = executorService; }
+
+	@Override
+	public ExecutorService getExecutorService() { return executorService; }
+
 	@Override
 	public Image<T> getResult() { return convolved; }
 
@@ -20,12 +20,15 @@
  */
 package mpicbg.imglib.algorithm.fft;
 
+import java.util.concurrent.ExecutorService;
+
 import edu.mines.jtk.dsp.FftComplex;
 import edu.mines.jtk.dsp.FftReal;
 import mpicbg.imglib.algorithm.Benchmark;
 import mpicbg.imglib.algorithm.MultiThreaded;
 import mpicbg.imglib.algorithm.OutputAlgorithm;
 import mpicbg.imglib.algorithm.math.MathLib;
+import mpicbg.imglib.container.ContainerFactory;
 import mpicbg.imglib.image.Image;
 import mpicbg.imglib.outofbounds.OutOfBoundsStrategyFactory;
 import mpicbg.imglib.outofbounds.OutOfBoundsStrategyMirrorExpWindowingFactory;
@@ -58,9 +61,13 @@ public class FourierTransform<T extends RealType<T>, S extends ComplexType<S>> i
 	int[] inputSize = null, inputSizeOffset = null;
 	
 	final S complexType;
+	
+	// creates the Fourier image, null means the factory of the input image
+	ContainerFactory containerFactory = null;
 
 	String errorMessage = "";
 	int numThreads;
+	ExecutorService executorService = null;
 	long processingTime;
 
 	public FourierTransform( final Image<T> image, final S complexType, final PreProcessing preProcessing, final Rearrangement rearrangement,
@@ -129,6 +136,7 @@ public class FourierTransform<T extends RealType<T>, S extends ComplexType<S>> i
 	public void setCustomOutOfBoundsStrategy( final OutOfBoundsStrategyFactory<T> strategy ) { this.strategy = strategy; } 
 	public void setMinExtension( final int minExtension ) { this.minExtension = minExtension; }	
 	public void setImageExtension( final int[] imageExtension ) { this.imageExtension = imageExtension.clone(); }
+	public void setContainerFactory( final ContainerFactory containerFactory ) { this.containerFactory = containerFactory; }
 	public boolean setExtendedOriginalImageSize( final int[] inputSize )
 	{
 		for ( int d = 0; d < numDimensions; ++d )
@@ -175,6 +183,7 @@ public class FourierTransform<T extends RealType<T>, S extends ComplexType<S>> i
 	public PreProcessing getPreProcessing() { return preProcessing; }
 	public Rearrangement getRearrangement() { return rearrangement; }
 	public FFTOptimization getFFOptimization() { return fftOptimization; }
+	public ContainerFactory getContainerFactory() { return containerFactory; }
 	public float getRelativeImageExtension() { return relativeImageExtensionRatio; } 
 	public int[] getImageExtension() { return imageExtension.clone(); }
 	public float getRelativeFadeOutDistance() { return relativeFadeOutDistance; }
@@ -254,7 +263,7 @@ public class FourierTransform<T extends RealType<T>, S extends ComplexType<S>> i
 		}
 		
 		
-		fftImage = FFTFunctions.computeFFT( img, complexType, outOfBoundsFactory, originalOffset, extendedZeroPaddedSize, getNumThreads(), false );
+		fftImage = FFTFunctions.computeFFT( img, complexType, outOfBoundsFactory, originalOffset, extendedZeroPaddedSize, getNumThreads(), getExecutorService(), containerFactory, false );
 		
 		if ( fftImage == null )
 		{
@@ -264,7 +273,7 @@ public class FourierTransform<T extends RealType<T>, S extends ComplexType<S>> i
 
 		// rearrange quadrants if wanted
 		if ( rearrangement == Rearrangement.REARRANGE_QUADRANTS )
-			FFTFunctions.rearrangeFFTQuadrants( fftImage, getNumThreads() );
+			FFTFunctions.rearrangeFFTQuadrants( fftImage, getNumThreads(), getExecutorService() );
 			
         processingTime = System.currentTimeMillis() - startTime;
 
@@ -318,6 +327,12 @@ public class FourierTransform<T extends RealType<T>, S extends ComplexType<S>> i
 	@Override
 	public int getNumThreads() { return numThreads; }	
 
+	@Override
+	public void setExecutorService( final ExecutorService executorService ) { this.executorService = executorService; }
+
+	@Override
+	public ExecutorService getExecutorService() { return executorService; }
+
 	@Override
 	public Image<S> getResult() { return fftImage; }
 
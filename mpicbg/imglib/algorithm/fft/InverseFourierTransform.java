@@ -20,10 +20,13 @@
  */
 package mpicbg.imglib.algorithm.fft;
 
+import java.util.concurrent.ExecutorService;
+
 import mpicbg.imglib.algorithm.Benchmark;
 import mpicbg.imglib.algorithm.MultiThreaded;
 import mpicbg.imglib.algorithm.OutputAlgorithm;
 import mpicbg.imglib.algorithm.fft.FourierTransform.Rearrangement;
+import mpicbg.imglib.container.ContainerFactory;
 import mpicbg.imglib.image.Image;
 import mpicbg.imglib.type.numeric.ComplexType;
 import mpicbg.imglib.type.numeric.RealType;
@@ -39,10 +42,14 @@ public class InverseFourierTransform<T extends RealType<T>, S extends ComplexTyp
 
 	String errorMessage = "";
 	int numThreads;
+	ExecutorService executorService = null;
 	long processingTime;
 	boolean scale, inPlace, cropBack;
 	int[] originalSize, originalOffset; 
 	float additionalNormalization;
+	
+	// creates the output image, null means the factory of the Fourier image
+	ContainerFactory containerFactory = null;
 
 	public InverseFourierTransform( final Image<S> fftImage, final T type, final Rearrangement rearrangement, 
 									final boolean inPlace, final boolean scale, final boolean cropBack, 
@@ -90,6 +97,7 @@ public class InverseFourierTransform<T extends RealType<T>, S extends ComplexTyp
 	public void setOriginalSize( final int[] originalSize ) { this.originalSize = originalSize; }
 	public void setOriginalOffset( final int[] originalOffset ) { this.originalOffset = originalOffset; }
 	public void setAdditionalNormalization( final float additionalNormalization ) { this.additionalNormalization = additionalNormalization; }
+	public void setContainerFactory( final ContainerFactory containerFactory ) { this.containerFactory = containerFactory; }
 
 	public Rearrangement getRearrangement() { return rearrangement; }
 	public boolean getInPlaceTransform() { return inPlace; }
@@ -98,6 +106,7 @@ public class InverseFourierTransform<T extends RealType<T>, S extends ComplexTyp
 	public int[] getOriginalSize() { return originalSize.clone(); }
 	public int[] getOriginalOffset() { return originalOffset.clone(); }
 	public float getAdditionalNormalization() { return additionalNormalization; }
+	public ContainerFactory getContainerFactory() { return containerFactory; }
 
 	@Override
 	public boolean process() 
@@ -113,10 +122,10 @@ public class InverseFourierTransform<T extends RealType<T>, S extends ComplexTyp
 			complex = fftImage.clone();
 			
 		if ( rearrangement == Rearrangement.REARRANGE_QUADRANTS )
-			FFTFunctions.rearrangeFFTQuadrants( complex, getNumThreads() );
+			FFTFunctions.rearrangeFFTQuadrants( complex, getNumThreads(), getExecutorService() );
 
 		// perform inverse FFT 					
-		image = FFTFunctions.computeInverseFFT( complex, type, getNumThreads(), scale, cropBack, originalSize, originalOffset, additionalNormalization );
+		image = FFTFunctions.computeInverseFFT( complex, type, getNumThreads(), getExecutorService(), containerFactory, scale, cropBack, originalSize, originalOffset, additionalNormalization );
 		
 		if ( !inPlace )
 			complex.close();
@@ -138,6 +147,12 @@ public class InverseFourierTransform<T extends RealType<T>, S extends ComplexTyp
 	@Override
 	public int getNumThreads() { return numThreads; }	
 
+	@Override
+	public void setExecutorService( final ExecutorService executorService ) { this.executorService = executorService; }
+
+	@Override
+	public ExecutorService getExecutorService() { return executorService; }
+
 	@Override
 	public Image<T> getResult() { return image; }
 
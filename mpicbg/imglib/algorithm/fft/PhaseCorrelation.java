@@ -22,6 +22,7 @@ package mpicbg.imglib.algorithm.fft;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import mpicbg.imglib.algorithm.Algorithm;
@@ -29,6 +30,8 @@ import mpicbg.imglib.algorithm.Benchmark;
 import mpicbg.imglib.algorithm.MultiThreaded;
 import mpicbg.imglib.algorithm.fft.FourierTransform.Rearrangement;
 import mpicbg.imglib.algorithm.math.MathLib;
+import mpicbg.imglib.container.array.ArrayContainerFactory;
+import mpicbg.imglib.container.basictypecontainer.array.ArrayPool;
 import mpicbg.imglib.cursor.Cursor;
 import mpicbg.imglib.cursor.LocalizableByDimCursor;
 import mpicbg.imglib.cursor.special.LocalNeighborhoodCursor;
@@ -54,6 +57,7 @@ public class PhaseCorrelation<T extends RealType<T>, S extends RealType<S>> impl
 
 	String errorMessage = "";
 	int numThreads;
+	ExecutorService executorService = null;
 	long processingTime;
 
 	public PhaseCorrelation( final Image<T> image1, final Image<S> image2, final int numPeaks, final boolean verifyWithCrossCorrelation )
@@ -106,6 +110,10 @@ public class PhaseCorrelation<T extends RealType<T>, S extends RealType<S>> impl
 		// compute fourier transforms
 		final FourierTransform<T, ComplexFloatType> fft1 = new FourierTransform<T, ComplexFloatType>( image1, new ComplexFloatType() );
 		final FourierTransform<S, ComplexFloatType> fft2 = new FourierTransform<S, ComplexFloatType>( image2, new ComplexFloatType() );
+		
+		// the Fourier images and the phase correlation matrix are taken from the shared pool, they return there when closed
+		fft1.setContainerFactory( ArrayContainerFactory.getPooledFactory( image1.getContainerFactory(), ArrayPool.getSharedPool() ) );
+		fft2.setContainerFactory( ArrayContainerFactory.getPooledFactory( image2.getContainerFactory(), ArrayPool.getSharedPool() ) );
 		fft1.setRelativeImageExtension( 0.1f );
 		fft2.setRelativeImageExtension( 0.1f );
 		fft1.setRelativeFadeOutDistance( 0.1f );
@@ -176,6 +184,7 @@ public class PhaseCorrelation<T extends RealType<T>, S extends RealType<S>> impl
 		final InverseFourierTransform<FloatType, ComplexFloatType> invFFT = new InverseFourierTransform<FloatType, ComplexFloatType>( fftImage1, fft1, new FloatType() );
 		invFFT.setInPlaceTransform( true );
 		invFFT.setCropBackToOriginalSize( false );
+		invFFT.setExecutorService( getExecutorService() );
 		
 		if ( !invFFT.checkInput() || !invFFT.process() )
 		{
@@ -202,10 +211,13 @@ public class PhaseCorrelation<T extends RealType<T>, S extends RealType<S>> impl
 		//
 		phaseCorrelationPeaks = extractPhaseCorrelationPeaks( invPCM, numPeaks, fft1, fft2 );
 		
+		final int[] dimInvPCM = invPCM.getDimensions();
+		invPCM.close();
+		
 		if ( !verifyWithCrossCorrelation )
 			return true;
 
-		verifyWithCrossCorrelation( phaseCorrelationPeaks, invPCM.getDimensions(), image1, image2 );
+		verifyWithCrossCorrelation( phaseCorrelationPeaks, dimInvPCM, image1, image2 );
 		
 		return true;
 	}
@@ -246,30 +258,26 @@ public class PhaseCorrelation<T extends RealType<T>, S extends RealType<S>> impl
 		// test them multithreaded
 		//
 		final AtomicInteger ai = new AtomicInteger(0);
-		Thread[] threads = SimpleMultiThreading.newThreads( getNumThreads() );
-		final int numThreads = threads.length;
+		final Runnable[] tasks = new Runnable[ getNumThreads() ];
 			
-		for (int ithread = 0; ithread < threads.length; ++ithread)
-			threads[ithread] = new Thread(new Runnable()
+		for ( int ithread = 0; ithread < tasks.length; ++ithread )
+			tasks[ ithread ] = new Runnable()
 			{
 				public void run()
 				{
-					final int myNumber = ai.getAndIncrement();
-					
-					for ( int i = 0; i < newPeakList.size(); ++i )
-						if ( i % numThreads == myNumber )
-						{
-							final PhaseCorrelationPeak peak = newPeakList.get( i );
-							peak.setCrossCorrelationPeak( (float)testCrossCorrelation( peak.getPosition(), image1, image2, minOverlapPx ) );
-							
-							// sort by cross correlation peak
-							peak.setSortPhaseCorrelation( false );
-						}
-											
+					// the peaks are handed out one by one to the next free thread
+					for ( int i = ai.getAndIncrement(); i < newPeakList.size(); i = ai.getAndIncrement() )
+					{
+						final PhaseCorrelationPeak peak = newPeakList.get( i );
+						peak.setCrossCorrelationPeak( (float)testCrossCorrelation( peak.getPosition(), image1, image2, minOverlapPx ) );
+						
+						// sort by cross correlation peak
+						peak.setSortPhaseCorrelation( false );
+					}
 				}
-			});
+			};
 		
-		SimpleMultiThreading.startAndJoin( threads );
+		SimpleMultiThreading.startAndJoin( tasks, executorService );
 		
 		// update old list and sort
 		peakList.clear();
@@ -545,11 +553,11 @@ public class PhaseCorrelation<T extends RealType<T>, S extends RealType<S>> impl
 	protected void normalizeAndConjugate( final Image<ComplexFloatType> fftImage1, final Image<ComplexFloatType> fftImage2 )
 	{
 		final AtomicInteger ai = new AtomicInteger(0);
-		Thread[] threads = SimpleMultiThreading.newThreads( Math.min( 2, numThreads ) );
-		final int numThreads = threads.length;
+		final Runnable[] tasks = new Runnable[ Math.min( 2, numThreads ) ];
+		final int numThreads = tasks.length;
 			
-		for (int ithread = 0; ithread < threads.length; ++ithread)
-			threads[ithread] = new Thread(new Runnable()
+		for ( int ithread = 0; ithread < tasks.length; ++ithread )
+			tasks[ ithread ] = new Runnable()
 			{
 				public void run()
 				{
@@ -568,9 +576,9 @@ public class PhaseCorrelation<T extends RealType<T>, S extends RealType<S>> impl
 							normalizeAndConjugateComplexImage( fftImage2, normalizationThreshold );
 					}
 				}
-			});
+			};
 		
-		SimpleMultiThreading.startAndJoin( threads );		
+		SimpleMultiThreading.startAndJoin( tasks, executorService );		
 	}
 	
 	private static final void normalizeComplexImage( final Image<ComplexFloatType> fftImage, final float normalizationThreshold )
@@ -626,13 +634,13 @@ public class PhaseCorrelation<T extends RealType<T>, S extends RealType<S>> impl
 		final int minThreads = computeFFTinParalell ? 2 : 1;
 		
 		final AtomicInteger ai = new AtomicInteger(0);
-		Thread[] threads = SimpleMultiThreading.newThreads( Math.min( minThreads, numThreads ) );
-		final int numThreads = threads.length;
+		final Runnable[] tasks = new Runnable[ Math.min( minThreads, numThreads ) ];
+		final int numThreads = tasks.length;
 		
 		final boolean[] sucess = new boolean[ 2 ];
 		
-		for (int ithread = 0; ithread < threads.length; ++ithread)
-			threads[ithread] = new Thread(new Runnable()
+		for ( int ithread = 0; ithread < tasks.length; ++ithread )
+			tasks[ ithread ] = new Runnable()
 			{
 				public void run()
 				{
@@ -642,6 +650,8 @@ public class PhaseCorrelation<T extends RealType<T>, S extends RealType<S>> impl
 					{
 						fft1.setNumThreads( getNumThreads() );
 						fft2.setNumThreads( getNumThreads() );
+						fft1.setExecutorService( getExecutorService() );
+						fft2.setExecutorService( getExecutorService() );
 						sucess[ 0 ] = fft1.process();
 						sucess[ 1 ] = fft2.process();
 					}
@@ -650,18 +660,20 @@ public class PhaseCorrelation<T extends RealType<T>, S extends RealType<S>> impl
 						if ( myNumber == 0 )
 						{
 							fft1.setNumThreads( getNumThreads() / 2 );
+							fft1.setExecutorService( getExecutorService() );
 							sucess[ 0 ] = fft1.process();							
 						}
 						else
 						{
 							fft2.setNumThreads( getNumThreads() / 2 );
+							fft2.setExecutorService( getExecutorService() );
 							sucess[ 1 ] = fft2.process();														
 						}
 					}
 				}
-			});
+			};
 		
-		SimpleMultiThreading.startAndJoin( threads );
+		SimpleMultiThreading.startAndJoin( tasks, executorService );
 		
 		return sucess[ 0 ] && sucess[ 1 ]; 
 	}
@@ -678,6 +690,12 @@ public class PhaseCorrelation<T extends RealType<T>, S extends RealType<S>> impl
 	@Override
 	public int getNumThreads() { return numThreads; }	
 
+	@Override
+	public void setExecutorService( final ExecutorService executorService ) { this.executorService = executorService; }
+
+	@Override
+	public ExecutorService getExecutorService() { return executorService; }
+
 	@Override
 	public boolean checkInput() 
 	{
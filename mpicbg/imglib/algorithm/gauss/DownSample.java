@@ -16,12 +16,18 @@
  */
 package mpicbg.imglib.algorithm.gauss;
 
+import java.util.concurrent.ExecutorService;
+
 import mpicbg.imglib.algorithm.Benchmark;
 import mpicbg.imglib.algorithm.MultiThreaded;
 import mpicbg.imglib.algorithm.OutputAlgorithm;
 import mpicbg.imglib.algorithm.math.MathLib;
+import mpicbg.imglib.container.ContainerFactory;
+import mpicbg.imglib.container.array.ArrayContainerFactory;
+import mpicbg.imglib.container.basictypecontainer.array.ArrayPool;
 import mpicbg.imglib.cursor.LocalizableCursor;
 import mpicbg.imglib.image.Image;
+import mpicbg.imglib.image.ImageFactory;
 import mpicbg.imglib.interpolation.Interpolator;
 import mpicbg.imglib.interpolation.nearestneighbor.NearestNeighborInterpolatorFactory;
 import mpicbg.imglib.outofbounds.OutOfBoundsStrategyMirrorFactory;
@@ -38,6 +44,7 @@ public class DownSample<T extends RealType<T>> implements MultiThreaded, OutputA
 
 	String errorMessage = "";
 	int numThreads;
+	ExecutorService executorService = null;
 	long processingTime;
 
 	public DownSample( final Image<T> image, final int[] newSize, final float sourceSigma, final float targetSigma )
@@ -122,16 +129,21 @@ public class DownSample<T extends RealType<T>> implements MultiThreaded, OutputA
 			sigma[ d ] = Math.sqrt( s * s - sourceSigma * sourceSigma );
 		}
 		
-		final GaussianConvolution<T> gauss = new GaussianConvolutionRealType<T>( input, new OutOfBoundsStrategyMirrorFactory<T>(), sigma );
+		// the smoothed image is only needed temporarily, it is taken from the shared pool and returns there when closed
+		final ContainerFactory tempFactory = ArrayContainerFactory.getPooledFactory( input.getContainerFactory(), ArrayPool.getSharedPool() );
+		final Image<T> gaussConvolved = new ImageFactory<T>( input.createType(), tempFactory ).createImage( input.getDimensions() );
+		
+		final GaussianConvolution<T> gauss = new GaussianConvolutionRealType<T>( input, gaussConvolved, new OutOfBoundsStrategyMirrorFactory<T>(), sigma );
 		gauss.setNumThreads( getNumThreads() );
+		gauss.setExecutorService( getExecutorService() );
 		
 		if ( !gauss.checkInput() || !gauss.process() )
 		{
 			errorMessage = "Gaussian Convolution failed: " + gauss.getErrorMessage();
+			gaussConvolved.close();
 			return false;
 		}
 		
-		final Image<T> gaussConvolved = gauss.getResult();
 		downSampled = input.createNewImage( newSize );
 		
 		final Interpolator<T> interpolator = gaussConvolved.createInterpolator( new NearestNeighborInterpolatorFactory<T>( new OutOfBoundsStrategyMirrorFactory<T>() ) );		
@@ -212,4 +224,10 @@ public class DownSample<T extends RealType<T>> implements MultiThreaded, OutputA
 
 	@Override
 	public void setNumThreads( final int numThreads ) { this.numThreads = numThreads; }
+
+	@Override
+	public void setExecutorService( final ExecutorService executorService ) { this.executorService = executorService; }
+
+	@Override
+	public ExecutorService getExecutorService() { return executorService; }
 }
@@ -16,16 +16,21 @@
  */
 package mpicbg.imglib.algorithm.gauss;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import mpicbg.imglib.algorithm.Benchmark;
 import mpicbg.imglib.algorithm.MultiThreaded;
 import mpicbg.imglib.algorithm.OutputAlgorithm;
+import mpicbg.imglib.algorithm.Precision.PrecisionReal;
+import mpicbg.imglib.algorithm.convolution.SeparableConvolution;
 import mpicbg.imglib.algorithm.math.MathLib;
 import mpicbg.imglib.container.DirectAccessContainer;
 import mpicbg.imglib.container.array.Array3D;
 import mpicbg.imglib.container.basictypecontainer.FloatAccess;
-import mpicbg.imglib.container.basictypecontainer.array.FloatArray;
+import mpicbg.imglib.container.basictypecontainer.array.ArrayDataAccess;
+import mpicbg.imglib.container.basictypecontainer.array.ArrayPool;
 import mpicbg.imglib.cursor.LocalizableByDimCursor;
 import mpicbg.imglib.cursor.LocalizableByDimCursor3D;
 import mpicbg.imglib.cursor.LocalizableCursor;
@@ -33,6 +38,7 @@ import mpicbg.imglib.image.Image;
 import mpicbg.imglib.multithreading.SimpleMultiThreading;
 import mpicbg.imglib.outofbounds.OutOfBoundsStrategyFactory;
 import mpicbg.imglib.type.numeric.NumericType;
+import mpicbg.imglib.type.numeric.RealType;
 import mpicbg.imglib.type.numeric.real.FloatType;
 
 public class GaussianConvolution< T extends NumericType<T>> implements MultiThreaded, OutputAlgorithm<T>, Benchmark
@@ -45,12 +51,22 @@ public class GaussianConvolution< T extends NumericType<T>> implements MultiThre
 
 	long processingTime;
 	int numThreads;
+	ExecutorService executorService = null;
+	double minRecursiveSigma = RecursiveGaussian.DEFAULT_MIN_RECURSIVE_SIGMA;
 	String errorMessage = "";
 
-	public GaussianConvolution( final Image<T> image, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory, final double[] sigma )
+	/**
+	 * Convolves image into output, which may also be the image itself. Only buffers for single lines are allocated then.
+	 * 
+	 * @param image - the image to convolve
+	 * @param output - the image to write to, of the same size as the input
+	 * @param outOfBoundsFactory - the out of bounds strategy
+	 * @param sigma - the sigma for each dimension
+	 */
+	public GaussianConvolution( final Image<T> image, final Image<T> output, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory, final double[] sigma )
 	{
 		this.image = image;
-		this.convolved = image.createNewImage();
+		this.convolved = output;
 		this.sigma = sigma;
 		this.processingTime = -1;
 		setNumThreads();
@@ -64,6 +80,16 @@ public class GaussianConvolution< T extends NumericType<T>> implements MultiThre
 			this.kernel[ d ] = MathLib.createGaussianKernel1DDouble( sigma[ d ], true );
 	}
 
+	public GaussianConvolution( final Image<T> image, final Image<T> output, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory, final double sigma )
+	{
+		this ( image, output, outOfBoundsFactory, createArray(image, sigma));
+	}
+
+	public GaussianConvolution( final Image<T> image, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory, final double[] sigma )
+	{
+		this ( image, image.createNewImage(), outOfBoundsFactory, sigma );
+	}
+
 	public GaussianConvolution( final Image<T> image, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory, final double sigma )
 	{
 		this ( image, outOfBoundsFactory, createArray(image, sigma));
@@ -90,6 +116,45 @@ public class GaussianConvolution< T extends NumericType<T>> implements MultiThre
 
 	@Override
 	public int getNumThreads() { return numThreads; }	
+
+	@Override
+	public void setExecutorService( final ExecutorService executorService ) { this.executorService = executorService; }
+
+	@Override
+	public ExecutorService getExecutorService() { return executorService; }
+	
+	/**
+	 * Sigmas from this size on are convolved with the {@link RecursiveGaussian} if the image is of a {@link RealType},
+	 * whose cost does not depend on sigma. Set it to Double.MAX_VALUE to always use a kernel.
+	 * 
+	 * @param minRecursiveSigma - the smallest sigma to convolve recursively
+	 */
+	public void setMinRecursiveSigma( final double minRecursiveSigma ) { this.minRecursiveSigma = minRecursiveSigma; }
+	public double getMinRecursiveSigma() { return minRecursiveSigma; }
+	
+	/**
+	 * @return - if input and output are both {@link FloatType} images using an {@link Array3D}, which has its own fast implementation
+	 */
+	protected boolean isArray3DFloat()
+	{
+		return Array3D.class.isInstance( image.getContainer() ) && Array3D.class.isInstance( convolved.getContainer() ) &&
+		       FloatType.class.isInstance( image.createType() );
+	}
+	
+	/**
+	 * @return - if at least one dimension is convolved recursively
+	 */
+	protected boolean isRecursive()
+	{
+		if ( !RealType.class.isInstance( image.createType() ) )
+			return false;
+		
+		for ( final double s : sigma )
+			if ( s >= minRecursiveSigma )
+				return true;
+		
+		return false;
+	}
 	
 	/**
 	 * The sigma the image was convolved with
@@ -114,13 +179,27 @@ public class GaussianConvolution< T extends NumericType<T>> implements MultiThre
 			errorMessage = "GaussianConvolution: [Image<T> img] is null.";
 			return false;
 		}
+		else if ( convolved == null )
+		{
+			errorMessage = "GaussianConvolution: [Image<T> output] is null.";
+			return false;
+		}
 		else if ( outOfBoundsFactory == null )
 		{
 			errorMessage = "GaussianConvolution: [OutOfBoundsStrategyFactory<T>] is null.";
 			return false;
 		}
-		else
-			return true;
+		
+		for ( int d = 0; d < numDimensions; ++d )
+		{
+			if ( convolved.getDimension( d ) != image.getDimension( d ) )
+			{
+				errorMessage = "GaussianConvolution: The output image does not have the same dimensions as the input image.";
+				return false;				
+			}
+		}
+		
+		return true;
 	}
 
 	@Override
@@ -131,7 +210,7 @@ public class GaussianConvolution< T extends NumericType<T>> implements MultiThre
 	{		
 		final long startTime = System.currentTimeMillis();
 	
-		if ( Array3D.class.isInstance( image.getContainer() ) && FloatType.class.isInstance( image.createType() ))
+		if ( isArray3DFloat() && !isRecursive() )
 		{
     		//System.out.println( "GaussianConvolution: Input is instance of Image<Float> using an Array3D, fast forward algorithm");
     		computeGaussFloatArray3D();
@@ -140,9 +219,19 @@ public class GaussianConvolution< T extends NumericType<T>> implements MultiThre
     		
     		return true;
 		}
+		
+		if ( RealType.class.isInstance( image.createType() ) )
+		{
+			// real valued images are convolved line by line in primitive buffers
+			final boolean success = convolveSeparable( ( (RealType<?>)image.createType() ).getPreferredRealPrecision() );
+			
+			processingTime = System.currentTimeMillis() - startTime;
+			
+			return success;
+		}
     	
-        final Image<T> temp = image.createNewImage();        
-    	final long imageSize = image.getNumPixels();
+        // the first pass reads the input, all others work in place on the output
+        Image<T> source = image;
 
         //
         // Folding loop
@@ -150,96 +239,177 @@ public class GaussianConvolution< T extends NumericType<T>> implements MultiThre
         for ( int dim = 0; dim < numDimensions; dim++ )
         {
          	final int currentDim = dim;
+         	final Image<T> currentSource = source;
+         	final long numLines = image.getNumPixelsLong() / image.getDimension( dim );
         	
-			final AtomicInteger ai = new AtomicInteger(0);					
-	        final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
-	        
-	        final long threadChunkSize = imageSize / threads.length;
-	        final long threadChunkMod = imageSize % threads.length;
+         	// the lines are handed out one by one to the next free thread
+			final AtomicLong lines = new AtomicLong( 0 );
+	        final Runnable[] tasks = new Runnable[ numThreads ];
 	
-	        for (int ithread = 0; ithread < threads.length; ++ithread)
-	            threads[ithread] = new Thread(new Runnable()
+	        for (int ithread = 0; ithread < tasks.length; ++ithread)
+	            tasks[ithread] = new Runnable()
 	            {
 	                public void run()
 	                {
-	                	// Thread ID
-	                	final int myNumber = ai.getAndIncrement();
-
-	                	//System.out.println("Thread " + myNumber + " folds in dimension " + currentDim);
-
-	                	final LocalizableByDimCursor<T> inputIterator;
-	                	final LocalizableCursor<T> outputIterator;
-	                	
-	                	if ( numDimensions % 2 == 0 ) // even number of dimensions ( 2d, 4d, 6d, ... )
-	                	{
-	                		if ( currentDim == 0 ) // first dimension convolve to the temporary image
-	                		{
-			                	inputIterator = image.createLocalizableByDimCursor( outOfBoundsFactory );
-			                    outputIterator = temp.createLocalizableCursor();	                			
-	                		}
-	                		else if ( currentDim % 2 == 1 ) // for odd dimension ids we convolve to the output image, because that might be the last convolution  
-	                		{
-			                	inputIterator = temp.createLocalizableByDimCursor( outOfBoundsFactory );
-			                    outputIterator = convolved.createLocalizableCursor();
-	                		}
-	                		else //if ( currentDim % 2 == 0 ) // for even dimension ids we convolve to the temp image, it is not the last convolution for sure
-	                		{
-			                	inputIterator = convolved.createLocalizableByDimCursor( outOfBoundsFactory );
-			                    outputIterator = temp.createLocalizableCursor();
-	                		}	                		
-	                	}
-	                	else // ( numDimensions % 2 != 0 ) // even number of dimensions ( 1d, 3d, 5d, ... )
-	                	{
-	                		if ( currentDim == 0 ) // first dimension convolve to the output image, in the 1d case we are done then already
-	                		{
-			                	inputIterator = image.createLocalizableByDimCursor( outOfBoundsFactory );
-			                    outputIterator = convolved.createLocalizableCursor();	                			
-	                		}
-	                		else if ( currentDim % 2 == 1 ) // for odd dimension ids we convolve to the output image, because that might be the last convolution  
-	                		{
-			                	inputIterator = convolved.createLocalizableByDimCursor( outOfBoundsFactory );
-			                    outputIterator = temp.createLocalizableCursor();
-	                		}
-	                		else //if ( currentDim % 2 == 0 ) // for even dimension ids we convolve to the temp image, it is not the last convolution for sure
-	                		{
-			                	inputIterator = temp.createLocalizableByDimCursor( outOfBoundsFactory );
-			                    outputIterator = convolved.createLocalizableCursor();
-	                		}	 
-	                	}
-	                	
-	                	// move to the starting position of the current thread
-	                	final long startPosition = myNumber * threadChunkSize;
-
-	                    // the last thread may has to run longer if the number of pixels cannot be divided by the number of threads
-	                    final long loopSize;		                    
-	                    if ( myNumber == numThreads - 1 )
-	                    	loopSize = threadChunkSize + threadChunkMod;
-	                    else
-	                    	loopSize = threadChunkSize;
-	                	
-	                    // convolve the image in the current dimension using the given cursors
-	                    float[] kernelF = new float[ kernel[ currentDim ].length ];
-	                    
-	                    for ( int i = 0; i < kernelF.length; ++i )
-	                    	kernelF[ i ] = (float)kernel[ currentDim ][ i ];
-	                    
-	                    convolve( inputIterator, outputIterator, currentDim, kernelF, startPosition, loopSize );
-		                
-		                inputIterator.close();
-		                outputIterator.close();		               
+	                	convolveLines( currentSource, convolved, currentDim, lines, numLines );
 	                }
-	            });
-	        SimpleMultiThreading.startAndJoin(threads);
+	            };
+	        SimpleMultiThreading.startAndJoin( tasks, executorService );
+	        
+	        source = convolved;
         }
 
-        // close temporary datastructure
-        temp.close();
-        
         processingTime = System.currentTimeMillis() - startTime;
         
         return true;
 	}
 	
+	/**
+	 * Convolves a {@link RealType} image using the {@link SeparableConvolution}, or the {@link RecursiveGaussian}
+	 * if one of the sigmas is at least minRecursiveSigma
+	 * 
+	 * @param precision - compute in float or double
+	 * @return - true if successful
+	 */
+	@SuppressWarnings("unchecked")
+	protected boolean convolveSeparable( final PrecisionReal precision )
+	{
+		/* inconvertible types due to javac bug 6548436, T is known to be a RealType here */
+		final SeparableConvolution<?> convolution = createSeparableConvolution( (Image)image, (Image)convolved, (OutOfBoundsStrategyFactory)outOfBoundsFactory );
+		
+		convolution.setPrecision( precision );
+		convolution.setNumThreads( getNumThreads() );
+		convolution.setExecutorService( getExecutorService() );
+		
+		if ( !convolution.checkInput() || !convolution.process() )
+		{
+			errorMessage = "GaussianConvolution: " + convolution.getErrorMessage();
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * @return - a {@link RecursiveGaussian} if one of the sigmas is at least minRecursiveSigma, otherwise a {@link SeparableConvolution}
+	 */
+	protected <R extends RealType<R>> SeparableConvolution<R> createSeparableConvolution( final Image<R> image, final Image<R> output, final OutOfBoundsStrategyFactory<R> outOfBoundsFactory )
+	{
+		if ( isRecursive() )
+			return new RecursiveGaussian<R>( image, output, outOfBoundsFactory, sigma, minRecursiveSigma );
+		else
+			return new SeparableConvolution<R>( image, output, outOfBoundsFactory, kernel );
+	}
+	
+	/**
+	 * Convolves the lines of dimension dim handed out by the counter. Every line is copied into a buffer
+	 * together with the out of bounds pixels the kernel reaches, so the target may be the source itself.
+	 * 
+	 * @param source - the image to read from
+	 * @param target - the image to write to
+	 * @param dim - the dimension
+	 * @param lines - the counter of the next line to convolve
+	 * @param numLines - the number of lines
+	 */
+	protected void convolveLines( final Image<T> source, final Image<T> target, final int dim, final AtomicLong lines, final long numLines )
+	{
+		final int size = source.getDimension( dim );
+		final int filterSize = kernel[ dim ].length;
+		final int filterSizeHalf = filterSize / 2;
+		
+		final float[] kernelF = new float[ filterSize ];
+		for ( int f = 0; f < filterSize; ++f )
+			kernelF[ f ] = (float)kernel[ dim ][ f ];
+		
+		final T type = source.createType();
+		final T[] line = type.createArray1D( size + filterSize - 1 );
+		final T[] result = type.createArray1D( size );
+		
+		for ( int i = 0; i < line.length; ++i )
+			line[ i ] = type.createVariable();
+		for ( int i = 0; i < result.length; ++i )
+			result[ i ] = type.createVariable();
+		
+		final T sum = type.createVariable();
+		final T tmp = type.createVariable();
+		final int[] position = new int[ numDimensions ];
+		
+		final LocalizableByDimCursor<T> inputIterator = source.createLocalizableByDimCursor();
+		final LocalizableByDimCursor<T> outOfBoundsIterator = source.createLocalizableByDimCursor( outOfBoundsFactory );
+		final LocalizableByDimCursor<T> outputIterator = target.createLocalizableByDimCursor();
+		
+		for ( long l = lines.getAndIncrement(); l < numLines; l = lines.getAndIncrement() )
+		{
+			SeparableConvolution.getLinePosition( source, dim, l, position );
+			
+			// read the line, only the pixels outside of the image need the out of bounds strategy
+			position[ dim ] = -filterSizeHalf;
+			outOfBoundsIterator.setPosition( position );
+			
+			for ( int i = 0; i < filterSizeHalf; ++i )
+			{
+				line[ i ].set( outOfBoundsIterator.getType() );
+				outOfBoundsIterator.fwd( dim );
+			}
+			
+			position[ dim ] = 0;
+			inputIterator.setPosition( position );
+			
+			for ( int i = filterSizeHalf; i < filterSizeHalf + size - 1; ++i )
+			{
+				line[ i ].set( inputIterator.getType() );
+				inputIterator.fwd( dim );
+			}
+			line[ filterSizeHalf + size - 1 ].set( inputIterator.getType() );
+			
+			position[ dim ] = size;
+			outOfBoundsIterator.setPosition( position );
+			
+			for ( int i = filterSizeHalf + size; i < line.length; ++i )
+			{
+				line[ i ].set( outOfBoundsIterator.getType() );
+				outOfBoundsIterator.fwd( dim );
+			}
+			
+			// convolve it
+			for ( int i = 0; i < size; ++i )
+			{
+				sum.setZero();
+				
+				for ( int f = 0; f < filterSize; ++f )
+				{
+					tmp.set( line[ i + f ] );
+					tmp.mul( kernelF[ f ] );
+					sum.add( tmp );
+				}
+				
+				result[ i ].set( sum );
+			}
+			
+			// and write it back
+			position[ dim ] = 0;
+			outputIterator.setPosition( position );
+			
+			for ( int i = 0; i < size - 1; ++i )
+			{
+				outputIterator.getType().set( result[ i ] );
+				outputIterator.fwd( dim );
+			}
+			outputIterator.getType().set( result[ size - 1 ] );
+		}
+		
+		inputIterator.close();
+		outOfBoundsIterator.close();
+		outputIterator.close();
+	}
+	
+	/**
+	 * Convolves loopSize pixels of the output in iteration order, beginning with pixel number startPos, along dimension dim.
+	 * 
+	 * @deprecated {@link #process()} does not call this method anymore, so overriding it has no effect,
+	 * override {@link #convolveLines(Image, Image, int, AtomicLong, long)} instead
+	 */
+	@Deprecated
 	protected void convolve( final LocalizableByDimCursor<T> inputIterator, final LocalizableCursor<T> outputIterator, 
 															   final int dim, final float[] kernel,
 															   final long startPos, final long loopSize )
@@ -313,7 +483,7 @@ public class GaussianConvolution< T extends NumericType<T>> implements MultiThre
     		    		
             outputIterator.getType().set( sum );			                		        	
         }
-	}	
+	}
 	
 	/**
 	 * This class does the gaussian filtering of an image. On the edges of
@@ -327,6 +497,67 @@ public class GaussianConvolution< T extends NumericType<T>> implements MultiThre
 	 * @author   Stephan Preibisch
 	 */
 
+	/**
+	 * The number of pixels of a row that are convolved together in the y and z pass, so that the sums
+	 * and the pieces of all rows under the kernel stay in the cache
+	 */
+	protected static final int ROW_BLOCK_SIZE = 512;
+	
+	/**
+	 * Convolves one row across the neighboring rows of a plane, the rows are read linearly instead of 
+	 * walking along the column of each pixel. The rows are processed in blocks of ROW_BLOCK_SIZE pixels.
+	 * 
+	 * @param in - the plane
+	 * @param inStart - the index of the row in the plane
+	 * @param out - the convolved plane
+	 * @param outStart - the index of the convolved row
+	 * @param width - the length of the row
+	 * @param posLUT - the offsets of the rows under the kernel relative to the row
+	 * @param kernel - the kernel
+	 * @param sum - a buffer of size ROW_BLOCK_SIZE
+	 */
+	final protected static void convolveRows( final float[] in, final int inStart, final float[] out, final int outStart, final int width,
+	                                          final int[] posLUT, final double[] kernel, final double[] sum )
+	{
+		for ( int x0 = 0; x0 < width; x0 += ROW_BLOCK_SIZE )
+		{
+			final int blockSize = Math.min( ROW_BLOCK_SIZE, width - x0 );
+			
+			for ( int x = 0; x < blockSize; ++x )
+				sum[ x ] = 0;
+			
+			for ( int kernelPos = 0; kernelPos < kernel.length; ++kernelPos )
+			{
+				final int rowStart = inStart + x0 + posLUT[ kernelPos ];
+				final double k = kernel[ kernelPos ];
+				
+				for ( int x = 0; x < blockSize; ++x )
+					sum[ x ] += in[ rowStart + x ] * k;
+			}
+			
+			final int blockStart = outStart + x0;
+			
+			for ( int x = 0; x < blockSize; ++x )
+				out[ blockStart + x ] = (float)sum[ x ];
+		}
+	}
+	
+	/**
+	 * Reads a row along x that may lie outside of the image using the out of bounds cursor
+	 */
+	final protected static void readRow( final LocalizableByDimCursor3D<FloatType> it, final int x, final int y, final int z, 
+	                                     final float[] row, final int start, final int width )
+	{
+		it.setPosition( x, y, z );
+		
+		for ( int i = start; i < start + width - 1; ++i )
+		{
+			row[ i ] = it.getType().get();
+			it.fwdX();
+		}
+		row[ start + width - 1 ] = it.getType().get();
+	}
+
 	@SuppressWarnings("unchecked")
 	public void computeGaussFloatArray3D()
 	{
@@ -338,8 +569,10 @@ public class GaussianConvolution< T extends NumericType<T>> implements MultiThre
 		/* inconvertible types due to javac bug 6548436: final Image<FloatType> convolvedFloat = (Image<FloatType>) convolved; */
 		final Image<FloatType> convolvedFloat = (Image)convolved;
 		
-		final FloatArray inputArray = (FloatArray) ( (DirectAccessContainer<FloatType, FloatAccess>) imageFloat.getContainer() ).update( null );
-		final FloatArray outputArray = (FloatArray) ( (DirectAccessContainer<FloatType, FloatAccess>) convolvedFloat.getContainer() ).update( null );
+		// FloatArray or NIOFloatArray, the data is transferred plane- or row-wise using the bulk access 
+		// so that a direct buffer is never copied as a whole
+		final ArrayDataAccess<?> inputArray = (ArrayDataAccess<?>) ( (DirectAccessContainer<FloatType, FloatAccess>) imageFloat.getContainer() ).update( null );
+		final ArrayDataAccess<?> outputArray = (ArrayDataAccess<?>) ( (DirectAccessContainer<FloatType, FloatAccess>) convolvedFloat.getContainer() ).update( null );
 		
 		final Array3D input = (Array3D) imageFloat.getContainer();
 		final Array3D output = (Array3D) convolvedFloat.getContainer();
@@ -347,21 +580,21 @@ public class GaussianConvolution< T extends NumericType<T>> implements MultiThre
   		final int width = imageFloat.getDimension( 0 );
 		final int height = imageFloat.getDimension( 1 );
 		final int depth = imageFloat.getDimension( 2 );
+		final int planeSize = width * height;
 
+		// the planes (or rows for z) are handed out one by one to the next free thread
 		final AtomicInteger ai = new AtomicInteger(0);
-		final Thread[] threads = SimpleMultiThreading.newThreads( numThreads );
-		final int numThreads = threads.length;
+		final Runnable[] tasks = new Runnable[ numThreads ];
 
-		for (int ithread = 0; ithread < threads.length; ++ithread)
-			threads[ithread] = new Thread(new Runnable()
+		for (int ithread = 0; ithread < tasks.length; ++ithread)
+			tasks[ithread] = new Runnable()
 			{
 				public void run()
 				{
-					final int myNumber = ai.getAndIncrement();
 					double avg;
 
-					final float[] in = inputArray.getCurrentStorageArray();
-					final float[] out = outputArray.getCurrentStorageArray();
+					final float[] in = ArrayPool.getSharedPool().getFloatArray( planeSize );
+					final float[] out = ArrayPool.getSharedPool().getFloatArray( planeSize );
 					final double[] kernel1 = kernel[ 0 ].clone();
 					final int filterSize = kernel[ 0 ].length;
 					final int filterSizeHalf = filterSize / 2;
@@ -381,176 +614,133 @@ public class GaussianConvolution< T extends NumericType<T>> implements MultiThre
 					for (int x = 0; x < width; x++)
 						directlyComputable[x] = (x - filterSizeHalf >= 0 && x + filterSizeHalf < width);
 
-					for (int z = 0; z < depth; z++)
-						if (z % numThreads == myNumber)
-						{
-							count = input.getPos(0, 0, z);
-							for (int y = 0; y < height; y++)
-								for (int x = 0; x < width; x++)
+					for (int z = ai.getAndIncrement(); z < depth; z = ai.getAndIncrement())
+					{
+						inputArray.getValues( input.getPos(0, 0, z), in, 0, planeSize );
+						
+						count = 0;
+						for (int y = 0; y < height; y++)
+							for (int x = 0; x < width; x++)
+							{
+								avg = 0;
+
+								if (directlyComputable[x]) 
+									for (kernelPos = 0; kernelPos < filterSize; kernelPos++)
+										avg += in[count + posLUT[kernelPos]] * kernel1[kernelPos];
+								else
 								{
-									avg = 0;
+									kernelPos = 0;
 
-									if (directlyComputable[x]) 
-										for (kernelPos = 0; kernelPos < filterSize; kernelPos++)
-											avg += in[count + posLUT[kernelPos]] * kernel1[kernelPos];
-									else
+									it.setPosition(x - filterSizeHalf - 1, y, z);
+									for (int f = -filterSizeHalf; f <= filterSizeHalf; f++)
 									{
-										kernelPos = 0;
-
-										it.setPosition(x - filterSizeHalf - 1, y, z);
-										for (int f = -filterSizeHalf; f <= filterSizeHalf; f++)
-										{
-											it.fwdX();
-											avg += it.getType().get() * kernel1[kernelPos++];
-										}
+										it.fwdX();
+										avg += it.getType().get() * kernel1[kernelPos++];
 									}
-									out[count++] = (float) avg;
 								}
-						}
+								out[count++] = (float) avg;
+							}
+						
+						outputArray.setValues( output.getPos(0, 0, z), out, 0, planeSize );
+					}
 					it.close();
+					ArrayPool.getSharedPool().release( in );
+					ArrayPool.getSharedPool().release( out );
 				}
-			});
-		SimpleMultiThreading.startAndJoin(threads);
+			};
+		SimpleMultiThreading.startAndJoin( tasks, executorService );
 
 		ai.set(0);
 		// fold in y
-		for (int ithread = 0; ithread < threads.length; ++ithread)
-			threads[ithread] = new Thread(new Runnable()
+		for (int ithread = 0; ithread < tasks.length; ++ithread)
+			tasks[ithread] = new Runnable()
 			{
 				public void run()
 				{
-					final int myNumber = ai.getAndIncrement();
-					double avg;
-					int kernelPos, count;
-
-					final float[] out =  outputArray.getCurrentStorageArray();
-					final LocalizableByDimCursor3D<FloatType> it = (LocalizableByDimCursor3D<FloatType>)convolvedFloat.createLocalizableByDimCursor( outOfBoundsFactoryFloat );
 					final double[] kernel1 = kernel[ 1 ].clone();
 					final int filterSize = kernel[ 1 ].length;
 					final int filterSizeHalf = filterSize / 2;
 
-					final int inc = output.getPos(0, 1, 0);
+					// the plane with filterSizeHalf out of bounds rows above and below, row y starts at ( y + filterSizeHalf ) * width
+					final float[] in = ArrayPool.getSharedPool().getFloatArray( ( height + 2 * filterSizeHalf ) * width );
+					final float[] out = ArrayPool.getSharedPool().getFloatArray( planeSize );
+					final LocalizableByDimCursor3D<FloatType> it = (LocalizableByDimCursor3D<FloatType>)convolvedFloat.createLocalizableByDimCursor( outOfBoundsFactoryFloat );
+
+					final int inc = width;
 					final int posLUT[] = new int[kernel1.length];
 					for (int f = -filterSizeHalf; f <= filterSizeHalf; f++)
 						posLUT[f + filterSizeHalf] = f * inc;
 
-					final boolean[] directlyComputable = new boolean[height];
-					for (int y = 0; y < height; y++)
-						directlyComputable[y] = (y - filterSizeHalf >= 0 && y + filterSizeHalf < height);
-
-					final float[] tempOut = new float[height];
-
-					for (int z = 0; z < depth; z++)
-						if (z % numThreads == myNumber)
-							for (int x = 0; x < width; x++)
-							{
-								count = output.getPos(x, 0, z);
-
-								for (int y = 0; y < height; y++)
-								{
-									avg = 0;
-
-									if (directlyComputable[y]) for (kernelPos = 0; kernelPos < filterSize; kernelPos++)
-										avg += out[count + posLUT[kernelPos]] * kernel1[kernelPos];
-									else
-									{
-										kernelPos = 0;
-
-										it.setPosition(x, y - filterSizeHalf - 1, z);
-										for (int f = -filterSizeHalf; f <= filterSizeHalf; f++)
-										{
-											it.fwdY();
-											avg += it.getType().get() * kernel1[kernelPos++];
-										}
-									}
-
-									tempOut[y] = (float) avg;
-
-									count += inc;
-								}
-
-								count = output.getPos(x, 0, z);
-
-								for (int y = 0; y < height; y++)
-								{
-									out[count] = tempOut[y];
-									count += inc;
-								}
-							}
+					final double[] sum = new double[ ROW_BLOCK_SIZE ];
+
+					for (int z = ai.getAndIncrement(); z < depth; z = ai.getAndIncrement())
+					{
+						outputArray.getValues( output.getPos(0, 0, z), in, filterSizeHalf * width, planeSize );
+						
+						for (int y = -filterSizeHalf; y < 0; y++)
+							readRow( it, 0, y, z, in, ( y + filterSizeHalf ) * width, width );
+						for (int y = height; y < height + filterSizeHalf; y++)
+							readRow( it, 0, y, z, in, ( y + filterSizeHalf ) * width, width );
+						
+						for (int y = 0; y < height; y++)
+							convolveRows( in, ( y + filterSizeHalf ) * width, out, y * width, width, posLUT, kernel1, sum );
+						
+						outputArray.setValues( output.getPos(0, 0, z), out, 0, planeSize );
+					}
 					
 					it.close();
+					ArrayPool.getSharedPool().release( in );
+					ArrayPool.getSharedPool().release( out );
 				}
-			});
-		SimpleMultiThreading.startAndJoin(threads);
+			};
+		SimpleMultiThreading.startAndJoin( tasks, executorService );
 
 		ai.set(0);
 
-		for (int ithread = 0; ithread < threads.length; ++ithread)
-			threads[ithread] = new Thread(new Runnable()
+		for (int ithread = 0; ithread < tasks.length; ++ithread)
+			tasks[ithread] = new Runnable()
 			{
 				public void run()
 				{
-					final int myNumber = ai.getAndIncrement();
-					double avg;
-					int kernelPos, count;
 					final double[] kernel1 = kernel[ 2 ].clone();
 					final int filterSize = kernel[ 2 ].length;
 					final int filterSizeHalf = filterSize / 2;
 
-					final float[] out = outputArray.getCurrentStorageArray();
+					// all rows of one xz-slice with filterSizeHalf out of bounds rows in front and behind, row z starts at ( z + filterSizeHalf ) * width
+					final int sliceSize = width * depth;
+					final float[] in = ArrayPool.getSharedPool().getFloatArray( ( depth + 2 * filterSizeHalf ) * width );
+					final float[] out = ArrayPool.getSharedPool().getFloatArray( sliceSize );
 					final LocalizableByDimCursor3D<FloatType> it = (LocalizableByDimCursor3D<FloatType>)convolvedFloat.createLocalizableByDimCursor( outOfBoundsFactoryFloat );
 
-					final int inc = output.getPos(0, 0, 1);
+					final int inc = width;
 					final int posLUT[] = new int[kernel1.length];
 					for (int f = -filterSizeHalf; f <= filterSizeHalf; f++)
 						posLUT[f + filterSizeHalf] = f * inc;
 
-					final boolean[] directlyComputable = new boolean[depth];
-					for (int z = 0; z < depth; z++)
-						directlyComputable[z] = (z - filterSizeHalf >= 0 && z + filterSizeHalf < depth);
-
-					final float[] tempOut = new float[depth];
+					final double[] sum = new double[ ROW_BLOCK_SIZE ];
 
 					// fold in z
-					for (int x = 0; x < width; x++)
-						if (x % numThreads == myNumber)
-							for (int y = 0; y < height; y++)
-							{
-								count = output.getPos(x, y, 0);
-
-								for (int z = 0; z < depth; z++)
-								{
-									avg = 0;
-
-									if (directlyComputable[z]) for (kernelPos = 0; kernelPos < filterSize; kernelPos++)
-										avg += out[count + posLUT[kernelPos]] * kernel1[kernelPos];
-									else
-									{
-										kernelPos = 0;
-
-										it.setPosition(x, y, z - filterSizeHalf - 1);
-										for (int f = -filterSizeHalf; f <= filterSizeHalf; f++)
-										{
-											it.fwdZ();
-											avg += it.getType().get() * kernel1[kernelPos++];
-										}
-									}
-									tempOut[z] = (float) avg;
-
-									count += inc;
-								}
-
-								count = output.getPos(x, y, 0);
-
-								for (int z = 0; z < depth; z++)
-								{
-									out[count] = tempOut[z];
-									count += inc;
-								}
-							}					
+					for (int y = ai.getAndIncrement(); y < height; y = ai.getAndIncrement())
+					{
+						for (int z = 0; z < depth; z++)
+							outputArray.getValues( output.getPos(0, y, z), in, ( z + filterSizeHalf ) * width, width );
+						
+						for (int z = -filterSizeHalf; z < 0; z++)
+							readRow( it, 0, y, z, in, ( z + filterSizeHalf ) * width, width );
+						for (int z = depth; z < depth + filterSizeHalf; z++)
+							readRow( it, 0, y, z, in, ( z + filterSizeHalf ) * width, width );
+						
+						for (int z = 0; z < depth; z++)
+							convolveRows( in, ( z + filterSizeHalf ) * width, out, z * width, width, posLUT, kernel1, sum );
+						
+						for (int z = 0; z < depth; z++)
+							outputArray.setValues( output.getPos(0, y, z), out, z * width, width );
+					}
 					it.close();
+					ArrayPool.getSharedPool().release( in );
+					ArrayPool.getSharedPool().release( out );
 				}
-			});
-		SimpleMultiThreading.startAndJoin(threads);
+			};
+		SimpleMultiThreading.startAndJoin( tasks, executorService );
 	}	
 }
@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.algorithm.gauss;
+
+import mpicbg.imglib.algorithm.convolution.SeparableConvolution;
+import mpicbg.imglib.algorithm.math.MathLib;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.outofbounds.OutOfBoundsStrategyFactory;
+import mpicbg.imglib.type.numeric.RealType;
+
+/**
+ * Gaussian convolution using the recursive filter of Young and van Vliet ("Recursive implementation 
+ * of the Gaussian filter", Signal Processing 44, 1995). A causal and an anti-causal third order filter
+ * are run over each line, which costs the same number of operations per pixel for any sigma.
+ * 
+ * The result deviates from a true Gaussian by up to about 1% of the intensity range, compared to 0.2% 
+ * for the 3 sigma kernel. Below sigma 8 the kernel is also faster, so dimensions with a sigma below 
+ * minRecursiveSigma are convolved with a normal Gaussian kernel. The lines are padded by the 
+ * {@link OutOfBoundsStrategyFactory} by 3 sigma, like for the kernel, which is enough for the filters to settle.
+ */
+public class RecursiveGaussian<T extends RealType<T>> extends SeparableConvolution<T>
+{
+	/**
+	 * Sigmas from this size on are convolved recursively if nothing else is set
+	 */
+	public static final double DEFAULT_MIN_RECURSIVE_SIGMA = 8;
+	
+	/**
+	 * How many sigmas each line is padded in front and behind
+	 */
+	public static final double PADDING_SIGMAS = 3;
+	
+	final double[] sigma;
+	final double minRecursiveSigma;
+	
+	// per dimension: B, b1/b0, b2/b0, b3/b0 or null if the dimension is convolved with a kernel
+	final double[][] coefficients;
+	
+	public RecursiveGaussian( final Image<T> image, final Image<T> output, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory, final double[] sigma, final double minRecursiveSigma )
+	{
+		super( image, output, outOfBoundsFactory, createKernels( sigma, minRecursiveSigma ) );
+		
+		this.sigma = sigma;
+		this.minRecursiveSigma = minRecursiveSigma;
+		this.coefficients = new double[ sigma.length ][];
+		
+		for ( int d = 0; d < sigma.length; ++d )
+			if ( isRecursive( sigma[ d ], minRecursiveSigma ) )
+				coefficients[ d ] = computeCoefficients( sigma[ d ] );
+	}
+
+	public RecursiveGaussian( final Image<T> image, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory, final double[] sigma )
+	{
+		this( image, image.createNewImage(), outOfBoundsFactory, sigma, DEFAULT_MIN_RECURSIVE_SIGMA );
+	}
+
+	public RecursiveGaussian( final Image<T> image, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory, final double sigma )
+	{
+		this( image, outOfBoundsFactory, GaussianConvolution.createArray( image, sigma ) );
+	}
+	
+	public double[] getSigmas() { return sigma; }
+	public double getMinRecursiveSigma() { return minRecursiveSigma; }
+	
+	/**
+	 * @return - if dimension dim is convolved with the recursive filter or with a kernel
+	 */
+	public boolean isRecursive( final int dim ) { return coefficients[ dim ] != null; }
+
+	@Override
+	protected boolean isConvolved( final int dim ) { return true; }
+	
+	@Override
+	protected int getPaddingLeft( final int dim )
+	{
+		if ( isRecursive( dim ) )
+			return (int)Math.ceil( PADDING_SIGMAS * sigma[ dim ] );
+		else
+			return super.getPaddingLeft( dim );
+	}
+
+	@Override
+	protected int getPaddingRight( final int dim )
+	{
+		if ( isRecursive( dim ) )
+			return (int)Math.ceil( PADDING_SIGMAS * sigma[ dim ] );
+		else
+			return super.getPaddingRight( dim );
+	}
+
+	@Override
+	protected void convolveLine( final int dim, final double[] line, final double[] result )
+	{
+		if ( !isRecursive( dim ) )
+		{
+			super.convolveLine( dim, line, result );
+			return;
+		}
+		
+		final double[] c = coefficients[ dim ];
+		final double b = c[ 0 ], b1 = c[ 1 ], b2 = c[ 2 ], b3 = c[ 3 ];
+		final int length = line.length;
+		
+		// causal filter, starting in the steady state of the first pixel
+		double w1 = line[ 0 ], w2 = w1, w3 = w1;
+		
+		for ( int i = 0; i < length; ++i )
+		{
+			final double w = b * line[ i ] + b1 * w1 + b2 * w2 + b3 * w3;
+			line[ i ] = w;
+			w3 = w2;
+			w2 = w1;
+			w1 = w;
+		}
+		
+		// anti-causal filter, starting in the steady state of the last pixel
+		w1 = line[ length - 1 ];
+		w2 = w1;
+		w3 = w1;
+		
+		for ( int i = length - 1; i >= 0; --i )
+		{
+			final double w = b * line[ i ] + b1 * w1 + b2 * w2 + b3 * w3;
+			line[ i ] = w;
+			w3 = w2;
+			w2 = w1;
+			w1 = w;
+		}
+
+		System.arraycopy( line, getPaddingLeft( dim ), result, 0, result.length );
+	}
+
+	@Override
+	protected void convolveLine( final int dim, final float[] line, final float[] result )
+	{
+		if ( !isRecursive( dim ) )
+		{
+			super.convolveLine( dim, line, result );
+			return;
+		}
+		
+		final double[] c = coefficients[ dim ];
+		final double b = c[ 0 ], b1 = c[ 1 ], b2 = c[ 2 ], b3 = c[ 3 ];
+		final int length = line.length;
+		
+		// causal filter, starting in the steady state of the first pixel
+		double w1 = line[ 0 ], w2 = w1, w3 = w1;
+		
+		for ( int i = 0; i < length; ++i )
+		{
+			final double w = b * line[ i ] + b1 * w1 + b2 * w2 + b3 * w3;
+			line[ i ] = (float)w;
+			w3 = w2;
+			w2 = w1;
+			w1 = w;
+		}
+		
+		// anti-causal filter, starting in the steady state of the last pixel
+		w1 = line[ length - 1 ];
+		w2 = w1;
+		w3 = w1;
+		
+		for ( int i = length - 1; i >= 0; --i )
+		{
+			final double w = b * line[ i ] + b1 * w1 + b2 * w2 + b3 * w3;
+			line[ i ] = (float)w;
+			w3 = w2;
+			w2 = w1;
+			w1 = w;
+		}
+
+		System.arraycopy( line, getPaddingLeft( dim ), result, 0, result.length );
+	}
+
+	/**
+	 * Computes the normalized filter coefficients B, b1/b0, b2/b0, b3/b0 (equations 8c, 10 and 11 of Young and van Vliet)
+	 * 
+	 * @param sigma - the sigma of the Gaussian, at least 0.5
+	 * @return - the coefficients
+	 */
+	public static double[] computeCoefficients( final double sigma )
+	{
+		final double q;
+		
+		if ( sigma >= 2.5 )
+			q = 0.98711 * sigma - 0.96330;
+		else
+			q = 3.97156 - 4.14554 * Math.sqrt( 1 - 0.26891 * sigma );
+		
+		final double q2 = q * q;
+		final double q3 = q2 * q;
+		
+		final double b0 = 1.57825 + 2.44413 * q + 1.4281 * q2 + 0.422205 * q3;
+		final double b1 = 2.44413 * q + 2.85619 * q2 + 1.26661 * q3;
+		final double b2 = -( 1.4281 * q2 + 1.26661 * q3 );
+		final double b3 = 0.422205 * q3;
+		
+		return new double[] { 1 - ( b1 + b2 + b3 ) / b0, b1 / b0, b2 / b0, b3 / b0 };
+	}
+	
+	/**
+	 * The coefficients are only defined from sigma 0.5 on
+	 */
+	protected static boolean isRecursive( final double sigma, final double minRecursiveSigma ) { return sigma >= minRecursiveSigma && sigma >= 0.5; }
+	
+	protected static double[][] createKernels( final double[] sigma, final double minRecursiveSigma )
+	{
+		final double[][] kernel = new double[ sigma.length ][];
+		
+		for ( int d = 0; d < sigma.length; ++d )
+			if ( !isRecursive( sigma[ d ], minRecursiveSigma ) )
+				kernel[ d ] = MathLib.createGaussianKernel1DDouble( sigma[ d ], true );
+		
+		return kernel;
+	}
+}
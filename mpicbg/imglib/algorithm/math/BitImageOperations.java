@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.algorithm.math;
+
+import mpicbg.imglib.container.Container;
+import mpicbg.imglib.container.array.Array;
+import mpicbg.imglib.container.basictypecontainer.array.BitArray;
+import mpicbg.imglib.cursor.Cursor;
+import mpicbg.imglib.cursor.special.JointCursor;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.type.logic.BitType;
+
+/**
+ * Bulk operations on binary images. If an {@link Image} is stored in an {@link Array} backed by a 
+ * {@link BitArray} they work on 32 pixels at a time, otherwise they fall back to a {@link Cursor}.
+ * The index of a pixel is its linear index in the {@link Array}, x being the fastest dimension.
+ */
+public class BitImageOperations
+{
+	/**
+	 * @return - the {@link BitArray} holding all pixels of the {@link Image}, or null if it is not stored in one
+	 */
+	public static BitArray getBitArray( final Image<BitType> image )
+	{
+		final Container<BitType> container = image.getContainer();
+		
+		if ( Array.class.isInstance( container ) )
+		{
+			final Object data = ( (Array<BitType, ?>)container ).update( null );
+			
+			if ( BitArray.class.isInstance( data ) )
+				return (BitArray)data;
+		}
+		
+		return null;
+	}
+	
+	protected static BitArray getRequiredBitArray( final Image<BitType> image, final String operation )
+	{
+		final BitArray bits = getBitArray( image );
+		
+		if ( bits == null )
+			throw new RuntimeException( "BitImageOperations." + operation + "(): " + image.getContainer() + " is not backed by a BitArray." );
+		
+		return bits;
+	}
+	
+	protected static void checkDimensions( final Image<BitType> image1, final Image<BitType> image2, final String operation )
+	{
+		if ( !image1.getContainer().compareStorageContainerDimensions( image2.getContainer() ) )
+			throw new RuntimeException( "BitImageOperations." + operation + "(): images have different dimensions: " + image1 + ", " + image2 );
+	}
+	
+	final protected static int AND = 0, OR = 1, XOR = 2;
+	
+	protected static void combine( final Image<BitType> image1, final Image<BitType> image2, final int operation )
+	{
+		final JointCursor<BitType> cursor = new JointCursor<BitType>( image1 );
+		final JointCursor.Link<BitType> link = cursor.link( image2 );
+		
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			
+			switch ( operation )
+			{
+				case AND: cursor.getType().and( link.getType() ); break;
+				case OR: cursor.getType().or( link.getType() ); break;
+				default: cursor.getType().xor( link.getType() ); break;
+			}
+		}
+		
+		cursor.close();
+	}
+	
+	/**
+	 * image1 = image1 AND image2
+	 */
+	public static void and( final Image<BitType> image1, final Image<BitType> image2 )
+	{
+		checkDimensions( image1, image2, "and" );
+		
+		final BitArray bits1 = getBitArray( image1 ), bits2 = getBitArray( image2 );
+		
+		if ( bits1 != null && bits2 != null )
+			bits1.and( bits2 );
+		else
+			combine( image1, image2, AND );
+	}
+	
+	/**
+	 * image1 = image1 OR image2
+	 */
+	public static void or( final Image<BitType> image1, final Image<BitType> image2 )
+	{
+		checkDimensions( image1, image2, "or" );
+		
+		final BitArray bits1 = getBitArray( image1 ), bits2 = getBitArray( image2 );
+		
+		if ( bits1 != null && bits2 != null )
+			bits1.or( bits2 );
+		else
+			combine( image1, image2, OR );
+	}
+	
+	/**
+	 * image1 = image1 XOR image2
+	 */
+	public static void xor( final Image<BitType> image1, final Image<BitType> image2 )
+	{
+		checkDimensions( image1, image2, "xor" );
+		
+		final BitArray bits1 = getBitArray( image1 ), bits2 = getBitArray( image2 );
+		
+		if ( bits1 != null && bits2 != null )
+			bits1.xor( bits2 );
+		else
+			combine( image1, image2, XOR );
+	}
+	
+	/**
+	 * image = NOT image
+	 */
+	public static void not( final Image<BitType> image )
+	{
+		final BitArray bits = getBitArray( image );
+		
+		if ( bits != null )
+		{
+			bits.not();
+		}
+		else
+		{
+			final Cursor<BitType> cursor = image.createCursor();
+			
+			while ( cursor.hasNext() )
+			{
+				cursor.fwd();
+				cursor.getType().not();
+			}
+			
+			cursor.close();
+		}
+	}
+	
+	/**
+	 * @return - the number of foreground pixels
+	 */
+	public static long count( final Image<BitType> image )
+	{
+		final BitArray bits = getBitArray( image );
+		
+		if ( bits != null )
+			return bits.cardinality();
+		
+		long count = 0;
+		final Cursor<BitType> cursor = image.createCursor();
+		
+		while ( cursor.hasNext() )
+		{
+			cursor.fwd();
+			
+			if ( cursor.getType().get() )
+				++count;
+		}
+		
+		cursor.close();
+		
+		return count;
+	}
+	
+	/**
+	 * Moves every pixel from linear index i to i + offset, e.g. an offset of width moves the image down by one row
+	 * (wrapping into the next plane). Pixels moved in from outside are false. Requires a {@link BitArray}.
+	 */
+	public static void shift( final Image<BitType> image, final int offset )
+	{
+		getRequiredBitArray( image, "shift" ).shift( offset );
+	}
+	
+	/**
+	 * @return - the linear index of the first foreground pixel &gt;= fromIndex, or -1 if there is none. Requires a {@link BitArray}.
+	 */
+	public static int nextSetBit( final Image<BitType> image, final int fromIndex )
+	{
+		return getRequiredBitArray( image, "nextSetBit" ).nextSetBit( fromIndex );
+	}
+	
+	/**
+	 * Converts a linear index as returned by {@link #nextSetBit(Image, int)} into a position.
+	 */
+	public static void getPosition( final Image<BitType> image, int index, final int[] position )
+	{
+		for ( int d = 0; d < position.length; ++d )
+		{
+			final int size = image.getDimension( d );
+			position[ d ] = index % size;
+			index /= size;
+		}
+	}
+}
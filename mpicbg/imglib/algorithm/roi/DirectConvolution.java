@@ -78,6 +78,12 @@ public class DirectConvolution
 	private LocalizableByDimCursor<S> outputImageCursor;
 	private final LocalizableByDimCursor<R> kernelCursor;
 	private final boolean doInvert;
+	// reused for every output pixel
+	private final int[] pos;
+	private final int[] invPos;
+	private final S accum;
+	private final S mul;
+	private final S temp;
 	
 	public DirectConvolution(final S type, final Image<T> inputImage, final Image<R> kernel)
 	{
@@ -103,6 +109,12 @@ public class DirectConvolution
 		setName(inputImage.getName() + " * " + kernel.getName());
 		
 		doInvert = isconv;
+		
+		pos = new int[inputImage.getNumDimensions()];
+		invPos = new int[inputImage.getNumDimensions()];
+		accum = type.createVariable();
+		mul = type.createVariable();
+		temp = type.createVariable();
 	}
 	
 	private LocalizableByDimCursor<S> getOutputCursor()
@@ -125,11 +137,6 @@ public class DirectConvolution
 	@Override
 	protected boolean patchOperation(final int[] position, final RegionOfInterestCursor<T> roiCursor) {
 		final LocalizableByDimCursor<S> outCursor = getOutputCursor();
-		final int[] pos = new int[outCursor.getNumDimensions()];
-		final int[] invPos = new int[outCursor.getNumDimensions()];
-		S accum = outCursor.getImage().createType();
-		S mul = outCursor.getImage().createType();
-		S temp = outCursor.getImage().createType();
 		
 		accum.setZero();
 		
@@ -30,7 +30,7 @@ public class MorphDilate<T extends ComplexType<T>> extends StatisticalOperation<
 
 	@Override
 	protected void statsOp(final LocalizableByDimCursor<T> cursor) {
-		cursor.getType().set(super.getList().getLast());
+		cursor.getType().set(super.getList().get(super.getList().size() - 1));
 	}
 
 }
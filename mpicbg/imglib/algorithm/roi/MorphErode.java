@@ -28,7 +28,7 @@ public class MorphErode<T extends ComplexType<T>> extends StatisticalOperation<T
 
 	@Override
 	protected void statsOp(final LocalizableByDimCursor<T> cursor) { 
-		cursor.getType().set(super.getList().getFirst());
+		cursor.getType().set(super.getList().get(0));
 	}
 
 }
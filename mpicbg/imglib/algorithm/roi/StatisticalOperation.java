@@ -1,10 +1,13 @@
 package mpicbg.imglib.algorithm.roi;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
 
 import mpicbg.imglib.algorithm.ROIAlgorithm;
 import mpicbg.imglib.cursor.LocalizableByDimCursor;
+import mpicbg.imglib.cursor.special.NeighborhoodCursor;
 import mpicbg.imglib.cursor.special.RegionOfInterestCursor;
+import mpicbg.imglib.cursor.special.SlidingWindowCursor;
 import mpicbg.imglib.image.Image;
 import mpicbg.imglib.outofbounds.OutOfBoundsStrategyFactory;
 import mpicbg.imglib.type.numeric.ComplexType;
@@ -36,28 +39,40 @@ public abstract class StatisticalOperation<T extends ComplexType<T>> extends ROI
 	 */
 	public interface StatisticsCollectionStrategy<R extends ComplexType<R>> 
 	{
-		public void collectStats(LinkedList<R> list, RegionOfInterestCursor<R> cursor, int[] pos);
+		/**
+		 * Fills the list with the sorted values under the structuring element at the given position.
+		 * The values have to be copies as the type of the cursor changes while it moves. The list used 
+		 * to be a LinkedList, implementations may only rely on the {@link List} interface.
+		 */
+		public void collectStats(List<R> list, RegionOfInterestCursor<R> cursor, int[] pos);
+		
+		public void close();
 	}
 	
 	/**
 	 * Simple, dumb statistics collection implementation.  Resorts every time, hopefully in a
 	 * O(n log(n)) manner, with respect to strel size.
 	 * 
+	 * The values in the list are copies that are reused once they are removed from the list,
+	 * so that no objects are created per pixel.
+	 * 
 	 * @param <R> Image storage type.
 	 */
 	public class SimpleCollectionStrategy<R extends ComplexType<R>> 
 		implements StatisticsCollectionStrategy<R>
 	{
 		private final LocalizableByDimCursor<BitType> strelCursor;
+		private final ArrayList<R> spareTypes;
 		
 		public SimpleCollectionStrategy()
 		{
 			strelCursor = strel.createLocalizableByDimCursor();
+			spareTypes = new ArrayList<R>();
 		}
 		
-		public void collectStats(LinkedList<R> list, RegionOfInterestCursor<R> cursor, int[] pos)
+		public void collectStats(List<R> list, RegionOfInterestCursor<R> cursor, int[] pos)
 		{
-			list.clear();
+			clear(list);
 			
 			while(cursor.hasNext())
 			{
@@ -66,51 +81,176 @@ public abstract class StatisticalOperation<T extends ComplexType<T>> extends ROI
 				
 				if (strelCursor.getType().get())
 				{
-					R type = cursor.getType().clone();
-					int i = 0;
-					while(i < list.size() && type.compareTo(list.get(i)) > 0)
-					{
-						++i;
-					}
-					list.add(i, type.clone());							
+					insert(list, cursor.getType());
 				}
 						
 			}
 		}
 		
+		/**
+		 * Empties the list, its values are kept for reuse.
+		 */
+		public void clear(final List<R> list)
+		{
+			for (int i = list.size() - 1; i >= 0; --i)
+			{
+				spareTypes.add(list.get(i));
+			}
+			
+			list.clear();
+		}
+		
+		/**
+		 * Inserts a copy of the given value into the sorted list, in front of all values
+		 * that are not smaller.
+		 */
+		public void insert(final List<R> list, final R type)
+		{
+			final R copy = spareTypes.isEmpty() ? type.clone() : spareTypes.remove(spareTypes.size() - 1);
+			
+			copy.set(type);
+			list.add(lowerBound(list, type), copy);
+		}
+		
+		/**
+		 * Removes one value equal to the given one from the sorted list, if there is any.
+		 */
+		public void remove(final List<R> list, final R type)
+		{
+			final int i = lowerBound(list, type);
+			
+			if (i < list.size() && type.compareTo(list.get(i)) == 0)
+			{
+				spareTypes.add(list.remove(i));
+			}
+		}
+		
+		/**
+		 * @return the index of the first value in the sorted list that is not smaller than type.
+		 */
+		private int lowerBound(final List<R> list, final R type)
+		{
+			int low = 0;
+			int high = list.size();
+			
+			while (low < high)
+			{
+				final int mid = (low + high) >>> 1;
+				
+				if (type.compareTo(list.get(mid)) > 0)
+				{
+					low = mid + 1;
+				}
+				else
+				{
+					high = mid;
+				}
+			}
+			
+			return low;
+		}
+		
+		public void close()
+		{
+			strelCursor.close();
+		}
 	}
 	
-	/*
-	 * As of this writing, there are no other collection strategy classes written, as you can tell.
-	 * 
-	 * To be clear, here we're concerned with strel operations, ie, operations of a shaped element
-	 * with respect to an input image.
-	 * 
-	 * Now, here's how I intend to implement a more efficient strel operation.  If you're reading
-	 * this, maybe you'll get to it ahead of me ;).
-	 * 
-	 * First, the StructuringElement class will be updated so that it can produce cursors that
-	 * iterate over its edges with respect to each dimension (two per dimension - one for positive
-	 * motion, the other for negative).  This class will use those cursors in tandem with the ROI
-	 * cursor to store image data from the region of interest, in the current state.  In the next
-	 * state, the strel patch will have moved.  If it moves a distance of only one pixel, we can do
-	 * the following:
-	 * 
-	 * One of the lists we stored in the previous state will contain exactly the values that need
-	 * to be removed from the sorted list, so remove them.  This should be an O(n log(n)) operation
-	 * in the number of edge values.  Next, grab the cursor from the strel that corresponds to the
-	 * location of the pixels that must be added newly.  Iterate over those pixels, adding their
-	 * values to the sorted list.  This should also be O(n log(n)) in the number of edge pixels.
-	 * 
-	 * Note that here, n is approximately the dth root of the n in the simple collection method,
-	 * meaning we get a pretty nice speed-up when n is big enough.  In particular, n should be
-	 * large with respect to d + 1, where d is the dimensionality.
+	/**
+	 * Sliding window statistics collection.  If the patch moved by one pixel along the first
+	 * dimension since the last call, only the values of the pixels leaving the 
+	 * {@link StructuringElement} are removed from the sorted list and the values of the ones
+	 * entering it are inserted (see {@link SlidingWindowCursor}), which are O(n^((d-1)/d)) pixels
+	 * instead of n.  Otherwise the list is collected from scratch by a {@link SimpleCollectionStrategy}.
 	 */
+	public class SlidingWindowCollectionStrategy implements StatisticsCollectionStrategy<T>
+	{
+		private final SimpleCollectionStrategy<T> simpleStrategy;
+		private final LocalizableByDimCursor<T> cursor;
+		private final NeighborhoodCursor<T> entering, leaving;
+		
+		public SlidingWindowCollectionStrategy()
+		{
+			final int[] origin = new int[strel.getNumDimensions()];
+			
+			for (int d = 0; d < origin.length; ++d)
+			{
+				origin[d] = strel.getDimension(d) / 2;
+			}
+			
+			final int[][] offsets = NeighborhoodCursor.createOffsets(strel, origin);
+			
+			simpleStrategy = new SimpleCollectionStrategy<T>();
+			cursor = getInputImage().createLocalizableByDimCursor(getOutOfBoundsStrategyFactory());
+			entering = new NeighborhoodCursor<T>(cursor, SlidingWindowCursor.createEnteringOffsets(offsets, 0));
+			leaving = new NeighborhoodCursor<T>(cursor, SlidingWindowCursor.createLeavingOffsets(offsets, 0));
+		}
+		
+		public void collectStats(List<T> list, RegionOfInterestCursor<T> roiCursor, int[] pos)
+		{
+			if (isInit() && isNextPosition(pos))
+			{
+				// the cursor is still at the last position
+				leaving.update();
+				
+				while(leaving.hasNext())
+				{
+					leaving.fwd();
+					simpleStrategy.remove(list, leaving.getType());
+				}
+				
+				leaving.reset();
+				cursor.fwd(0);
+				entering.update();
+				
+				while(entering.hasNext())
+				{
+					entering.fwd();
+					simpleStrategy.insert(list, entering.getType());
+				}
+				
+				entering.reset();
+			}
+			else
+			{
+				simpleStrategy.collectStats(list, roiCursor, pos);
+				cursor.setPosition(pos);
+			}
+		}
+		
+		private boolean isNextPosition(final int[] pos)
+		{
+			final int[] last = getLastPosition();
+			
+			if (pos[0] != last[0] + 1)
+			{
+				return false;
+			}
+			
+			for (int d = 1; d < pos.length; ++d)
+			{
+				if (pos[d] != last[d])
+				{
+					return false;
+				}
+			}
+			
+			return true;
+		}
+		
+		public void close()
+		{
+			simpleStrategy.close();
+			entering.close();
+			leaving.close();
+			cursor.close();
+		}
+	}
 	
 	//Member variables
 	
 	private final StructuringElement strel;
-	private final LinkedList<T> statList;
+	private final ArrayList<T> statList;
 	private final int[] lastPosition;
 	private final LocalizableByDimCursor<T> outputCursor;
 	private boolean init = false;
@@ -127,10 +267,10 @@ public abstract class StatisticalOperation<T extends ComplexType<T>> extends ROI
 			final OutOfBoundsStrategyFactory<T> inOutFactory) {
 		super(imageIn.createType(), imageIn, inStrel.getDimensions(), inOutFactory);
 		strel = inStrel;
-		statList = new LinkedList<T>();
+		statList = new ArrayList<T>();
 		lastPosition = new int[strel.getNumDimensions()];
 		outputCursor = getOutputImage().createLocalizableByDimCursor();
-		statsStrategy = new SimpleCollectionStrategy<T>();		
+		statsStrategy = new SlidingWindowCollectionStrategy();
 	}
 
 	public void reset()
@@ -148,7 +288,18 @@ public abstract class StatisticalOperation<T extends ComplexType<T>> extends ROI
 		return strel;
 	}
 	
-	protected LinkedList<T> getList()
+	/**
+	 * Returns the sorted values under the structuring element at the current position.
+	 * 
+	 * The values are copies owned by the {@link StatisticsCollectionStrategy}, they are reused 
+	 * for other pixels once they leave the list, so a value that is kept beyond the current 
+	 * call of {@link #statsOp(LocalizableByDimCursor)} has to be copied.
+	 * 
+	 * This used to be a LinkedList, subclasses may only rely on the {@link List} interface.
+	 * 
+	 * @return the sorted list of values, in ascending order
+	 */
+	protected List<T> getList()
 	{
 		return statList;
 	}
@@ -162,6 +313,7 @@ public abstract class StatisticalOperation<T extends ComplexType<T>> extends ROI
 	{
 		super.close();
 		outputCursor.close();
+		statsStrategy.close();
 	}
 
 	@Override
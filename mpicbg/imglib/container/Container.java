@@ -55,7 +55,16 @@ public interface Container<T extends Type<T>>
 	public int getDimension( int dim );
 	public long getId();
 	
+	/**
+	 * @return - the number of pixels
+	 * @throws ArithmeticException - if the {@link Container} has more than 2^31-1 pixels, use {@link #getNumPixelsLong()} then
+	 */
 	public int getNumPixels();
+	
+	/**
+	 * @return - the number of pixels, which is also valid for {@link Container}s with more than 2^31-1 pixels 
+	 */
+	public long getNumPixelsLong();
 		
 	public boolean compareStorageContainerDimensions( final Container<?> img );
 	public boolean compareStorageContainerCompatibility( final Container<?> img );
@@ -34,8 +34,9 @@ import mpicbg.imglib.type.Type;
 
 public abstract class ContainerImpl<T extends Type<T>> implements Container<T>
 {
+	// numPixels is -1 if the container has more than 2^31-1 pixels
 	final protected int numPixels, numDimensions;
-	final protected long id;
+	final protected long numPixelsLong, id;
 	protected final int[] dim;
 	
 	final ContainerFactory factory;
@@ -44,16 +45,30 @@ public abstract class ContainerImpl<T extends Type<T>> implements Container<T>
 	{
 		this.numDimensions = dim.length;
 		
-		this.numPixels = getNumPixels(dim);
+		this.numPixelsLong = getNumPixelsLong( dim );
+		this.numPixels = numPixelsLong > Integer.MAX_VALUE ? -1 : (int)numPixelsLong;
 		
 		this.dim = dim.clone();
 		this.factory = factory;
 		this.id = Image.createUniqueId();
 	}
 	
+	/**
+	 * @throws ArithmeticException - if there are more than 2^31-1 pixels, use {@link #getNumPixelsLong(int[])} then
+	 */
 	public static int getNumPixels( final int[] dim )
 	{
-		int numPixels = 1;		
+		final long numPixels = getNumPixelsLong( dim );
+		
+		if ( numPixels > Integer.MAX_VALUE )
+			throw new ArithmeticException( "ContainerImpl.getNumPixels(): " + numPixels + " pixels do not fit into an int, use getNumPixelsLong()." );
+		
+		return (int)numPixels;		
+	}
+
+	public static long getNumPixelsLong( final int[] dim )
+	{
+		long numPixels = 1;		
 		
 		for (int i = 0; i < dim.length; i++)
 			numPixels *= dim[i];
@@ -88,7 +103,16 @@ public abstract class ContainerImpl<T extends Type<T>> implements Container<T>
 	}
 	
 	@Override
-	public int getNumPixels() { return numPixels; }
+	public int getNumPixels() 
+	{
+		if ( numPixels < 0 )
+			throw new ArithmeticException( "ContainerImpl.getNumPixels(): " + numPixelsLong + " pixels do not fit into an int, use getNumPixelsLong()." );
+		
+		return numPixels; 
+	}
+
+	@Override
+	public long getNumPixelsLong() { return numPixelsLong; }
 
 	@Override
 	public String toString()
@@ -30,6 +30,9 @@
 package mpicbg.imglib.container;
 
 import mpicbg.imglib.container.basictypecontainer.DataAccess;
+import mpicbg.imglib.cursor.SplittableCursor;
+import mpicbg.imglib.cursor.span.SpanIterator;
+import mpicbg.imglib.image.Image;
 import mpicbg.imglib.type.Type;
 
 public abstract class DirectAccessContainerImpl< T extends Type< T >, A extends DataAccess > extends PixelGridContainerImpl< T > implements DirectAccessContainer<T, A>
@@ -43,4 +46,15 @@ public abstract class DirectAccessContainerImpl< T extends Type< T >, A extends
 	
 	@Override
 	public void setLinkedType( final T type ) { this.linkedType = type; }
+	
+	/**
+	 * @return - a {@link SpanIterator} over the storage of this container or null if it 
+	 * does not store its pixels in consecutive arrays
+	 */
+	public SpanIterator<A> createSpanIterator() { return null; }
+	
+	/**
+	 * @return - a {@link SplittableCursor} or null if this container does not support splitting
+	 */
+	public SplittableCursor<T> createSplittableCursor( final Image<T> image ) { return null; }
 }
@@ -40,16 +40,30 @@ public abstract class PixelGridContainerImpl< T extends Type< T > > extends Cont
 	{
 		super( factory, dim );
 		this.entitiesPerPixel = entitiesPerPixel;
-		this.numEntities = numPixels * entitiesPerPixel;
+		
+		// -1 if the entities cannot be addressed with an int
+		final long numEntitiesLong = numPixelsLong * entitiesPerPixel;
+		this.numEntities = numEntitiesLong > Integer.MAX_VALUE ? -1 : (int)numEntitiesLong;
 	}
 	
 	public static int getNumEntities( final int[] dim, final int entitiesPerPixel )
 	{
-		return getNumPixels( dim ) * entitiesPerPixel;
+		final long numEntities = getNumPixelsLong( dim ) * entitiesPerPixel;
+		
+		if ( numEntities > Integer.MAX_VALUE )
+			throw new ArithmeticException( "PixelGridContainerImpl.getNumEntities(): " + numEntities + " entities do not fit into an int." );
+		
+		return (int)numEntities;
 	}
 		
 	@Override
-	public int getNumEntities() { return numEntities; }
+	public int getNumEntities() 
+	{
+		if ( numEntities < 0 )
+			throw new ArithmeticException( "PixelGridContainerImpl.getNumEntities(): " + numPixelsLong * entitiesPerPixel + " entities do not fit into an int." );
+		
+		return numEntities; 
+	}
 	@Override
 	public int getNumEntitiesPerPixel(){ return entitiesPerPixel; }
 }
@@ -31,12 +31,16 @@ package mpicbg.imglib.container.array;
 
 import mpicbg.imglib.container.DirectAccessContainerImpl;
 import mpicbg.imglib.container.basictypecontainer.DataAccess;
+import mpicbg.imglib.container.basictypecontainer.array.ArrayDataAccess;
+import mpicbg.imglib.container.basictypecontainer.array.ArrayPool;
 import mpicbg.imglib.cursor.Cursor;
 import mpicbg.imglib.cursor.array.ArrayCursor;
 import mpicbg.imglib.cursor.array.ArrayLocalizableByDimCursor;
 import mpicbg.imglib.cursor.array.ArrayLocalizableByDimOutOfBoundsCursor;
 import mpicbg.imglib.cursor.array.ArrayLocalizableCursor;
 import mpicbg.imglib.cursor.array.ArrayLocalizablePlaneCursor;
+import mpicbg.imglib.cursor.array.ArraySpanIterator;
+import mpicbg.imglib.cursor.array.ArraySplittableCursor;
 import mpicbg.imglib.image.Image;
 import mpicbg.imglib.outofbounds.OutOfBoundsStrategyFactory;
 import mpicbg.imglib.type.Type;
@@ -48,6 +52,9 @@ public class Array<T extends Type<T>, A extends DataAccess> extends DirectAccess
 	
 	// the DataAccess created by the ArrayContainerFactory
 	final A data;
+	
+	// the pool the storage array is handed back to on close(), if any
+	final ArrayPool arrayPool;
 
 	public Array( final ArrayContainerFactory factory, final A data, final int[] dim, final int entitiesPerPixel )
 	{
@@ -56,6 +63,7 @@ public class Array<T extends Type<T>, A extends DataAccess> extends DirectAccess
 		step = Array.createAllocationSteps( dim );
 		this.factory = factory;
 		this.data = data;
+		this.arrayPool = ( factory == null || factory.useNIO() ) ? null : factory.getArrayPool();
 	}
 	
 	@Override
@@ -64,6 +72,17 @@ public class Array<T extends Type<T>, A extends DataAccess> extends DirectAccess
 	@Override
 	public ArrayContainerFactory getFactory() { return factory; }
 	
+	public A getDataAccess() { return data; }
+	
+	@Override
+	public ArraySpanIterator<A> createSpanIterator() { return new ArraySpanIterator<A>( this ); }
+
+	@Override
+	public ArraySplittableCursor<T> createSplittableCursor( final Image<T> image ) 
+	{
+		return new ArraySplittableCursor<T>( this, image, linkedType.duplicateTypeOnSameDirectAccessContainer() );
+	}
+	
 	@Override
 	public ArrayCursor<T> createCursor( final Image<T> image ) 
 	{
@@ -128,5 +147,11 @@ public class Array<T extends Type<T>, A extends DataAccess> extends DirectAccess
 	}
 
 	@Override
-	public void close() { data.close();	}	
+	public void close() 
+	{ 
+		if ( arrayPool != null && data instanceof ArrayDataAccess<?> )
+			arrayPool.release( ((ArrayDataAccess<?>)data).getCurrentStorageArrayAsObject() );
+
+		data.close();
+	}	
 }
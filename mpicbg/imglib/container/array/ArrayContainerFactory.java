@@ -29,11 +29,13 @@
  */
 package mpicbg.imglib.container.array;
 
+import mpicbg.imglib.container.ContainerFactory;
 import mpicbg.imglib.container.DirectAccessContainer;
 import mpicbg.imglib.container.DirectAccessContainerFactory;
 import mpicbg.imglib.container.PixelGridContainerImpl;
 import mpicbg.imglib.container.basictypecontainer.*;
 import mpicbg.imglib.container.basictypecontainer.array.BitArray;
+import mpicbg.imglib.container.basictypecontainer.array.ArrayPool;
 import mpicbg.imglib.container.basictypecontainer.array.ByteArray;
 import mpicbg.imglib.container.basictypecontainer.array.CharArray;
 import mpicbg.imglib.container.basictypecontainer.array.DoubleArray;
@@ -57,6 +59,43 @@ public class ArrayContainerFactory extends DirectAccessContainerFactory
 	public void setNIOUse ( final boolean useNIO ) { this.useNIO = useNIO; }
 	public boolean useNIO() { return useNIO; }
 
+	protected ArrayPool arrayPool = null;
+
+	/**
+	 * If set, the primitive arrays of new (non-NIO) containers are taken from the pool
+	 * and handed back when the container is closed.
+	 * 
+	 * @param arrayPool - the pool, e.g. {@link ArrayPool#getSharedPool()}, or null
+	 */
+	public void setArrayPool( final ArrayPool arrayPool ) { this.arrayPool = arrayPool; }
+	public ArrayPool getArrayPool() { return arrayPool; }
+
+	/**
+	 * Returns a factory for temporary images of algorithms that draws from the pool. 
+	 * Only a plain, non-NIO {@link ArrayContainerFactory} without a pool is copied, 
+	 * all other factories are returned unchanged.
+	 * 
+	 * @param factory - the factory of the input image
+	 * @param arrayPool - the pool, e.g. {@link ArrayPool#getSharedPool()}
+	 * @return - a pooled copy of the factory or the factory itself
+	 */
+	public static ContainerFactory getPooledFactory( final ContainerFactory factory, final ArrayPool arrayPool )
+	{
+		if ( factory == null || factory.getClass() != ArrayContainerFactory.class )
+			return factory;
+		
+		final ArrayContainerFactory arrayFactory = (ArrayContainerFactory)factory;
+		
+		if ( arrayFactory.useNIO() || arrayFactory.getArrayPool() != null )
+			return factory;
+		
+		final ArrayContainerFactory pooled = new ArrayContainerFactory();
+		pooled.setOptimizedContainerUse( arrayFactory.useOptimizedContainers() );
+		pooled.setArrayPool( arrayPool );
+		
+		return pooled;
+	}
+
 	@Override
 	public <T extends Type<T>> DirectAccessContainer<T, BitAccess> createBitInstance( int[] dimensions, final int entitiesPerPixel)
 	{
@@ -64,7 +103,8 @@ public class ArrayContainerFactory extends DirectAccessContainerFactory
 
 		final int numPixels = PixelGridContainerImpl.getNumEntities(dimensions, entitiesPerPixel);
 		
-		BitAccess access = new BitArray(numPixels);
+		BitAccess access = arrayPool == null ?
+			new BitArray(numPixels) : new BitArray(numPixels, (int[])arrayPool.getArray( int.class, (numPixels + Integer.SIZE - 1) / Integer.SIZE, true ));
 		if ( dimensions.length == 3 && useOptimizedContainers )
 			return new Array3D<T, BitAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
 		else
@@ -77,7 +117,8 @@ public class ArrayContainerFactory extends DirectAccessContainerFactory
 		final int numPixels = PixelGridContainerImpl.getNumEntities(dimensions, entitiesPerPixel);
 		
 		ByteAccess access = useNIO ?
-			new NIOByteArray(numPixels) : new ByteArray(numPixels);
+			new NIOByteArray(numPixels) : arrayPool == null ?
+			new ByteArray(numPixels) : new ByteArray( (byte[])arrayPool.getArray( byte.class, numPixels, true ) );
 		if ( dimensions.length == 3 && useOptimizedContainers )
 			return new Array3D<T, ByteAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
 		else
@@ -90,7 +131,8 @@ public class ArrayContainerFactory extends DirectAccessContainerFactory
 		final int numPixels = PixelGridContainerImpl.getNumEntities(dimensions, entitiesPerPixel);
 		
 		CharAccess access = useNIO ?
-			new NIOCharArray(numPixels) : new CharArray(numPixels);
+			new NIOCharArray(numPixels) : arrayPool == null ?
+			new CharArray(numPixels) : new CharArray( (char[])arrayPool.getArray( char.class, numPixels, true ) );
 		if ( dimensions.length == 3 && useOptimizedContainers )
 			return new Array3D<T, CharAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
 		else
@@ -103,7 +145,8 @@ public class ArrayContainerFactory extends DirectAccessContainerFactory
 		final int numPixels = PixelGridContainerImpl.getNumEntities(dimensions, entitiesPerPixel);
 		
 		DoubleAccess access = useNIO ?
-			new NIODoubleArray(numPixels) : new DoubleArray(numPixels);
+			new NIODoubleArray(numPixels) : arrayPool == null ?
+			new DoubleArray(numPixels) : new DoubleArray( (double[])arrayPool.getArray( double.class, numPixels, true ) );
 		if ( dimensions.length == 3 && useOptimizedContainers )
 			return new Array3D<T, DoubleAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
 		else
@@ -116,7 +159,8 @@ public class ArrayContainerFactory extends DirectAccessContainerFactory
 		final int numPixels = PixelGridContainerImpl.getNumEntities(dimensions, entitiesPerPixel);
 		
 		FloatAccess access = useNIO ?
-			new NIOFloatArray(numPixels) : new FloatArray(numPixels);
+			new NIOFloatArray(numPixels) : arrayPool == null ?
+			new FloatArray(numPixels) : new FloatArray( (float[])arrayPool.getArray( float.class, numPixels, true ) );
 		if ( dimensions.length == 3 && useOptimizedContainers )
 			return new Array3D<T, FloatAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
 		else
@@ -129,7 +173,8 @@ public class ArrayContainerFactory extends DirectAccessContainerFactory
 		final int numPixels = PixelGridContainerImpl.getNumEntities(dimensions, entitiesPerPixel);
 		
 		IntAccess access = useNIO ?
-			new NIOIntArray(numPixels) : new IntArray(numPixels);
+			new NIOIntArray(numPixels) : arrayPool == null ?
+			new IntArray(numPixels) : new IntArray( (int[])arrayPool.getArray( int.class, numPixels, true ) );
 		if ( dimensions.length == 3 && useOptimizedContainers )
 			return new Array3D<T, IntAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
 		else
@@ -142,7 +187,8 @@ public class ArrayContainerFactory extends DirectAccessContainerFactory
 		final int numPixels = PixelGridContainerImpl.getNumEntities(dimensions, entitiesPerPixel);
 		
 		LongAccess access = useNIO ?
-			new NIOLongArray(numPixels) : new LongArray(numPixels);
+			new NIOLongArray(numPixels) : arrayPool == null ?
+			new LongArray(numPixels) : new LongArray( (long[])arrayPool.getArray( long.class, numPixels, true ) );
 		if ( dimensions.length == 3 && useOptimizedContainers )
 			return new Array3D<T, LongAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
 		else
@@ -155,7 +201,8 @@ public class ArrayContainerFactory extends DirectAccessContainerFactory
 		final int numPixels = PixelGridContainerImpl.getNumEntities(dimensions, entitiesPerPixel);
 		
 		ShortAccess access = useNIO ?
-			new NIOShortArray(numPixels) : new ShortArray(numPixels);
+			new NIOShortArray(numPixels) : arrayPool == null ?
+			new ShortArray(numPixels) : new ShortArray( (short[])arrayPool.getArray( short.class, numPixels, true ) );
 		if ( dimensions.length == 3 && useOptimizedContainers )
 			return new Array3D<T, ShortAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
 		else
@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.array;
+
+import java.util.ArrayList;
+
+import mpicbg.imglib.container.DirectAccessContainerImpl;
+import mpicbg.imglib.container.basictypecontainer.array.ArrayDataAccess;
+import mpicbg.imglib.cursor.Cursor;
+import mpicbg.imglib.cursor.array.LargeArrayCursor;
+import mpicbg.imglib.cursor.array.LargeArrayLocalizableByDimCursor;
+import mpicbg.imglib.cursor.array.LargeArrayLocalizableByDimOutOfBoundsCursor;
+import mpicbg.imglib.cursor.array.LargeArrayLocalizableCursor;
+import mpicbg.imglib.cursor.array.LargeArrayLocalizablePlaneCursor;
+import mpicbg.imglib.cursor.array.LargeArraySpanIterator;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.outofbounds.OutOfBoundsStrategyFactory;
+import mpicbg.imglib.type.Type;
+
+/**
+ * A flat array like {@link Array} that is indexed with long and can therefore hold more than 2^31-1 pixels.
+ * The pixels are stored in the same order as in an {@link Array}, but split into pages of 2^pageSizeBits
+ * pixels, each page is a separate {@link ArrayDataAccess}. The {@link Cursor}s address the page by 
+ * {@link Cursor#getStorageIndex()} and the pixel inside the page by the index of the {@link Type}.
+ */
+public class LargeArray<T extends Type<T>, A extends ArrayDataAccess<A>> extends DirectAccessContainerImpl<T, A>
+{
+	final protected long[] step;
+	final protected int pageSizeBits, pageSize, numPages;
+	final protected long pageMask;
+	final LargeArrayContainerFactory factory;
+	
+	// the DataAccess of each page
+	final protected ArrayList<A> pages;
+
+	public LargeArray( final LargeArrayContainerFactory factory, final A creator, final int[] dim, final int pageSizeBits, final int entitiesPerPixel )
+	{
+		super( factory, dim, entitiesPerPixel );
+		
+		this.factory = factory;
+		this.pageSizeBits = pageSizeBits;
+		this.pageSize = 1 << pageSizeBits;
+		this.pageMask = pageSize - 1;
+		this.step = createAllocationSteps( dim );
+		this.numPages = (int)( ( numPixelsLong - 1 ) / pageSize + 1 );
+		
+		pages = new ArrayList<A>( numPages );
+		
+		for ( int p = 0; p < numPages; ++p )
+			pages.add( creator.createArray( getPageSize( p ) * entitiesPerPixel ) );
+	}
+	
+	@Override
+	public A update( final Cursor<?> c ) { return pages.get( c.getStorageIndex() ); }
+
+	@Override
+	public LargeArrayContainerFactory getFactory() { return factory; }
+	
+	public int getNumPages() { return numPages; }
+	public int getPageSizeBits() { return pageSizeBits; }
+	
+	/**
+	 * @return - the number of pixels in a page, only the last page can be smaller than 2^pageSizeBits
+	 */
+	public int getPageSize( final int page )
+	{
+		if ( page == numPages - 1 )
+			return (int)( numPixelsLong - ( (long)page << pageSizeBits ) );
+		else
+			return pageSize;
+	}
+	
+	public A getPage( final int page ) { return pages.get( page ); }
+	
+	@Override
+	public LargeArraySpanIterator<A> createSpanIterator() { return new LargeArraySpanIterator<A>( this ); }
+	
+	@Override
+	public LargeArrayCursor<T> createCursor( final Image<T> image ) 
+	{
+		// create a Cursor using a Type that is linked to the container
+		LargeArrayCursor<T> c = new LargeArrayCursor<T>( this, image, linkedType.duplicateTypeOnSameDirectAccessContainer() );
+		return c;
+	}
+
+	@Override
+	public LargeArrayLocalizableCursor<T> createLocalizableCursor( final Image<T> image ) 
+	{ 
+		// create a Cursor using a Type that is linked to the container
+		LargeArrayLocalizableCursor<T> c = new LargeArrayLocalizableCursor<T>( this, image, linkedType.duplicateTypeOnSameDirectAccessContainer() );
+		return c;
+	}
+
+	@Override
+	public LargeArrayLocalizablePlaneCursor<T> createLocalizablePlaneCursor( final Image<T> image ) 
+	{ 
+		// create a Cursor using a Type that is linked to the container
+		LargeArrayLocalizablePlaneCursor<T> c = new LargeArrayLocalizablePlaneCursor<T>( this, image, linkedType.duplicateTypeOnSameDirectAccessContainer() );
+		return c;
+	}
+	
+	@Override
+	public LargeArrayLocalizableByDimCursor<T> createLocalizableByDimCursor( final Image<T> image ) 
+	{ 
+		// create a Cursor using a Type that is linked to the container
+		LargeArrayLocalizableByDimCursor<T> c = new LargeArrayLocalizableByDimCursor<T>( this, image, linkedType.duplicateTypeOnSameDirectAccessContainer() );
+		return c;
+	}
+	
+	@Override
+	public LargeArrayLocalizableByDimOutOfBoundsCursor<T> createLocalizableByDimCursor( final Image<T> image, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory ) 
+	{ 
+		// create a Cursor using a Type that is linked to the container
+		LargeArrayLocalizableByDimOutOfBoundsCursor<T> c = new LargeArrayLocalizableByDimOutOfBoundsCursor<T>( this, image, linkedType.duplicateTypeOnSameDirectAccessContainer(), outOfBoundsFactory );
+		return c;
+	}
+	
+	public static long[] createAllocationSteps( final int[] dim )
+	{
+		final long[] steps = new long[ dim.length ];
+		
+		steps[ 0 ] = 1;
+		for ( int d = 1; d < dim.length; ++d )
+			  steps[ d ] = steps[ d - 1 ] * dim[ d - 1 ];
+		
+		return steps;
+	}
+	
+	public long[] getSteps() { return step.clone(); }
+	
+	public final long getPos( final int[] l ) 
+	{ 
+		long i = l[ 0 ];
+		for ( int d = 1; d < numDimensions; ++d )
+			i += l[ d ] * step[ d ];
+		
+		return i;
+	}
+	
+	public final void getPosition( long index, final int[] position )
+	{
+		for ( int d = numDimensions - 1; d > 0; --d )
+		{
+			position[ d ] = (int)( index / step[ d ] );
+			index -= position[ d ] * step[ d ];
+		}
+		
+		position[ 0 ] = (int)index;
+	}
+
+	@Override
+	public void close() 
+	{ 
+		for ( final A page : pages )
+			page.close();
+	}	
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.array;
+
+import mpicbg.imglib.container.DirectAccessContainer;
+import mpicbg.imglib.container.DirectAccessContainerFactory;
+import mpicbg.imglib.container.basictypecontainer.array.BitArray;
+import mpicbg.imglib.container.basictypecontainer.array.ByteArray;
+import mpicbg.imglib.container.basictypecontainer.array.CharArray;
+import mpicbg.imglib.container.basictypecontainer.array.DoubleArray;
+import mpicbg.imglib.container.basictypecontainer.array.FloatArray;
+import mpicbg.imglib.container.basictypecontainer.array.IntArray;
+import mpicbg.imglib.container.basictypecontainer.array.LongArray;
+import mpicbg.imglib.container.basictypecontainer.array.ShortArray;
+import mpicbg.imglib.type.Type;
+
+/**
+ * Creates {@link LargeArray}s, flat containers that can hold more than 2^31-1 pixels.
+ */
+public class LargeArrayContainerFactory extends DirectAccessContainerFactory
+{
+	protected int pageSizeBits = 24;
+
+	public LargeArrayContainerFactory()
+	{
+	}
+
+	/**
+	 * @param pageSizeBits - each page holds 2^pageSizeBits pixels
+	 */
+	public LargeArrayContainerFactory( final int pageSizeBits )
+	{
+		setPageSizeBits( pageSizeBits );
+	}
+	
+	public void setPageSizeBits( final int pageSizeBits )
+	{
+		if ( pageSizeBits < 1 || pageSizeBits > 30 )
+		{
+			System.err.println( "LargeArrayContainerFactory(): page size of 2^" + pageSizeBits + " pixels is not supported, using 2^" + this.pageSizeBits + "." );
+			return;
+		}
+		
+		this.pageSizeBits = pageSizeBits;
+	}
+	
+	public int getPageSizeBits() { return pageSizeBits; }
+	
+	protected int checkPageSizeBits( final int entitiesPerPixel )
+	{
+		// the entities of one page have to be addressable by int
+		int bits = pageSizeBits;
+		
+		while ( ( (long)entitiesPerPixel << bits ) > Integer.MAX_VALUE )
+			--bits;
+		
+		return bits;
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, BitArray> createBitInstance( int[] dimensions, int entitiesPerPixel )
+	{
+		return new LargeArray<T, BitArray>( this, new BitArray( 1 ), dimensions, checkPageSizeBits( entitiesPerPixel ), entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, ByteArray> createByteInstance( int[] dimensions, int entitiesPerPixel )
+	{
+		return new LargeArray<T, ByteArray>( this, new ByteArray( 1 ), dimensions, checkPageSizeBits( entitiesPerPixel ), entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, CharArray> createCharInstance( int[] dimensions, int entitiesPerPixel )
+	{
+		return new LargeArray<T, CharArray>( this, new CharArray( 1 ), dimensions, checkPageSizeBits( entitiesPerPixel ), entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, DoubleArray> createDoubleInstance( int[] dimensions, int entitiesPerPixel )
+	{
+		return new LargeArray<T, DoubleArray>( this, new DoubleArray( 1 ), dimensions, checkPageSizeBits( entitiesPerPixel ), entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, FloatArray> createFloatInstance( int[] dimensions, int entitiesPerPixel )
+	{
+		return new LargeArray<T, FloatArray>( this, new FloatArray( 1 ), dimensions, checkPageSizeBits( entitiesPerPixel ), entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, IntArray> createIntInstance( int[] dimensions, int entitiesPerPixel )
+	{
+		return new LargeArray<T, IntArray>( this, new IntArray( 1 ), dimensions, checkPageSizeBits( entitiesPerPixel ), entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, LongArray> createLongInstance( int[] dimensions, int entitiesPerPixel )
+	{
+		return new LargeArray<T, LongArray>( this, new LongArray( 1 ), dimensions, checkPageSizeBits( entitiesPerPixel ), entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, ShortArray> createShortInstance( int[] dimensions, int entitiesPerPixel )
+	{
+		return new LargeArray<T, ShortArray>( this, new ShortArray( 1 ), dimensions, checkPageSizeBits( entitiesPerPixel ), entitiesPerPixel );
+	}
+
+	@Override
+	public String getErrorMessage() { return null; }
+
+	@Override
+	public void printProperties()
+	{
+		System.out.println( this.getClass().getCanonicalName() + ": page size = 2^" + pageSizeBits + " pixels" );
+	}
+
+	@Override
+	public void setParameters( final String configuration ) {}
+}
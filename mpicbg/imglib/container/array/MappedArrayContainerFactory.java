@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.array;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import mpicbg.imglib.container.DirectAccessContainer;
+import mpicbg.imglib.container.basictypecontainer.*;
+import mpicbg.imglib.container.basictypecontainer.array.MappedFile;
+import mpicbg.imglib.container.basictypecontainer.array.NIOByteArray;
+import mpicbg.imglib.container.basictypecontainer.array.NIOCharArray;
+import mpicbg.imglib.container.basictypecontainer.array.NIODoubleArray;
+import mpicbg.imglib.container.basictypecontainer.array.NIOFloatArray;
+import mpicbg.imglib.container.basictypecontainer.array.NIOIntArray;
+import mpicbg.imglib.container.basictypecontainer.array.NIOLongArray;
+import mpicbg.imglib.container.basictypecontainer.array.NIOShortArray;
+import mpicbg.imglib.type.Type;
+
+/**
+ * Creates {@link Array} containers whose data is a {@link java.nio.MappedByteBuffer} over a file.
+ * The first container maps the given file (starting at the file offset, e.g. behind a header), so
+ * an existing raw dataset is opened without reading it. All further containers, e.g. the ones created by
+ * {@link mpicbg.imglib.image.Image#createNewImage()}, map temporary files in the same directory.
+ * 
+ * One mapping is limited to 2^31-1 bytes, use a {@link mpicbg.imglib.container.cell.MappedCellContainerFactory}
+ * for larger images.
+ */
+public class MappedArrayContainerFactory extends ArrayContainerFactory
+{
+	protected File file, tempDirectory;
+	protected long fileOffset = 0;
+	protected ByteOrder byteOrder = ByteOrder.nativeOrder();
+	protected boolean readOnly = false;
+	protected boolean fileInUse = false;
+
+	/**
+	 * All containers are mapped to temporary files in the default temporary-file directory
+	 */
+	public MappedArrayContainerFactory() 
+	{
+		this.useNIO = true;
+	}
+
+	/**
+	 * The first container is mapped to the given file, all other containers to temporary files next to it
+	 * 
+	 * @param file - the file to map, it is created or extended if necessary
+	 */
+	public MappedArrayContainerFactory( final File file )
+	{
+		this.useNIO = true;
+		this.file = file;
+		this.tempDirectory = file.getAbsoluteFile().getParentFile();
+	}
+	
+	@Override
+	public void setNIOUse( final boolean useNIO ) 
+	{ 
+		if ( !useNIO )
+			System.err.println( "MappedArrayContainerFactory.setNIOUse(): memory-mapped containers are always NIO-based." );
+	}
+
+	public void setFileOffset( final long fileOffset ) { this.fileOffset = fileOffset; }
+	public long getFileOffset() { return fileOffset; }
+	public void setByteOrder( final ByteOrder byteOrder ) { this.byteOrder = byteOrder; }
+	public ByteOrder getByteOrder() { return byteOrder; }
+	public void setReadOnly( final boolean readOnly ) { this.readOnly = readOnly; }
+	public boolean isReadOnly() { return readOnly; }
+	public void setTemporaryDirectory( final File tempDirectory ) { this.tempDirectory = tempDirectory; }
+	public File getTemporaryDirectory() { return tempDirectory; }
+	
+	protected ByteBuffer map( final int[] dimensions, final int entitiesPerPixel, final int bytesPerEntity )
+	{
+		long numBytes = (long)entitiesPerPixel * bytesPerEntity;
+		for ( final int d : dimensions )
+			numBytes *= d;
+		
+		if ( numBytes > Integer.MAX_VALUE )
+			throw new RuntimeException( "MappedArrayContainerFactory.map(): image needs " + numBytes + " bytes, cannot map more than " + Integer.MAX_VALUE + " bytes into one Array, use a MappedCellContainerFactory instead." );
+		
+		try
+		{
+			final MappedFile mappedFile;
+			final long position;
+			
+			synchronized ( this )
+			{
+				if ( file != null && !fileInUse )
+				{
+					mappedFile = new MappedFile( file, readOnly, byteOrder );
+					position = fileOffset;
+					fileInUse = true;
+				}
+				else
+				{
+					mappedFile = MappedFile.createTemporaryFile( tempDirectory, byteOrder );
+					position = 0;
+				}
+			}
+			
+			final ByteBuffer buffer;
+			try
+			{
+				buffer = mappedFile.map( position, numBytes );
+			}
+			catch ( IOException e )
+			{
+				mappedFile.closeAfterFailure();
+				throw e;
+			}
+			
+			mappedFile.close();
+			
+			return buffer;
+		}
+		catch ( IOException e )
+		{
+			throw new RuntimeException( "MappedArrayContainerFactory.map(): cannot map file: " + e );
+		}
+	}
+	
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, BitAccess> createBitInstance( int[] dimensions, final int entitiesPerPixel)
+	{
+		throw new IllegalStateException("Cannot create memory-mapped bit arrays");
+	}
+	
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, ByteAccess> createByteInstance( final int[] dimensions, final int entitiesPerPixel)
+	{
+		ByteAccess access = new NIOByteArray( map( dimensions, entitiesPerPixel, 1 ) );
+		if ( dimensions.length == 3 && useOptimizedContainers )
+			return new Array3D<T, ByteAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
+		else
+			return new Array<T, ByteAccess>( this, access, dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, CharAccess> createCharInstance(int[] dimensions, final int entitiesPerPixel)
+	{
+		CharAccess access = new NIOCharArray( map( dimensions, entitiesPerPixel, 2 ) );
+		if ( dimensions.length == 3 && useOptimizedContainers )
+			return new Array3D<T, CharAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
+		else
+			return new Array<T, CharAccess>( this, access, dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, DoubleAccess> createDoubleInstance(int[] dimensions, final int entitiesPerPixel)
+	{
+		DoubleAccess access = new NIODoubleArray( map( dimensions, entitiesPerPixel, 8 ) );
+		if ( dimensions.length == 3 && useOptimizedContainers )
+			return new Array3D<T, DoubleAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
+		else
+			return new Array<T, DoubleAccess>( this, access, dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, FloatAccess> createFloatInstance(int[] dimensions, final int entitiesPerPixel)
+	{
+		FloatAccess access = new NIOFloatArray( map( dimensions, entitiesPerPixel, 4 ) );
+		if ( dimensions.length == 3 && useOptimizedContainers )
+			return new Array3D<T, FloatAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
+		else
+			return new Array<T, FloatAccess>( this, access, dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, IntAccess> createIntInstance(int[] dimensions, final int entitiesPerPixel)
+	{
+		IntAccess access = new NIOIntArray( map( dimensions, entitiesPerPixel, 4 ) );
+		if ( dimensions.length == 3 && useOptimizedContainers )
+			return new Array3D<T, IntAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
+		else
+			return new Array<T, IntAccess>( this, access, dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, LongAccess> createLongInstance(int[] dimensions, final int entitiesPerPixel)
+	{
+		LongAccess access = new NIOLongArray( map( dimensions, entitiesPerPixel, 8 ) );
+		if ( dimensions.length == 3 && useOptimizedContainers )
+			return new Array3D<T, LongAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
+		else
+			return new Array<T, LongAccess>( this, access, dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, ShortAccess> createShortInstance(int[] dimensions, final int entitiesPerPixel)
+	{
+		ShortAccess access = new NIOShortArray( map( dimensions, entitiesPerPixel, 2 ) );
+		if ( dimensions.length == 3 && useOptimizedContainers )
+			return new Array3D<T, ShortAccess>( this, access, dimensions[0], dimensions[1], dimensions[2], entitiesPerPixel );
+		else
+			return new Array<T, ShortAccess>( this, access, dimensions, entitiesPerPixel );
+	}
+}
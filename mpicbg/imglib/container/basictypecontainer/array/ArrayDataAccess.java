@@ -6,4 +6,26 @@ public interface ArrayDataAccess<A> extends DataAccess
 {
 	A createArray( int numEntities );
 	Object getCurrentStorageArrayAsObject();
+	
+	/**
+	 * Copies entities into a primitive array of the storage type (e.g. float[] for a
+	 * {@link mpicbg.imglib.container.basictypecontainer.FloatAccess}, boolean[] for a
+	 * {@link mpicbg.imglib.container.basictypecontainer.BitAccess}) without copying
+	 * the remaining storage.
+	 * 
+	 * @param offset - the index of the first entity
+	 * @param dst - the primitive array to fill
+	 * @param dstOffset - the first index to write in dst
+	 * @param length - the number of entities
+	 * @throws UnsupportedOperationException - if the access does not store any values
+	 */
+	void getValues( int offset, Object dst, int dstOffset, int length );
+	
+	/**
+	 * Copies entities from a primitive array of the storage type, the counterpart of
+	 * {@link #getValues(int, Object, int, int)}.
+	 * 
+	 * @throws UnsupportedOperationException - if the access does not store any values
+	 */
+	void setValues( int offset, Object src, int srcOffset, int length );
 }
@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.basictypecontainer.array;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A pool of primitive arrays keyed by component type and length. Algorithms draw their
+ * line buffers from it and {@link mpicbg.imglib.container.array.Array}s created by an
+ * {@link mpicbg.imglib.container.array.ArrayContainerFactory} with a pool draw their storage
+ * from it, so that repeated calls reuse memory instead of producing garbage. 
+ * Arrays have to be handed back explicitly by {@link #release(Object)}, which
+ * {@link mpicbg.imglib.container.Container#close()} does for pooled containers.
+ * At most maxBytes are kept, if a released array does not fit the arrays of the least recently
+ * used sizes are dropped, so that sizes nobody asks for anymore do not block the pool.
+ */
+public class ArrayPool
+{
+	final protected static ArrayPool sharedPool = new ArrayPool( Runtime.getRuntime().maxMemory() / 16 );
+
+	/**
+	 * @return - the pool shared by all algorithms, keeps at most 1/16 of the maximal heap size
+	 */
+	public static ArrayPool getSharedPool() { return sharedPool; }
+
+	final protected static class Key
+	{
+		final Class<?> componentType;
+		final int length;
+
+		Key( final Class<?> componentType, final int length )
+		{
+			this.componentType = componentType;
+			this.length = length;
+		}
+
+		@Override
+		public int hashCode() { return componentType.hashCode() * 31 + length; }
+
+		@Override
+		public boolean equals( final Object o )
+		{
+			if ( !Key.class.isInstance( o ) )
+				return false;
+
+			final Key key = (Key)o;
+			return key.componentType == componentType && key.length == length;
+		}
+	}
+
+	// in access order, the least recently used size comes first
+	final protected LinkedHashMap<Key, ArrayList<Object>> arrays = new LinkedHashMap<Key, ArrayList<Object>>( 16, 0.75f, true );
+
+	protected long maxBytes, numBytes = 0;
+	protected long numHits = 0, numMisses = 0;
+
+	public ArrayPool( final long maxBytes )
+	{
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns a pooled array or a new one.
+	 *
+	 * @param componentType - e.g. float.class
+	 * @param length - the length of the array
+	 * @param zero - if true the array is filled with 0, otherwise its content is undefined
+	 * @return - the primitive array
+	 */
+	public Object getArray( final Class<?> componentType, final int length, final boolean zero )
+	{
+		Object array = null;
+
+		synchronized ( this )
+		{
+			final Key key = new Key( componentType, length );
+			final ArrayList<Object> list = arrays.get( key );
+
+			if ( list != null && list.size() > 0 )
+			{
+				array = list.remove( list.size() - 1 );
+				numBytes -= getNumBytes( componentType, length );
+				++numHits;
+
+				if ( list.size() == 0 )
+					arrays.remove( key );
+			}
+			else
+			{
+				++numMisses;
+			}
+		}
+
+		if ( array == null )
+			return java.lang.reflect.Array.newInstance( componentType, length );
+
+		if ( zero )
+			clear( array );
+
+		return array;
+	}
+
+	public float[] getFloatArray( final int length ) { return (float[])getArray( float.class, length, false ); }
+	public double[] getDoubleArray( final int length ) { return (double[])getArray( double.class, length, false ); }
+	public int[] getIntArray( final int length ) { return (int[])getArray( int.class, length, false ); }
+
+	/**
+	 * Hands an array back to the pool, it must not be used by the caller anymore.
+	 *
+	 * @param array - a primitive array, null is ignored
+	 */
+	public void release( final Object array )
+	{
+		if ( array == null )
+			return;
+
+		final Class<?> componentType = array.getClass().getComponentType();
+
+		if ( componentType == null || !componentType.isPrimitive() )
+			throw new IllegalArgumentException( "ArrayPool.release(): not a primitive array: " + array );
+
+		final int length = java.lang.reflect.Array.getLength( array );
+		final long bytes = getNumBytes( componentType, length );
+
+		synchronized ( this )
+		{
+			if ( bytes > maxBytes )
+				return;
+
+			final Key key = new Key( componentType, length );
+			ArrayList<Object> list = arrays.get( key );
+
+			if ( list == null )
+			{
+				list = new ArrayList<Object>();
+				arrays.put( key, list );
+			}
+
+			// releasing the same array twice would hand it out twice
+			for ( final Object a : list )
+				if ( a == array )
+					return;
+
+			evict( key, maxBytes - bytes );
+
+			// the arrays of this size alone fill the pool
+			if ( numBytes + bytes > maxBytes )
+			{
+				if ( list.size() == 0 )
+					arrays.remove( key );
+
+				return;
+			}
+
+			list.add( array );
+			numBytes += bytes;
+		}
+	}
+
+	/**
+	 * Drops the arrays of the least recently used sizes until at most maxBytes are pooled.
+	 *
+	 * @param keep - the size that is not dropped
+	 * @param maxBytes - the number of bytes to keep at most
+	 */
+	protected void evict( final Key keep, final long maxBytes )
+	{
+		final Iterator<Map.Entry<Key, ArrayList<Object>>> i = arrays.entrySet().iterator();
+
+		while ( numBytes > maxBytes && i.hasNext() )
+		{
+			final Map.Entry<Key, ArrayList<Object>> entry = i.next();
+			final Key key = entry.getKey();
+
+			if ( key.equals( keep ) )
+				continue;
+
+			numBytes -= getNumBytes( key.componentType, key.length ) * entry.getValue().size();
+			i.remove();
+		}
+	}
+
+	/**
+	 * Drops all pooled arrays.
+	 */
+	public synchronized void clear()
+	{
+		arrays.clear();
+		numBytes = 0;
+	}
+
+	public synchronized void setMaxBytes( final long maxBytes )
+	{
+		this.maxBytes = maxBytes;
+
+		evict( null, maxBytes );
+	}
+
+	public synchronized long getMaxBytes() { return maxBytes; }
+	public synchronized long getNumBytes() { return numBytes; }
+	public synchronized long getNumHits() { return numHits; }
+	public synchronized long getNumMisses() { return numMisses; }
+
+	protected static long getNumBytes( final Class<?> componentType, final int length )
+	{
+		if ( componentType == byte.class || componentType == boolean.class )
+			return length;
+		else if ( componentType == short.class || componentType == char.class )
+			return 2l * length;
+		else if ( componentType == long.class || componentType == double.class )
+			return 8l * length;
+		else
+			return 4l * length;
+	}
+
+	protected static void clear( final Object array )
+	{
+		if ( array instanceof float[] )
+			java.util.Arrays.fill( (float[])array, 0 );
+		else if ( array instanceof double[] )
+			java.util.Arrays.fill( (double[])array, 0 );
+		else if ( array instanceof int[] )
+			java.util.Arrays.fill( (int[])array, 0 );
+		else if ( array instanceof short[] )
+			java.util.Arrays.fill( (short[])array, (short)0 );
+		else if ( array instanceof byte[] )
+			java.util.Arrays.fill( (byte[])array, (byte)0 );
+		else if ( array instanceof char[] )
+			java.util.Arrays.fill( (char[])array, (char)0 );
+		else if ( array instanceof long[] )
+			java.util.Arrays.fill( (long[])array, 0 );
+		else if ( array instanceof boolean[] )
+			java.util.Arrays.fill( (boolean[])array, false );
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + " (" + getNumBytes() + " of " + getMaxBytes() + " bytes, " + getNumHits() + " hits, " + getNumMisses() + " misses)";
+	}
+}
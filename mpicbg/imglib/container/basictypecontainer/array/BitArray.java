@@ -29,6 +29,8 @@
  */
 package mpicbg.imglib.container.basictypecontainer.array;
 
+import java.util.Arrays;
+
 import mpicbg.imglib.container.basictypecontainer.BitAccess;
 
 public class BitArray implements BitAccess, ArrayDataAccess<BitArray>
@@ -52,6 +54,12 @@ public class BitArray implements BitAccess, ArrayDataAccess<BitArray>
 		this.data = new int[ numElements ];
 	}
 
+	public BitArray( final int numEntities, final int[] data )
+	{
+		this.numEntities = numEntities;
+		this.data = data;
+	}
+
 	@Override
 	public void close() { data = null; }
 
@@ -81,10 +89,305 @@ public class BitArray implements BitAccess, ArrayDataAccess<BitArray>
 
 	public int[] getCurrentStorageArray() { return data; }
 
+	/**
+	 * @return - the array the bulk operations read from, subclasses may return a temporary copy
+	 */
+	protected int[] getReadableStorageArray() { return data; }
+
+	/**
+	 * @return - the array the bulk operations write into
+	 */
+	protected int[] getWritableStorageArray() { return data; }
+
+	public int getNumEntities() { return numEntities; }
+
+	/**
+	 * Reads numBits consecutive bits at once, e.g. the 12 bits of one
+	 * {@link mpicbg.imglib.type.numeric.integer.Unsigned12BitType} pixel.
+	 *
+	 * @param index - the index of the first (least significant) bit
+	 * @param numBits - the number of bits, [1, 32]
+	 * @return - the bits, index being bit 0
+	 */
+	public int getBits( final int index, final int numBits ) { return getBits( data, index, numBits ); }
+
+	final protected static int getBits( final int[] data, final int index, final int numBits )
+	{
+		final int arrayIndex = index >>> 5;
+		final int arrayOffset = index & 31;
+
+		int value = data[ arrayIndex ] >>> arrayOffset;
+
+		if ( arrayOffset + numBits > bitsPerEntity )
+			value |= data[ arrayIndex + 1 ] << ( bitsPerEntity - arrayOffset );
+
+		return numBits == bitsPerEntity ? value : value & ( ( 1 << numBits ) - 1 );
+	}
+
+	/**
+	 * Writes numBits consecutive bits at once, the counterpart of {@link #getBits(int, int)}.
+	 */
+	public void setBits( final int index, final int numBits, final int value ) { setBits( data, index, numBits, value ); }
+
+	final protected static void setBits( final int[] data, final int index, final int numBits, int value )
+	{
+		final int arrayIndex = index >>> 5;
+		final int arrayOffset = index & 31;
+		final int mask = numBits == bitsPerEntity ? 0xffffffff : ( 1 << numBits ) - 1;
+
+		value &= mask;
+		data[ arrayIndex ] = ( data[ arrayIndex ] & ~( mask << arrayOffset ) ) | ( value << arrayOffset );
+
+		if ( arrayOffset + numBits > bitsPerEntity )
+		{
+			final int shift = bitsPerEntity - arrayOffset;
+			data[ arrayIndex + 1 ] = ( data[ arrayIndex + 1 ] & ~( mask >>> shift ) ) | ( value >>> shift );
+		}
+	}
+
+	/**
+	 * Unpacks length values of numBits each, e.g. a line of 12-bit pixels into a short[].
+	 *
+	 * @param index - the index of the first bit of the first value
+	 * @param numBits - the number of bits per value, [1, 16]
+	 */
+	public void getBits( final int index, final int numBits, final short[] dst, final int dstOffset, final int length )
+	{
+		getBits( getReadableStorageArray(), index, numBits, dst, dstOffset, length );
+	}
+
+	final protected static void getBits( final int[] a, final int index, final int numBits, final short[] dst, final int dstOffset, final int length )
+	{
+		int k = 0, j = index;
+		
+		if ( numBits == 12 )
+		{
+			// single values until we reach the start of an int, from then on 8 values are stored in 3 ints
+			for ( ; k < length && ( j & 31 ) != 0; ++k, j += 12 )
+				dst[ dstOffset + k ] = (short)getBits( a, j, 12 );
+
+			if ( ( j & 31 ) == 0 )
+			{
+				for ( int e = j >>> 5, o = dstOffset + k; k + 8 <= length; k += 8, j += 96, e += 3, o += 8 )
+				{
+					final int a0 = a[ e ], a1 = a[ e + 1 ], a2 = a[ e + 2 ];
+					
+					dst[ o ] = (short)( a0 & 0xfff );
+					dst[ o + 1 ] = (short)( ( a0 >>> 12 ) & 0xfff );
+					dst[ o + 2 ] = (short)( ( a0 >>> 24 ) | ( ( a1 & 0xf ) << 8 ) );
+					dst[ o + 3 ] = (short)( ( a1 >>> 4 ) & 0xfff );
+					dst[ o + 4 ] = (short)( ( a1 >>> 16 ) & 0xfff );
+					dst[ o + 5 ] = (short)( ( a1 >>> 28 ) | ( ( a2 & 0xff ) << 4 ) );
+					dst[ o + 6 ] = (short)( ( a2 >>> 8 ) & 0xfff );
+					dst[ o + 7 ] = (short)( a2 >>> 20 );
+				}
+			}
+		}
+		
+		for ( ; k < length; ++k, j += numBits )
+			dst[ dstOffset + k ] = (short)getBits( a, j, numBits );
+	}
+
+	/**
+	 * Packs length values of numBits each, the counterpart of {@link #getBits(int, int, short[], int, int)}.
+	 */
+	public void setBits( final int index, final int numBits, final short[] src, final int srcOffset, final int length )
+	{
+		for ( int k = 0, j = index; k < length; ++k, j += numBits )
+			setBits( j, numBits, src[ srcOffset + k ] );
+	}
+
+	/*
+	 * The following operations work on 32 bits at a time, the bits beyond numEntities in
+	 * the last int are ignored by cardinality() and nextSetBit() and zeroed by not() and shift().
+	 */
+
+	/**
+	 * @return - the mask of the bits of the last int that hold entities
+	 */
+	protected int getLastElementMask() { return getLastElementMask( numEntities ); }
+
+	final protected static int getLastElementMask( final int numEntities )
+	{
+		final int numBits = numEntities % bitsPerEntity;
+		return numBits == 0 ? 0xffffffff : ( 1 << numBits ) - 1;
+	}
+
+	protected int[] getOtherStorageArray( final BitArray other )
+	{
+		if ( other.numEntities != numEntities )
+			throw new RuntimeException( "BitArray: cannot combine " + numEntities + " with " + other.numEntities + " bits." );
+
+		return other.getReadableStorageArray();
+	}
+
+	public void and( final BitArray other )
+	{
+		final int[] a = getWritableStorageArray(), b = getOtherStorageArray( other );
+
+		for ( int j = 0; j < a.length; ++j )
+			a[ j ] &= b[ j ];
+	}
+
+	public void or( final BitArray other )
+	{
+		final int[] a = getWritableStorageArray(), b = getOtherStorageArray( other );
+
+		for ( int j = 0; j < a.length; ++j )
+			a[ j ] |= b[ j ];
+	}
+
+	public void xor( final BitArray other )
+	{
+		final int[] a = getWritableStorageArray(), b = getOtherStorageArray( other );
+
+		for ( int j = 0; j < a.length; ++j )
+			a[ j ] ^= b[ j ];
+	}
+
+	/**
+	 * Clears all bits that are set in other.
+	 */
+	public void andNot( final BitArray other )
+	{
+		final int[] a = getWritableStorageArray(), b = getOtherStorageArray( other );
+
+		for ( int j = 0; j < a.length; ++j )
+			a[ j ] &= ~b[ j ];
+	}
+
+	public void not()
+	{
+		final int[] a = getWritableStorageArray();
+
+		for ( int j = 0; j < a.length; ++j )
+			a[ j ] = ~a[ j ];
+
+		if ( a.length > 0 )
+			a[ a.length - 1 ] &= getLastElementMask();
+	}
+
+	public void fill( final boolean value )
+	{
+		final int[] a = getWritableStorageArray();
+
+		Arrays.fill( a, value ? 0xffffffff : 0 );
+
+		if ( a.length > 0 )
+			a[ a.length - 1 ] &= getLastElementMask();
+	}
+
+	/**
+	 * Moves every bit from index i to i + offset, bits moved in from outside are false.
+	 *
+	 * @param offset - positive moves towards higher, negative towards lower indices
+	 */
+	public void shift( final int offset )
+	{
+		final int[] a = getWritableStorageArray();
+		final int n = a.length;
+
+		if ( offset == 0 || n == 0 )
+			return;
+
+		// garbage beyond numEntities must not be shifted in
+		a[ n - 1 ] &= getLastElementMask();
+
+		// floor division, so that bitShift is within [0, 31] for negative offsets as well
+		final int wordShift = offset >> 5;
+		final int bitShift = offset & 31;
+
+		if ( offset > 0 )
+			for ( int j = n - 1; j >= 0; --j )
+				a[ j ] = getShiftedElement( a, j - wordShift, bitShift );
+		else
+			for ( int j = 0; j < n; ++j )
+				a[ j ] = getShiftedElement( a, j - wordShift, bitShift );
+
+		a[ n - 1 ] &= getLastElementMask();
+	}
+
+	final protected static int getShiftedElement( final int[] a, final int source, final int bitShift )
+	{
+		final int high = ( source >= 0 && source < a.length ) ? a[ source ] << bitShift : 0;
+
+		if ( bitShift == 0 || source - 1 < 0 || source - 1 >= a.length )
+			return high;
+		else
+			return high | ( a[ source - 1 ] >>> ( bitsPerEntity - bitShift ) );
+	}
+
+	/**
+	 * @return - the number of set bits
+	 */
+	public int cardinality() { return cardinality( getReadableStorageArray(), numEntities ); }
+
+	final protected static int cardinality( final int[] a, final int numEntities )
+	{
+		final int n = a.length;
+
+		if ( n == 0 )
+			return 0;
+
+		int count = 0;
+
+		for ( int j = 0; j < n - 1; ++j )
+			count += Integer.bitCount( a[ j ] );
+
+		return count + Integer.bitCount( a[ n - 1 ] & getLastElementMask( numEntities ) );
+	}
+
+	/**
+	 * @param fromIndex - the first index to test
+	 * @return - the index of the first set bit &gt;= fromIndex, or -1 if there is none
+	 */
+	public int nextSetBit( final int fromIndex ) { return nextSetBit( getReadableStorageArray(), numEntities, fromIndex ); }
+
+	final protected static int nextSetBit( final int[] a, final int numEntities, final int fromIndex )
+	{
+		if ( fromIndex >= numEntities )
+			return -1;
+
+		int j = fromIndex / bitsPerEntity;
+		int element = a[ j ] & ( 0xffffffff << ( fromIndex % bitsPerEntity ) );
+
+		while ( true )
+		{
+			if ( element != 0 )
+			{
+				final int index = j * bitsPerEntity + Integer.numberOfTrailingZeros( element );
+				return index < numEntities ? index : -1;
+			}
+
+			if ( ++j == a.length )
+				return -1;
+
+			element = a[ j ];
+		}
+	}
+
 	@Override
 	public BitArray createArray( final int numEntities ) { return new BitArray( numEntities ); }
 
 	@Override
 	public Object getCurrentStorageArrayAsObject() { return getCurrentStorageArray(); }
 
+	@Override
+	public void getValues( final int offset, final Object dst, final int dstOffset, final int length )
+	{
+		final boolean[] values = (boolean[])dst;
+		
+		for ( int i = 0; i < length; ++i )
+			values[ dstOffset + i ] = getValue( offset + i );
+	}
+
+	@Override
+	public void setValues( final int offset, final Object src, final int srcOffset, final int length )
+	{
+		final boolean[] values = (boolean[])src;
+		
+		for ( int i = 0; i < length; ++i )
+			setValue( offset + i, values[ srcOffset + i ] );
+	}
+
 }
@@ -65,6 +65,12 @@ public class ByteArray implements ByteAccess, ArrayDataAccess<ByteArray>
 	@Override
 	public Object getCurrentStorageArrayAsObject(){ return data; }
 
+	@Override
+	public void getValues( final int offset, final Object dst, final int dstOffset, final int length ) { System.arraycopy( data, offset, dst, dstOffset, length ); }
+
+	@Override
+	public void setValues( final int offset, final Object src, final int srcOffset, final int length ) { System.arraycopy( src, srcOffset, data, offset, length ); }
+
 	@Override
 	public ByteArray createArray( final int numEntities ) { return new ByteArray( numEntities ); }
 }
@@ -44,4 +44,11 @@ public class FakeArray implements FakeAccess, ArrayDataAccess<FakeArray>
 	@Override
 	public Object getCurrentStorageArrayAsObject() { return null; }
 
+	// a FakeArray has no values, bulk copies would silently lose data
+	@Override
+	public void getValues( final int offset, final Object dst, final int dstOffset, final int length ) { throw new UnsupportedOperationException( "FakeArray.getValues(): a FakeArray has no values." ); }
+
+	@Override
+	public void setValues( final int offset, final Object src, final int srcOffset, final int length ) { throw new UnsupportedOperationException( "FakeArray.setValues(): a FakeArray cannot store values." ); }
+
 }
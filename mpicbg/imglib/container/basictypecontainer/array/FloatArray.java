@@ -68,4 +68,10 @@ public class FloatArray implements FloatAccess, ArrayDataAccess<FloatArray>
 	@Override
 	public Object getCurrentStorageArrayAsObject() { return getCurrentStorageArray(); }
 
+	@Override
+	public void getValues( final int offset, final Object dst, final int dstOffset, final int length ) { System.arraycopy( data, offset, dst, dstOffset, length ); }
+
+	@Override
+	public void setValues( final int offset, final Object src, final int srcOffset, final int length ) { System.arraycopy( src, srcOffset, data, offset, length ); }
+
 }
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.basictypecontainer.array;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Maps regions of a file into memory as {@link MappedByteBuffer}s which can be wrapped
+ * by a {@link NIOArrayDataAccess}. The operating system pages the data in and out on demand,
+ * so the mapped regions do not occupy any Java heap and may in total be larger than the RAM.
+ * 
+ * A mapping stays valid after the {@link MappedFile} is closed, the file is only needed while
+ * the regions are created. Temporary files are deleted on {@link #close()}, or on exit where a mapped
+ * file cannot be deleted (e.g. on Windows). The space they occupy on the disk is released by the 
+ * operating system once the last mapping is garbage collected.
+ */
+public class MappedFile
+{
+	final protected File file;
+	final protected RandomAccessFile raf;
+	final protected FileChannel channel;
+	final protected boolean readOnly;
+	final protected ByteOrder byteOrder;
+	
+	protected boolean temporary = false;
+
+	public MappedFile( final File file, final boolean readOnly, final ByteOrder byteOrder ) throws IOException
+	{
+		this.file = file;
+		this.readOnly = readOnly;
+		this.byteOrder = byteOrder;
+		this.raf = new RandomAccessFile( file, readOnly ? "r" : "rw" );
+		this.channel = raf.getChannel();
+	}
+
+	/**
+	 * Creates a new, empty file in the given directory that is deleted on {@link #close()}, or when the
+	 * virtual machine exits if it cannot be deleted while it is mapped.
+	 * 
+	 * @param directory - where to create the file, null means the default temporary-file directory
+	 * @param byteOrder - the {@link ByteOrder} of the mapped regions
+	 * @return - the {@link MappedFile}
+	 * @throws IOException
+	 */
+	public static MappedFile createTemporaryFile( final File directory, final ByteOrder byteOrder ) throws IOException
+	{
+		final File file = File.createTempFile( "imglib", ".raw", directory );
+		final MappedFile mappedFile;
+		
+		try
+		{
+			mappedFile = new MappedFile( file, false, byteOrder );
+		}
+		catch ( IOException e )
+		{
+			file.delete();
+			throw e;
+		}
+		
+		mappedFile.temporary = true;
+		
+		return mappedFile;
+	}
+
+	/**
+	 * Maps a region of the file into memory. If the file is writable and too short it will be extended,
+	 * which does not write anything to the disk on file systems that support sparse files. Existing
+	 * content is not touched, so mapping an existing raw dataset costs nothing up front.
+	 * 
+	 * @param position - the position in the file (in bytes) where the region starts
+	 * @param numBytes - the size of the region (in bytes)
+	 * @return - the mapped region
+	 * @throws IOException
+	 */
+	public ByteBuffer map( final long position, final long numBytes ) throws IOException
+	{
+		if ( numBytes > Integer.MAX_VALUE )
+			throw new IOException( "MappedFile.map(): cannot map more than " + Integer.MAX_VALUE + " bytes at once, requested " + numBytes + " bytes." );
+
+		if ( channel.size() < position + numBytes )
+		{
+			if ( readOnly )
+				throw new IOException( "MappedFile.map(): file '" + file + "' is too short (" + channel.size() + " bytes) to map " + numBytes + " bytes at " + position + "." );
+			
+			raf.setLength( position + numBytes );
+		}
+
+		final MappedByteBuffer buffer = channel.map( readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE, position, numBytes );
+		buffer.order( byteOrder );
+		
+		return buffer;
+	}
+	
+	public File getFile() { return file; }
+	public boolean isReadOnly() { return readOnly; }
+	public ByteOrder getByteOrder() { return byteOrder; }
+	public boolean isTemporary() { return temporary; }
+	
+	public void close() throws IOException
+	{
+		channel.close();
+		raf.close();
+		
+		// fails on Windows while the file is still mapped, then it is deleted when the virtual machine exits
+		if ( temporary && !file.delete() )
+			file.deleteOnExit();
+	}
+	
+	/**
+	 * Closes the file after mapping it failed, a second failure is ignored so it does not hide the first.
+	 */
+	public void closeAfterFailure()
+	{
+		try
+		{
+			close();
+		}
+		catch ( IOException e ) {}
+	}
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.basictypecontainer.array;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link ArrayDataAccess} that is backed by a {@link ByteBuffer}, e.g. a direct buffer
+ * or a {@link java.nio.MappedByteBuffer} covering a region of a file. 
+ */
+public interface NIOArrayDataAccess<A> extends ArrayDataAccess<A>
+{
+	/**
+	 * Creates a new instance that does not copy but views the given bytes, 
+	 * the {@link java.nio.ByteOrder} of the buffer is respected.
+	 * 
+	 * @param bytes - the buffer, its capacity must be a multiple of {@link #getNumBytesPerEntity()}
+	 * @return - the new instance
+	 */
+	A createArray( ByteBuffer bytes );
+	
+	/**
+	 * @return - the number of bytes used to store one entity
+	 */
+	int getNumBytesPerEntity();
+	
+	/**
+	 * @return - a view of the underlying buffer (e.g. a {@link java.nio.FloatBuffer}) with its own position and limit, 
+	 * reading or writing it does not copy any data
+	 */
+	Buffer getBuffer();
+}
@@ -34,20 +34,27 @@ import java.nio.ByteOrder;
 
 import mpicbg.imglib.container.basictypecontainer.ByteAccess;
 
-public class NIOByteArray implements ArrayDataAccess<NIOByteArray>, ByteAccess
+public class NIOByteArray implements NIOArrayDataAccess<NIOByteArray>, ByteAccess
 {
 	protected ByteBuffer data;
 	
 	public NIOByteArray( final int numEntities )
 	{
-		this.data = ByteBuffer.allocateDirect(numEntities * 4).order( ByteOrder.nativeOrder() );
+		this.data = ByteBuffer.allocateDirect( numEntities ).order( ByteOrder.nativeOrder() );
 	}
     		
 	public NIOByteArray( final byte[] data )
 	{
 		ByteBuffer bufferIn = ByteBuffer.wrap( data );
 		ByteBuffer copy = ByteBuffer.allocateDirect( bufferIn.capacity() ).order( ByteOrder.nativeOrder() );
-		this.data = copy.put( bufferIn );
+		copy.put( bufferIn );
+		copy.rewind();
+		this.data = copy;
+	}
+
+	public NIOByteArray( final ByteBuffer bytes )
+	{
+		this.data = bytes;
 	}
 
 	@Override
@@ -65,16 +72,44 @@ public class NIOByteArray implements ArrayDataAccess<NIOByteArray>, ByteAccess
 		data.put(index, value);		
 	}
 	
+	/**
+	 * @return - a copy of the whole buffer, use {@link #getValues(int, Object, int, int)} or {@link #getBuffer()} to avoid it
+	 */
 	public byte[] getCurrentStorageArray()
-	{ 		  
-		byte[] outData = new byte[ data.capacity() ];
-		data.get( outData );
+	{
+		final byte[] outData = new byte[ data.capacity() ];
+		getValues( 0, outData, 0, outData.length );
 		return outData;
 	}
+
+	@Override
+	public ByteBuffer getBuffer() { return data.duplicate().order( data.order() ); }
+
+	@Override
+	public void getValues( final int offset, final Object dst, final int dstOffset, final int length )
+	{
+		final ByteBuffer view = data.duplicate();
+		view.position( offset );
+		view.get( (byte[])dst, dstOffset, length );
+	}
+
+	@Override
+	public void setValues( final int offset, final Object src, final int srcOffset, final int length )
+	{
+		final ByteBuffer view = data.duplicate();
+		view.position( offset );
+		view.put( (byte[])src, srcOffset, length );
+	}
 	
 	@Override
 	public NIOByteArray createArray( final int numEntities ) { return new NIOByteArray( numEntities ); }
 
+	@Override
+	public NIOByteArray createArray( final ByteBuffer bytes ) { return new NIOByteArray( bytes ); }
+
+	@Override
+	public int getNumBytesPerEntity() { return 1; }
+
 	@Override
 	public Object getCurrentStorageArrayAsObject() { return getCurrentStorageArray(); }
 
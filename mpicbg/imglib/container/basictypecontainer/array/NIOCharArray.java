@@ -35,20 +35,27 @@ import java.nio.CharBuffer;
 
 import mpicbg.imglib.container.basictypecontainer.CharAccess;
 
-public class NIOCharArray implements ArrayDataAccess<NIOCharArray>, CharAccess
+public class NIOCharArray implements NIOArrayDataAccess<NIOCharArray>, CharAccess
 {
 	protected CharBuffer data;
 
 	public NIOCharArray( final int numEntities )
 	{
-		this.data = ByteBuffer.allocateDirect(numEntities * 4).order( ByteOrder.nativeOrder() ).asCharBuffer();
+		this.data = ByteBuffer.allocateDirect( numEntities * 2 ).order( ByteOrder.nativeOrder() ).asCharBuffer();
 	}
     		
 	public NIOCharArray( final char[] data )
 	{
 		CharBuffer bufferIn = CharBuffer.wrap( data );
-		CharBuffer copy = ByteBuffer.allocateDirect( bufferIn.capacity() ).order( ByteOrder.nativeOrder() ).asCharBuffer();
-		this.data = copy.put( bufferIn );
+		CharBuffer copy = ByteBuffer.allocateDirect( bufferIn.capacity() * 2 ).order( ByteOrder.nativeOrder() ).asCharBuffer();
+		copy.put( bufferIn );
+		copy.rewind();
+		this.data = copy;
+	}
+
+	public NIOCharArray( final ByteBuffer bytes )
+	{
+		this.data = bytes.asCharBuffer();
 	}
 
 	@Override
@@ -66,16 +73,44 @@ public class NIOCharArray implements ArrayDataAccess<NIOCharArray>, CharAccess
 		data.put(index, value);		
 	}
 	
+	/**
+	 * @return - a copy of the whole buffer, use {@link #getValues(int, Object, int, int)} or {@link #getBuffer()} to avoid it
+	 */
 	public char[] getCurrentStorageArray()
-	{ 		  
-		char[] outData = new char[ data.capacity() ];
-		data.get( outData );
+	{
+		final char[] outData = new char[ data.capacity() ];
+		getValues( 0, outData, 0, outData.length );
 		return outData;
 	}
+
+	@Override
+	public CharBuffer getBuffer() { return data.duplicate(); }
+
+	@Override
+	public void getValues( final int offset, final Object dst, final int dstOffset, final int length )
+	{
+		final CharBuffer view = data.duplicate();
+		view.position( offset );
+		view.get( (char[])dst, dstOffset, length );
+	}
+
+	@Override
+	public void setValues( final int offset, final Object src, final int srcOffset, final int length )
+	{
+		final CharBuffer view = data.duplicate();
+		view.position( offset );
+		view.put( (char[])src, srcOffset, length );
+	}
 	
 	@Override
 	public NIOCharArray createArray( final int numEntities ) { return new NIOCharArray( numEntities ); }
 
+	@Override
+	public NIOCharArray createArray( final ByteBuffer bytes ) { return new NIOCharArray( bytes ); }
+
+	@Override
+	public int getNumBytesPerEntity() { return 2; }
+
 	@Override
 	public Object getCurrentStorageArrayAsObject() { return getCurrentStorageArray(); }
 
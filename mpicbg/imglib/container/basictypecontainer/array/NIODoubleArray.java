@@ -35,7 +35,7 @@ import java.nio.DoubleBuffer;
 
 import mpicbg.imglib.container.basictypecontainer.DoubleAccess;
 
-public class NIODoubleArray implements ArrayDataAccess<NIODoubleArray>, DoubleAccess
+public class NIODoubleArray implements NIOArrayDataAccess<NIODoubleArray>, DoubleAccess
 {
 	protected DoubleBuffer data;
 
@@ -47,8 +47,15 @@ public class NIODoubleArray implements ArrayDataAccess<NIODoubleArray>, DoubleAc
 	public NIODoubleArray( final double[] data )
 	{
 		DoubleBuffer bufferIn = DoubleBuffer.wrap( data );
-		DoubleBuffer copy = ByteBuffer.allocateDirect( bufferIn.capacity() ).order( ByteOrder.nativeOrder() ).asDoubleBuffer();
-		this.data = copy.put( bufferIn );
+		DoubleBuffer copy = ByteBuffer.allocateDirect( bufferIn.capacity() * 8 ).order( ByteOrder.nativeOrder() ).asDoubleBuffer();
+		copy.put( bufferIn );
+		copy.rewind();
+		this.data = copy;
+	}
+
+	public NIODoubleArray( final ByteBuffer bytes )
+	{
+		this.data = bytes.asDoubleBuffer();
 	}
 
 	@Override
@@ -66,16 +73,44 @@ public class NIODoubleArray implements ArrayDataAccess<NIODoubleArray>, DoubleAc
 		data.put(index, value);		
 	}
 	
+	/**
+	 * @return - a copy of the whole buffer, use {@link #getValues(int, Object, int, int)} or {@link #getBuffer()} to avoid it
+	 */
 	public double[] getCurrentStorageArray()
 	{
-		double[] outData = new double[ data.capacity() ];
-		data.get( outData );
+		final double[] outData = new double[ data.capacity() ];
+		getValues( 0, outData, 0, outData.length );
 		return outData;
 	}
+
+	@Override
+	public DoubleBuffer getBuffer() { return data.duplicate(); }
+
+	@Override
+	public void getValues( final int offset, final Object dst, final int dstOffset, final int length )
+	{
+		final DoubleBuffer view = data.duplicate();
+		view.position( offset );
+		view.get( (double[])dst, dstOffset, length );
+	}
+
+	@Override
+	public void setValues( final int offset, final Object src, final int srcOffset, final int length )
+	{
+		final DoubleBuffer view = data.duplicate();
+		view.position( offset );
+		view.put( (double[])src, srcOffset, length );
+	}
 	
 	@Override
 	public NIODoubleArray createArray( final int numEntities ) { return new NIODoubleArray( numEntities ); }
 
+	@Override
+	public NIODoubleArray createArray( final ByteBuffer bytes ) { return new NIODoubleArray( bytes ); }
+
+	@Override
+	public int getNumBytesPerEntity() { return 8; }
+
 	@Override
 	public Object getCurrentStorageArrayAsObject() { return getCurrentStorageArray(); }
 	
@@ -36,20 +36,27 @@ import java.nio.*;
 /**
  * Core array type used for float[] data
  */
-public class NIOFloatArray implements ArrayDataAccess<NIOFloatArray>, FloatAccess
+public class NIOFloatArray implements NIOArrayDataAccess<NIOFloatArray>, FloatAccess
 {
 	protected FloatBuffer data;
 
 	public NIOFloatArray( final int numEntities )
 	{
-		this.data = ByteBuffer.allocateDirect(numEntities * 4).order( ByteOrder.nativeOrder() ).asFloatBuffer();
+		this.data = ByteBuffer.allocateDirect( numEntities * 4 ).order( ByteOrder.nativeOrder() ).asFloatBuffer();
 	}
     		
 	public NIOFloatArray( final float[] data )
 	{
 		FloatBuffer bufferIn = FloatBuffer.wrap( data );
-		FloatBuffer copy = ByteBuffer.allocateDirect( bufferIn.capacity() ).order( ByteOrder.nativeOrder() ).asFloatBuffer();
-		this.data = copy.put( bufferIn );
+		FloatBuffer copy = ByteBuffer.allocateDirect( bufferIn.capacity() * 4 ).order( ByteOrder.nativeOrder() ).asFloatBuffer();
+		copy.put( bufferIn );
+		copy.rewind();
+		this.data = copy;
+	}
+
+	public NIOFloatArray( final ByteBuffer bytes )
+	{
+		this.data = bytes.asFloatBuffer();
 	}
 
 	@Override
@@ -67,16 +74,44 @@ public class NIOFloatArray implements ArrayDataAccess<NIOFloatArray>, FloatAcces
 		data.put(index, value);		
 	}
 	
+	/**
+	 * @return - a copy of the whole buffer, use {@link #getValues(int, Object, int, int)} or {@link #getBuffer()} to avoid it
+	 */
 	public float[] getCurrentStorageArray()
-	{ 		  
-		float[] outData = new float[ data.capacity() ];
-		data.get( outData );
+	{
+		final float[] outData = new float[ data.capacity() ];
+		getValues( 0, outData, 0, outData.length );
 		return outData;
 	}
+
+	@Override
+	public FloatBuffer getBuffer() { return data.duplicate(); }
+
+	@Override
+	public void getValues( final int offset, final Object dst, final int dstOffset, final int length )
+	{
+		final FloatBuffer view = data.duplicate();
+		view.position( offset );
+		view.get( (float[])dst, dstOffset, length );
+	}
+
+	@Override
+	public void setValues( final int offset, final Object src, final int srcOffset, final int length )
+	{
+		final FloatBuffer view = data.duplicate();
+		view.position( offset );
+		view.put( (float[])src, srcOffset, length );
+	}
 	
 	@Override
 	public NIOFloatArray createArray( final int numEntities ) { return new NIOFloatArray( numEntities ); }
 
+	@Override
+	public NIOFloatArray createArray( final ByteBuffer bytes ) { return new NIOFloatArray( bytes ); }
+
+	@Override
+	public int getNumBytesPerEntity() { return 4; }
+
 	@Override
 	public Object getCurrentStorageArrayAsObject() { return getCurrentStorageArray(); }
 
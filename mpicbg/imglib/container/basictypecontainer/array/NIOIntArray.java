@@ -35,20 +35,27 @@ import java.nio.IntBuffer;
 
 import mpicbg.imglib.container.basictypecontainer.IntAccess;
 
-public class NIOIntArray implements ArrayDataAccess<NIOIntArray>, IntAccess
+public class NIOIntArray implements NIOArrayDataAccess<NIOIntArray>, IntAccess
 {
 	protected IntBuffer data;
 
 	public NIOIntArray( final int numEntities )
 	{
-		this.data = ByteBuffer.allocateDirect(numEntities * 4).order( ByteOrder.nativeOrder() ).asIntBuffer();
+		this.data = ByteBuffer.allocateDirect( numEntities * 4 ).order( ByteOrder.nativeOrder() ).asIntBuffer();
 	}
     		
 	public NIOIntArray( final int[] data )
 	{
 		IntBuffer bufferIn = IntBuffer.wrap( data );
-		IntBuffer copy = ByteBuffer.allocateDirect( bufferIn.capacity() ).order( ByteOrder.nativeOrder() ).asIntBuffer();
-		this.data = copy.put( bufferIn );
+		IntBuffer copy = ByteBuffer.allocateDirect( bufferIn.capacity() * 4 ).order( ByteOrder.nativeOrder() ).asIntBuffer();
+		copy.put( bufferIn );
+		copy.rewind();
+		this.data = copy;
+	}
+
+	public NIOIntArray( final ByteBuffer bytes )
+	{
+		this.data = bytes.asIntBuffer();
 	}
 
 	@Override
@@ -66,16 +73,44 @@ public class NIOIntArray implements ArrayDataAccess<NIOIntArray>, IntAccess
 		data.put(index, value);		
 	}
 	
+	/**
+	 * @return - a copy of the whole buffer, use {@link #getValues(int, Object, int, int)} or {@link #getBuffer()} to avoid it
+	 */
 	public int[] getCurrentStorageArray()
-	{ 		  
-		int[] outData = new int[ data.capacity() ];
-		data.get( outData );
+	{
+		final int[] outData = new int[ data.capacity() ];
+		getValues( 0, outData, 0, outData.length );
 		return outData;
 	}
+
+	@Override
+	public IntBuffer getBuffer() { return data.duplicate(); }
+
+	@Override
+	public void getValues( final int offset, final Object dst, final int dstOffset, final int length )
+	{
+		final IntBuffer view = data.duplicate();
+		view.position( offset );
+		view.get( (int[])dst, dstOffset, length );
+	}
+
+	@Override
+	public void setValues( final int offset, final Object src, final int srcOffset, final int length )
+	{
+		final IntBuffer view = data.duplicate();
+		view.position( offset );
+		view.put( (int[])src, srcOffset, length );
+	}
 	
 	@Override
 	public NIOIntArray createArray( final int numEntities ) { return new NIOIntArray( numEntities ); }
 
+	@Override
+	public NIOIntArray createArray( final ByteBuffer bytes ) { return new NIOIntArray( bytes ); }
+
+	@Override
+	public int getNumBytesPerEntity() { return 4; }
+
 	@Override
 	public Object getCurrentStorageArrayAsObject() { return getCurrentStorageArray(); }
 
@@ -35,20 +35,27 @@ import java.nio.LongBuffer;
 
 import mpicbg.imglib.container.basictypecontainer.LongAccess;
 
-public class NIOLongArray implements ArrayDataAccess<NIOLongArray>, LongAccess
+public class NIOLongArray implements NIOArrayDataAccess<NIOLongArray>, LongAccess
 {
 	protected LongBuffer data;
 
 	public NIOLongArray( final int numEntities )
 	{
-		this.data = ByteBuffer.allocateDirect(numEntities * 8).order( ByteOrder.nativeOrder() ).asLongBuffer();
+		this.data = ByteBuffer.allocateDirect( numEntities * 8 ).order( ByteOrder.nativeOrder() ).asLongBuffer();
 	}
     		
 	public NIOLongArray( final long[] data )
 	{
 		LongBuffer bufferIn = LongBuffer.wrap( data );
-		LongBuffer copy = ByteBuffer.allocateDirect( bufferIn.capacity() ).order( ByteOrder.nativeOrder() ).asLongBuffer();
-		this.data = copy.put( bufferIn );
+		LongBuffer copy = ByteBuffer.allocateDirect( bufferIn.capacity() * 8 ).order( ByteOrder.nativeOrder() ).asLongBuffer();
+		copy.put( bufferIn );
+		copy.rewind();
+		this.data = copy;
+	}
+
+	public NIOLongArray( final ByteBuffer bytes )
+	{
+		this.data = bytes.asLongBuffer();
 	}
 
 	@Override
@@ -66,16 +73,44 @@ public class NIOLongArray implements ArrayDataAccess<NIOLongArray>, LongAccess
 		data.put(index, value);		
 	}
 	
+	/**
+	 * @return - a copy of the whole buffer, use {@link #getValues(int, Object, int, int)} or {@link #getBuffer()} to avoid it
+	 */
 	public long[] getCurrentStorageArray()
-	{ 		  
-		long[] outData = new long[ data.capacity() ];
-		data.get( outData );
+	{
+		final long[] outData = new long[ data.capacity() ];
+		getValues( 0, outData, 0, outData.length );
 		return outData;
 	}
+
+	@Override
+	public LongBuffer getBuffer() { return data.duplicate(); }
+
+	@Override
+	public void getValues( final int offset, final Object dst, final int dstOffset, final int length )
+	{
+		final LongBuffer view = data.duplicate();
+		view.position( offset );
+		view.get( (long[])dst, dstOffset, length );
+	}
+
+	@Override
+	public void setValues( final int offset, final Object src, final int srcOffset, final int length )
+	{
+		final LongBuffer view = data.duplicate();
+		view.position( offset );
+		view.put( (long[])src, srcOffset, length );
+	}
 	
 	@Override
 	public NIOLongArray createArray( final int numEntities ) { return new NIOLongArray( numEntities ); }
 
+	@Override
+	public NIOLongArray createArray( final ByteBuffer bytes ) { return new NIOLongArray( bytes ); }
+
+	@Override
+	public int getNumBytesPerEntity() { return 8; }
+
 	@Override
 	public Object getCurrentStorageArrayAsObject() { return getCurrentStorageArray(); }
 
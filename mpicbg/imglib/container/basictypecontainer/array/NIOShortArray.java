@@ -35,20 +35,27 @@ import java.nio.ShortBuffer;
 
 import mpicbg.imglib.container.basictypecontainer.ShortAccess;
 
-public class NIOShortArray implements ArrayDataAccess<NIOShortArray>, ShortAccess
+public class NIOShortArray implements NIOArrayDataAccess<NIOShortArray>, ShortAccess
 {
 	protected ShortBuffer data;
 
 	public NIOShortArray( final int numEntities )
 	{
-		this.data = ByteBuffer.allocateDirect(numEntities * 8).order( ByteOrder.nativeOrder() ).asShortBuffer();
+		this.data = ByteBuffer.allocateDirect( numEntities * 2 ).order( ByteOrder.nativeOrder() ).asShortBuffer();
 	}
     		
 	public NIOShortArray( final short[] data )
 	{
 		ShortBuffer bufferIn = ShortBuffer.wrap( data );
-		ShortBuffer copy = ByteBuffer.allocateDirect( bufferIn.capacity() ).order( ByteOrder.nativeOrder() ).asShortBuffer();
-		this.data = copy.put( bufferIn );
+		ShortBuffer copy = ByteBuffer.allocateDirect( bufferIn.capacity() * 2 ).order( ByteOrder.nativeOrder() ).asShortBuffer();
+		copy.put( bufferIn );
+		copy.rewind();
+		this.data = copy;
+	}
+
+	public NIOShortArray( final ByteBuffer bytes )
+	{
+		this.data = bytes.asShortBuffer();
 	}
 
 	@Override
@@ -66,16 +73,44 @@ public class NIOShortArray implements ArrayDataAccess<NIOShortArray>, ShortAcces
 		data.put(index, value);		
 	}
 	
+	/**
+	 * @return - a copy of the whole buffer, use {@link #getValues(int, Object, int, int)} or {@link #getBuffer()} to avoid it
+	 */
 	public short[] getCurrentStorageArray()
-	{ 		  
-		short[] outData = new short[ data.capacity() ];
-		data.get( outData );
+	{
+		final short[] outData = new short[ data.capacity() ];
+		getValues( 0, outData, 0, outData.length );
 		return outData;
 	}
+
+	@Override
+	public ShortBuffer getBuffer() { return data.duplicate(); }
+
+	@Override
+	public void getValues( final int offset, final Object dst, final int dstOffset, final int length )
+	{
+		final ShortBuffer view = data.duplicate();
+		view.position( offset );
+		view.get( (short[])dst, dstOffset, length );
+	}
+
+	@Override
+	public void setValues( final int offset, final Object src, final int srcOffset, final int length )
+	{
+		final ShortBuffer view = data.duplicate();
+		view.position( offset );
+		view.put( (short[])src, srcOffset, length );
+	}
 	
 	@Override
 	public NIOShortArray createArray( final int numEntities ) { return new NIOShortArray( numEntities ); }
 
+	@Override
+	public NIOShortArray createArray( final ByteBuffer bytes ) { return new NIOShortArray( bytes ); }
+
+	@Override
+	public int getNumBytesPerEntity() { return 2; }
+
 	@Override
 	public Object getCurrentStorageArrayAsObject() { return getCurrentStorageArray(); }
 
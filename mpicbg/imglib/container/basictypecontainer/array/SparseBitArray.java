@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.basictypecontainer.array;
+
+import java.util.Arrays;
+
+/**
+ * A {@link BitArray} that allocates its int[] on the first write of a value that differs
+ * from the background. Reading never allocates.
+ */
+public class SparseBitArray extends BitArray implements SparseArrayDataAccess
+{
+	final protected boolean background;
+
+	public SparseBitArray( final int numEntities, final boolean background )
+	{
+		super( numEntities, null );
+		this.background = background;
+	}
+
+	public boolean getBackground() { return background; }
+
+	protected int getNumElements()
+	{
+		if ( numEntities % bitsPerEntity == 0 )
+			return numEntities / bitsPerEntity;
+		else
+			return numEntities / bitsPerEntity + 1;
+	}
+
+	/**
+	 * @return - an array that holds only background bits
+	 */
+	protected int[] createBackgroundArray()
+	{
+		final int[] array = new int[ getNumElements() ];
+
+		if ( background )
+			Arrays.fill( array, 0xffffffff );
+		
+		return array;
+	}
+
+	/**
+	 * @return - the storage array, it is allocated and filled with the background if it is empty
+	 */
+	@Override
+	public synchronized int[] allocate()
+	{
+		if ( data == null )
+			data = createBackgroundArray();
+		
+		return data;
+	}
+
+	@Override
+	public boolean getValue( final int index )
+	{
+		final int[] array = data;
+		
+		if ( array == null )
+			return background;
+		else
+			return ( array[ index / bitsPerEntity ] & ( 1 << ( index % bitsPerEntity ) ) ) != 0;
+	}
+
+	@Override
+	public void setValue( final int index, final boolean value )
+	{
+		int[] array = data;
+		
+		if ( array == null )
+		{
+			if ( value == background )
+				return;
+
+			array = allocate();
+		}
+
+		final int arrayIndex = index / bitsPerEntity;
+		final int arrayOffset = index % bitsPerEntity;
+		
+		if ( value )
+			array[ arrayIndex ] |= 1 << arrayOffset;
+		else
+			array[ arrayIndex ] &= ~( 1 << arrayOffset ); 
+	}
+
+	protected int getBackgroundBits( final int numBits )
+	{
+		return background ? ( numBits == bitsPerEntity ? 0xffffffff : ( 1 << numBits ) - 1 ) : 0;
+	}
+	
+	@Override
+	public int getBits( final int index, final int numBits )
+	{
+		final int[] array = data;
+		
+		if ( array == null )
+			return getBackgroundBits( numBits );
+		else
+			return getBits( array, index, numBits );
+	}
+
+	@Override
+	public void setBits( final int index, final int numBits, final int value )
+	{
+		int[] array = data;
+		
+		if ( array == null )
+		{
+			if ( getBackgroundBits( numBits ) == ( numBits == bitsPerEntity ? value : value & ( ( 1 << numBits ) - 1 ) ) )
+				return;
+
+			array = allocate();
+		}
+
+		setBits( array, index, numBits, value );
+	}
+	
+	@Override
+	public void getBits( final int index, final int numBits, final short[] dst, final int dstOffset, final int length )
+	{
+		final int[] array = data;
+		
+		if ( array == null )
+			Arrays.fill( dst, dstOffset, dstOffset + length, (short)getBackgroundBits( numBits ) );
+		else
+			getBits( array, index, numBits, dst, dstOffset, length );
+	}
+
+	@Override
+	public boolean isAllocated() { return data != null; }
+
+	@Override
+	public synchronized boolean releaseIfBackground()
+	{
+		final int[] array = data;
+		
+		if ( array != null )
+		{
+			// the unused bits of the last element are never written, they keep the background
+			final int backgroundElement = background ? 0xffffffff : 0;
+
+			for ( final int element : array )
+				if ( element != backgroundElement )
+					return false;
+
+			data = null;
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return - the storage array or null if all bits are background, use {@link #allocate()} to write into it
+	 */
+	@Override
+	public int[] getCurrentStorageArray() { return data; }
+
+	/**
+	 * An empty array is read as a temporary array of background bits
+	 */
+	@Override
+	protected int[] getReadableStorageArray()
+	{
+		final int[] array = data;
+		return array == null ? createBackgroundArray() : array;
+	}
+
+	@Override
+	protected int[] getWritableStorageArray() { return allocate(); }
+
+	@Override
+	public void fill( final boolean value )
+	{
+		if ( data == null && value == background )
+			return;
+		
+		super.fill( value );
+	}
+
+	@Override
+	public int cardinality()
+	{
+		final int[] array = data;
+		
+		if ( array == null )
+			return background ? numEntities : 0;
+		else
+			return cardinality( array, numEntities );
+	}
+
+	@Override
+	public int nextSetBit( final int fromIndex )
+	{
+		final int[] array = data;
+		
+		if ( array == null )
+			return background && fromIndex < numEntities ? fromIndex : -1;
+		else
+			return nextSetBit( array, numEntities, fromIndex );
+	}
+
+	@Override
+	public SparseBitArray createArray( final int numEntities ) { return new SparseBitArray( numEntities, background ); }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.basictypecontainer.array;
+
+import java.util.Arrays;
+
+/**
+ * A {@link CharArray} that allocates its char[] on the first write of a value that differs
+ * from the background. Reading never allocates.
+ */
+public class SparseCharArray extends CharArray implements SparseArrayDataAccess
+{
+	final protected int numEntities;
+	final protected char background;
+
+	public SparseCharArray( final int numEntities, final char background )
+	{
+		super( null );
+		this.numEntities = numEntities;
+		this.background = background;
+	}
+
+	public char getBackground() { return background; }
+
+	/**
+	 * @return - the storage array, it is allocated and filled with the background if it is empty
+	 */
+	@Override
+	public synchronized char[] allocate()
+	{
+		if ( data == null )
+		{
+			final char[] array = new char[ numEntities ];
+			if ( background != 0 )
+				Arrays.fill( array, background );
+			data = array;
+		}
+		
+		return data;
+	}
+
+	@Override
+	public char getValue( final int index )
+	{
+		final char[] array = data;
+		return array == null ? background : array[ index ];
+	}
+
+	@Override
+	public void setValue( final int index, final char value )
+	{
+		char[] array = data;
+		
+		if ( array == null )
+		{
+			if ( value == background )
+				return;
+
+			array = allocate();
+		}
+
+		array[ index ] = value;
+	}
+
+	@Override
+	public boolean isAllocated() { return data != null; }
+
+	@Override
+	public synchronized boolean releaseIfBackground()
+	{
+		final char[] array = data;
+		
+		if ( array != null )
+		{
+			for ( final char value : array )
+				if ( value != background )
+					return false;
+
+			data = null;
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return - the storage array or null if all entities are background, use {@link #allocate()} to write into it
+	 */
+	@Override
+	public char[] getCurrentStorageArray() { return data; }
+
+	@Override
+	public void getValues( final int offset, final Object dst, final int dstOffset, final int length )
+	{
+		final char[] array = data;
+		
+		if ( array == null )
+			Arrays.fill( (char[])dst, dstOffset, dstOffset + length, background );
+		else
+			System.arraycopy( array, offset, dst, dstOffset, length );
+	}
+
+	@Override
+	public void setValues( final int offset, final Object src, final int srcOffset, final int length )
+	{
+		System.arraycopy( src, srcOffset, allocate(), offset, length );
+	}
+
+	@Override
+	public SparseCharArray createArray( final int numEntities ) { return new SparseCharArray( numEntities, background ); }
+}
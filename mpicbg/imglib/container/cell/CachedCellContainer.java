@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.cell;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import mpicbg.imglib.container.ContainerFactory;
+import mpicbg.imglib.container.basictypecontainer.array.ArrayDataAccess;
+import mpicbg.imglib.cursor.Cursor;
+import mpicbg.imglib.type.Type;
+
+/**
+ * A {@link CellContainer} that keeps only a working set of {@link Cell}s in memory. The data of a cell
+ * is loaded from a {@link CellStore} when a {@link Cursor} enters it, once the size of the working set exceeds 
+ * the memory budget the least recently used cells are written back to the {@link CellStore} and evicted.
+ * 
+ * A cell is never evicted while a {@link Cursor} is located in it, so the memory budget can be exceeded if there
+ * are more active cursors than cells fitting into the budget. The {@link ArrayDataAccess} used must expose its
+ * storage array (e.g. {@link mpicbg.imglib.container.basictypecontainer.array.FloatArray}), NIO-based arrays do not.
+ */
+public class CachedCellContainer<T extends Type<T>, A extends ArrayDataAccess<A>> extends CellContainer<T, A>
+{
+	final protected A creator;
+	final protected CellStore store;
+	final protected long memoryBudget;
+	
+	// the cells in memory, ordered from least to most recently used
+	final protected LinkedHashMap<Integer, A> cache;
+	
+	// the cell each cursor (or other user of getCellData()) is currently located in
+	final protected WeakHashMap<Object, Integer> cursorCells;
+	
+	protected boolean writeBack = true;
+	protected long cachedBytes = 0;
+	protected long numHits = 0, numMisses = 0, numEvictions = 0;
+	
+	public CachedCellContainer( final ContainerFactory factory, final A creator, final CellStore store, final long memoryBudget, final int[] dim, final int[] cellSize, final int entitiesPerPixel )
+	{
+		super( factory, dim, cellSize, entitiesPerPixel );
+		
+		this.creator = creator;
+		this.store = store;
+		this.memoryBudget = memoryBudget;
+		this.cache = new LinkedHashMap<Integer, A>( 16, 0.75f, true );
+		this.cursorCells = new WeakHashMap<Object, Integer>();
+		
+		createCells( creator );
+	}
+	
+	@Override
+	public Cell<T, A> createCellInstance( final A creator, final int cellId, final int[] dim, final int offset[], final int entitiesPerPixel )
+	{
+		// the data is held by the cache
+		return new Cell<T,A>( cellId, dim, offset, entitiesPerPixel, null );
+	}
+
+	@Override
+	public A update( final Cursor<?> c ) { return getCellData( c.getStorageIndex(), c ); }
+
+	@Override
+	public synchronized A getCellData( final int cellId, final Object user ) 
+	{
+		cursorCells.put( user, cellId );
+		
+		A access = cache.get( cellId );
+
+		if ( access != null )
+		{
+			++numHits;
+			return access;
+		}
+		
+		++numMisses;
+		
+		access = creator.createArray( getCell( cellId ).getNumEntities() );
+		
+		try
+		{
+			store.read( cellId, access.getCurrentStorageArrayAsObject() );
+		}
+		catch ( IOException e )
+		{
+			throw new RuntimeException( "CachedCellContainer.getCellData(): cannot read cell " + cellId + ": " + e );
+		}
+		
+		cache.put( cellId, access );
+		cachedBytes += FileCellStore.getNumBytes( access.getCurrentStorageArrayAsObject() );
+		
+		evict();
+		
+		return access;
+	}
+	
+	@Override
+	public synchronized void releaseCellData( final Object user ) { cursorCells.remove( user ); }
+
+	/**
+	 * Writes back and removes least recently used cells until the working set fits into the memory budget
+	 */
+	protected void evict()
+	{
+		if ( cachedBytes <= memoryBudget )
+			return;
+		
+		final HashSet<Integer> usedCells = new HashSet<Integer>( cursorCells.values() );
+		final Iterator<Map.Entry<Integer, A>> i = cache.entrySet().iterator();
+		
+		while ( cachedBytes > memoryBudget && i.hasNext() )
+		{
+			final Map.Entry<Integer, A> entry = i.next();
+			
+			if ( usedCells.contains( entry.getKey() ) )
+				continue;
+			
+			final Object storageArray = entry.getValue().getCurrentStorageArrayAsObject();
+			
+			if ( writeBack )
+			{
+				try
+				{
+					store.write( entry.getKey(), storageArray );
+				}
+				catch ( IOException e )
+				{
+					throw new RuntimeException( "CachedCellContainer.evict(): cannot write cell " + entry.getKey() + ": " + e );
+				}
+			}
+			
+			cachedBytes -= FileCellStore.getNumBytes( storageArray );
+			++numEvictions;
+			
+			i.remove();
+		}
+	}
+	
+	/**
+	 * Writes all cells of the working set to the {@link CellStore} without evicting them
+	 */
+	public synchronized void flush()
+	{
+		for ( final Map.Entry<Integer, A> entry : cache.entrySet() )
+		{
+			try
+			{
+				store.write( entry.getKey(), entry.getValue().getCurrentStorageArrayAsObject() );
+			}
+			catch ( IOException e )
+			{
+				throw new RuntimeException( "CachedCellContainer.flush(): cannot write cell " + entry.getKey() + ": " + e );
+			}
+		}
+	}
+	
+	/**
+	 * @param writeBack - if false evicted cells are discarded instead of written to the {@link CellStore}, 
+	 * which saves the I/O if the image is only read
+	 */
+	public synchronized void setWriteBack( final boolean writeBack ) { this.writeBack = writeBack; }
+	public synchronized boolean getWriteBack() { return writeBack; }
+	
+	public CellStore getCellStore() { return store; }
+	public long getMemoryBudget() { return memoryBudget; }
+	public synchronized long getCachedBytes() { return cachedBytes; }
+	public synchronized int getNumCachedCells() { return cache.size(); }
+
+	public synchronized long getNumCacheHits() { return numHits; }
+	public synchronized long getNumCacheMisses() { return numMisses; }
+	public synchronized long getNumEvictions() { return numEvictions; }
+	
+	public synchronized void resetStatistics()
+	{
+		numHits = numMisses = numEvictions = 0;
+	}
+	
+	@Override
+	public synchronized void close()
+	{
+		cache.clear();
+		cursorCells.clear();
+		cachedBytes = 0;
+		store.close();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return super.toString() + " (cache: " + getNumCachedCells() + " cells, " + getCachedBytes() + " of " + memoryBudget + " bytes, " + 
+			getNumCacheHits() + " hits, " + getNumCacheMisses() + " misses, " + getNumEvictions() + " evictions)";
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.cell;
+
+import java.io.File;
+import java.io.IOException;
+
+import mpicbg.imglib.container.DirectAccessContainer;
+import mpicbg.imglib.container.basictypecontainer.array.ArrayDataAccess;
+import mpicbg.imglib.container.basictypecontainer.array.BitArray;
+import mpicbg.imglib.container.basictypecontainer.array.ByteArray;
+import mpicbg.imglib.container.basictypecontainer.array.CharArray;
+import mpicbg.imglib.container.basictypecontainer.array.DoubleArray;
+import mpicbg.imglib.container.basictypecontainer.array.FloatArray;
+import mpicbg.imglib.container.basictypecontainer.array.IntArray;
+import mpicbg.imglib.container.basictypecontainer.array.LongArray;
+import mpicbg.imglib.container.basictypecontainer.array.ShortArray;
+import mpicbg.imglib.type.Type;
+
+/**
+ * Creates {@link CachedCellContainer}s that keep at most memoryBudget bytes of {@link Cell} data in memory,
+ * each container spills the remaining cells to its own temporary {@link FileCellStore}.
+ */
+public class CachedCellContainerFactory extends CellContainerFactory
+{
+	protected long memoryBudget;
+	protected File tempDirectory = null;
+
+	public CachedCellContainerFactory( final long memoryBudget )
+	{
+		super();
+		this.memoryBudget = memoryBudget;
+	}
+	
+	public CachedCellContainerFactory( final int cellSize, final long memoryBudget )
+	{
+		super( cellSize );
+		this.memoryBudget = memoryBudget;
+	}
+	
+	public CachedCellContainerFactory( final int[] cellSize, final long memoryBudget )
+	{
+		super( cellSize );
+		this.memoryBudget = memoryBudget;
+	}
+	
+	public void setMemoryBudget( final long memoryBudget ) { this.memoryBudget = memoryBudget; }
+	public long getMemoryBudget() { return memoryBudget; }
+	public void setTemporaryDirectory( final File tempDirectory ) { this.tempDirectory = tempDirectory; }
+	public File getTemporaryDirectory() { return tempDirectory; }
+	
+	/**
+	 * @return - a new, empty {@link CellStore} for one container
+	 */
+	protected CellStore createCellStore()
+	{
+		try
+		{
+			return FileCellStore.createTemporaryStore( tempDirectory );
+		}
+		catch ( IOException e )
+		{
+			throw new RuntimeException( "CachedCellContainerFactory.createCellStore(): cannot create file: " + e );
+		}
+	}
+	
+	protected <T extends Type<T>, A extends ArrayDataAccess<A>> CachedCellContainer<T, A> createInstance( final A creator, int[] dimensions, final int entitiesPerPixel )
+	{
+		dimensions = checkDimensions( dimensions );
+		int[] cellSize = checkCellSize( this.cellSize, dimensions );
+		
+		return new CachedCellContainer<T, A>( this, creator, createCellStore(), memoryBudget, dimensions, cellSize, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, BitArray> createBitInstance( int[] dimensions, int entitiesPerPixel )
+	{
+		return createInstance( new BitArray( 1 ), dimensions, entitiesPerPixel );
+	}
+	
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, ByteArray> createByteInstance( int[] dimensions, int entitiesPerPixel )
+	{
+		return createInstance( new ByteArray( 1 ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, CharArray> createCharInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( new CharArray( 1 ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, DoubleArray> createDoubleInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( new DoubleArray( 1 ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, FloatArray> createFloatInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( new FloatArray( 1 ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, IntArray> createIntInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( new IntArray( 1 ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, LongArray> createLongInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( new LongArray( 1 ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, ShortArray> createShortInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( new ShortArray( 1 ), dimensions, entitiesPerPixel );
+	}
+}
@@ -44,6 +44,14 @@ public class Cell< T extends Type<T>, A extends ArrayDataAccess<A>> //extends Ar
 	final protected A data;
 	
 	public Cell( final A creator, final int cellId, final int[] dim, final int offset[], final int entitiesPerPixel)
+	{
+		this( cellId, dim, offset, entitiesPerPixel, creator.createArray( PixelGridContainerImpl.getNumEntities( dim, entitiesPerPixel ) ) );
+	}
+	
+	/**
+	 * Creates a {@link Cell} around existing data, it has to hold the number of entities defined by dim and entitiesPerPixel
+	 */
+	public Cell( final int cellId, final int[] dim, final int offset[], final int entitiesPerPixel, final A data )
 	{
 		this.offset = offset;		
 		this.cellId = cellId;
@@ -54,7 +62,7 @@ public class Cell< T extends Type<T>, A extends ArrayDataAccess<A>> //extends Ar
 		
 		step = new int[ numDimensions ];
 		
-		this.data = creator.createArray( numEntities );
+		this.data = data;
 		
 		// the steps when moving inside a cell
 		Array.createAllocationSteps( dim, step );		
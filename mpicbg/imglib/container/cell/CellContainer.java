@@ -32,6 +32,7 @@ package mpicbg.imglib.container.cell;
 import java.util.ArrayList;
 
 import mpicbg.imglib.container.ContainerFactory;
+import mpicbg.imglib.container.array.Array;
 import mpicbg.imglib.container.DirectAccessContainerImpl;
 import mpicbg.imglib.container.basictypecontainer.array.ArrayDataAccess;
 import mpicbg.imglib.cursor.Cursor;
@@ -42,6 +43,8 @@ import mpicbg.imglib.cursor.cell.CellLocalizableByDimCursor;
 import mpicbg.imglib.cursor.cell.CellLocalizableByDimOutOfBoundsCursor;
 import mpicbg.imglib.cursor.cell.CellLocalizableCursor;
 import mpicbg.imglib.cursor.cell.CellLocalizablePlaneCursor;
+import mpicbg.imglib.cursor.cell.CellSpanIterator;
+import mpicbg.imglib.cursor.cell.CellSplittableCursor;
 import mpicbg.imglib.image.Image;
 import mpicbg.imglib.outofbounds.OutOfBoundsStrategyFactory;
 import mpicbg.imglib.type.Type;
@@ -53,7 +56,27 @@ public class CellContainer<T extends Type<T>, A extends ArrayDataAccess<A>> exte
 	final protected int[] numCellsDim, cellSize;
 	final protected int numCells;
 	
+	/*
+	 * Steps between neighboring cells in each dimension of the "cell space"
+	 */
+	final protected int[] cellStep;
+	
+	/*
+	 * log2 of the cell size in each dimension, -1 if it is not a power of two
+	 */
+	final protected int[] cellSizeBits;
+	
 	public CellContainer( final ContainerFactory factory, final A creator, final int[] dim, final int[] cellSize, final int entitiesPerPixel )
+	{
+		this( factory, dim, cellSize, entitiesPerPixel );
+		createCells( creator );
+	}
+	
+	/**
+	 * Sets up the cell grid without instantiating the {@link Cell}s, subclasses have to
+	 * call {@link #createCells(ArrayDataAccess)} once they are initialized.
+	 */
+	protected CellContainer( final ContainerFactory factory, final int[] dim, final int[] cellSize, final int entitiesPerPixel )
 	{
 		super(factory, dim, entitiesPerPixel);
 		
@@ -73,8 +96,18 @@ public class CellContainer<T extends Type<T>, A extends ArrayDataAccess<A>> exte
 		}
 		numCells = tmp;
 		
-		data = createCellArray( numCells );
+		cellStep = new int[ getNumDimensions() ];
+		Array.createAllocationSteps( numCellsDim, cellStep );
+		
+		cellSizeBits = new int[ getNumDimensions() ];
+		for ( int d = 0; d < getNumDimensions(); d++ )
+			cellSizeBits[ d ] = Integer.bitCount( cellSize[ d ] ) == 1 ? Integer.numberOfTrailingZeros( cellSize[ d ] ) : -1;
 		
+		data = createCellArray( numCells );
+	}
+	
+	protected void createCells( final A creator )
+	{
 		// Here we "misuse" an ArrayLocalizableCursor to iterate over cells,
 		// it always gives us the location of the current cell we are instantiating.
 		final ArrayLocalizableCursor<FakeType> cursor = ArrayLocalizableCursor.createLinearCursor( numCellsDim ); 
@@ -106,6 +139,30 @@ public class CellContainer<T extends Type<T>, A extends ArrayDataAccess<A>> exte
 	@Override
 	public A update( final Cursor<?> c ) { return data.get( c.getStorageIndex() ).getData(); }
 	
+	/**
+	 * Returns the data of a cell for code that does not iterate with a {@link Cursor}.
+	 * 
+	 * @param cellId - the index of the cell
+	 * @param user - the object working on the data, containers that load cells on demand keep
+	 * the cell in memory until the user moves to another cell or calls {@link #releaseCellData(Object)}
+	 * @return - the {@link ArrayDataAccess} of the cell
+	 */
+	public A getCellData( final int cellId, final Object user ) { return data.get( cellId ).getData(); }
+	
+	/**
+	 * Tells the container that the user does not work on a cell anymore.
+	 */
+	public void releaseCellData( final Object user ) {}
+	
+	@Override
+	public CellSpanIterator<A> createSpanIterator() { return new CellSpanIterator<A>( this ); }
+	
+	@Override
+	public CellSplittableCursor<T> createSplittableCursor( final Image<T> image ) 
+	{
+		return new CellSplittableCursor<T>( this, image, linkedType.duplicateTypeOnSameDirectAccessContainer() );
+	}
+	
 	public ArrayList<Cell<T, A>> createCellArray( final int numCells ) { return new ArrayList<Cell<T, A>>( numCells ); }	
 	
 	public Cell<T, A> createCellInstance( final A creator, final int cellId, final int[] dim, final int offset[], final int entitiesPerPixel )
@@ -114,6 +171,20 @@ public class CellContainer<T extends Type<T>, A extends ArrayDataAccess<A>> exte
 	}
 
 	public Cell<T, A> getCell( final int cellId ) { return data.get( cellId ); }
+	
+	/**
+	 * Computes the index of a cell from its location in the "cell space".
+	 */
+	public int getCellIndex( final int[] cellPos )
+	{
+		int cellId = cellPos[ 0 ];
+		
+		for ( int d = 1; d < numDimensions; d++ )
+			cellId += cellPos[ d ] * cellStep[ d ];
+		
+		return cellId;
+	}
+	
 	public int getCellIndex( final ArrayLocalizableByDimCursor<FakeType> cursor, final int[] cellPos )
 	{
 		cursor.setPosition( cellPos );
@@ -131,8 +202,7 @@ public class CellContainer<T extends Type<T>, A extends ArrayDataAccess<A>> exte
 	{
 		final int[] cellPos = new int[ position.length ];
 		
-		for ( int d = 0; d < numDimensions; d++ )
-			cellPos[ d ] = position[ d ] / cellSize[ d ];
+		getCellPosition( position, cellPos );
 		
 		return cellPos;
 	}
@@ -140,10 +210,22 @@ public class CellContainer<T extends Type<T>, A extends ArrayDataAccess<A>> exte
 	public void getCellPosition( final int[] position, final int[] cellPos )
 	{
 		for ( int d = 0; d < numDimensions; d++ )
-			cellPos[ d ] = position[ d ] / cellSize[ d ];
+			cellPos[ d ] = getCellPosition( position[ d ], d );
 	}
 
-	public int getCellPosition( final int position, final int dim ) { return position / cellSize[ dim ]; }
+	/**
+	 * Returns the cell position for a position inside the image, cell sizes that are
+	 * powers of two are resolved by a shift instead of a division.
+	 */
+	public int getCellPosition( final int position, final int dim ) 
+	{
+		final int bits = cellSizeBits[ dim ];
+		
+		if ( bits >= 0 )
+			return position >> bits;
+		else
+			return position / cellSize[ dim ];
+	}
 	
 	public int getCellIndexFromImageCoordinates( final ArrayLocalizableByDimCursor<FakeType> cursor, final int[] position )
 	{		
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.cell;
+
+import java.io.IOException;
+
+/**
+ * A backing store for the data of {@link Cell}s that are not kept in memory by a {@link CachedCellContainer}.
+ * The data is exchanged as the primitive storage array of an 
+ * {@link mpicbg.imglib.container.basictypecontainer.array.ArrayDataAccess} (e.g. float[], int[]).
+ */
+public interface CellStore
+{
+	/**
+	 * Reads the data of a cell into the given storage array.
+	 * 
+	 * @param cellId - the id of the cell
+	 * @param storageArray - the primitive array to fill
+	 * @return - false if the cell has never been written, the array is not touched in this case
+	 * @throws IOException
+	 */
+	public boolean read( int cellId, Object storageArray ) throws IOException;
+
+	/**
+	 * Writes the data of a cell.
+	 * 
+	 * @param cellId - the id of the cell
+	 * @param storageArray - the primitive array holding the data
+	 * @throws IOException
+	 */
+	public void write( int cellId, Object storageArray ) throws IOException;
+	
+	/**
+	 * @return - the number of bytes the store currently occupies
+	 */
+	public long getNumBytes();
+	
+	public void close();
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.cell;
+
+import java.util.zip.Deflater;
+
+/**
+ * Creates {@link CachedCellContainer}s that keep at most memoryBudget bytes of decompressed hot {@link Cell}s,
+ * all other {@link Cell}s are deflate-compressed in memory by a {@link CompressedCellStore} when they are evicted.
+ * Algorithms going through {@link mpicbg.imglib.cursor.cell.CellCursor}s see no difference.
+ */
+public class CompressedCellContainerFactory extends CachedCellContainerFactory
+{
+	protected int compressionLevel = Deflater.BEST_SPEED;
+	
+	public CompressedCellContainerFactory( final long memoryBudget )
+	{
+		super( memoryBudget );
+	}
+	
+	public CompressedCellContainerFactory( final int cellSize, final long memoryBudget )
+	{
+		super( cellSize, memoryBudget );
+	}
+	
+	public CompressedCellContainerFactory( final int[] cellSize, final long memoryBudget )
+	{
+		super( cellSize, memoryBudget );
+	}
+	
+	/**
+	 * @param compressionLevel - from {@link Deflater#BEST_SPEED} (default) to {@link Deflater#BEST_COMPRESSION}
+	 */
+	public void setCompressionLevel( final int compressionLevel ) { this.compressionLevel = compressionLevel; }
+	public int getCompressionLevel() { return compressionLevel; }
+	
+	@Override
+	protected CellStore createCellStore()
+	{
+		return new CompressedCellStore( compressionLevel );
+	}
+}
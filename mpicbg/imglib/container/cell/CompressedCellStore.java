@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.cell;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A {@link CellStore} that keeps each {@link Cell} deflate-compressed in memory.
+ * Images with large dark or constant regions typically shrink by a factor of 3-10.
+ */
+public class CompressedCellStore implements CellStore
+{
+	// the compressed data of each cell, null if it has not been written yet
+	protected byte[][] cells = new byte[ 0 ][];
+	protected long numBytes = 0, numUncompressedBytes = 0;
+	
+	final protected Deflater deflater;
+	final protected Inflater inflater;
+	
+	// reused for the transfer between the storage arrays and the codec
+	protected ByteBuffer buffer = ByteBuffer.allocate( 0 );
+	protected byte[] compressed = new byte[ 0 ];
+
+	/**
+	 * @param compressionLevel - the deflate level from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+	 */
+	public CompressedCellStore( final int compressionLevel )
+	{
+		this.deflater = new Deflater( compressionLevel );
+		this.inflater = new Inflater();
+	}
+	
+	public CompressedCellStore()
+	{
+		this( Deflater.BEST_SPEED );
+	}
+	
+	@Override
+	public synchronized boolean read( final int cellId, final Object storageArray ) throws IOException
+	{
+		if ( cellId >= cells.length || cells[ cellId ] == null )
+			return false;
+		
+		final int length = FileCellStore.getNumBytes( storageArray );
+		final ByteBuffer bytes = getBuffer( length );
+		final byte[] array = bytes.array();
+		
+		inflater.reset();
+		inflater.setInput( cells[ cellId ] );
+		
+		try
+		{
+			int offset = 0;
+			while ( offset < length )
+			{
+				final int n = inflater.inflate( array, offset, length - offset );
+				
+				if ( n == 0 && ( inflater.finished() || inflater.needsInput() ) )
+					throw new IOException( "CompressedCellStore.read(): cell " + cellId + " has " + offset + " instead of " + length + " bytes." );
+				
+				offset += n;
+			}
+		}
+		catch ( DataFormatException e )
+		{
+			throw new IOException( "CompressedCellStore.read(): cell " + cellId + " is corrupt: " + e );
+		}
+		
+		FileCellStore.fromBytes( bytes, storageArray );
+		
+		return true;
+	}
+
+	@Override
+	public synchronized void write( final int cellId, final Object storageArray ) throws IOException
+	{
+		final int length = FileCellStore.getNumBytes( storageArray );
+		final ByteBuffer bytes = getBuffer( length );
+		FileCellStore.toBytes( storageArray, bytes );
+		
+		deflater.reset();
+		deflater.setInput( bytes.array(), 0, length );
+		deflater.finish();
+		
+		int compressedLength = 0;
+		while ( !deflater.finished() )
+		{
+			if ( compressedLength == compressed.length )
+				compressed = Arrays.copyOf( compressed, Math.max( 1024, compressed.length * 2 ) );
+			
+			compressedLength += deflater.deflate( compressed, compressedLength, compressed.length - compressedLength );
+		}
+		
+		if ( cellId >= cells.length )
+			cells = Arrays.copyOf( cells, Math.max( cellId + 1, cells.length * 2 ) );
+		
+		if ( cells[ cellId ] == null )
+		{
+			numUncompressedBytes += length;
+		}
+		else
+		{
+			numBytes -= cells[ cellId ].length;
+		}
+		
+		cells[ cellId ] = Arrays.copyOf( compressed, compressedLength );
+		numBytes += compressedLength;
+	}
+	
+	@Override
+	public synchronized long getNumBytes() { return numBytes; }
+	
+	/**
+	 * @return - the number of bytes the stored cells occupy when decompressed
+	 */
+	public synchronized long getNumUncompressedBytes() { return numUncompressedBytes; }
+	
+	/**
+	 * @return - uncompressed size divided by compressed size of the stored cells
+	 */
+	public synchronized double getCompressionRatio() { return numBytes == 0 ? 1 : (double)numUncompressedBytes / numBytes; }
+	
+	@Override
+	public synchronized void close()
+	{
+		cells = new byte[ 0 ][];
+		numBytes = numUncompressedBytes = 0;
+		buffer = ByteBuffer.allocate( 0 );
+		compressed = new byte[ 0 ];
+		
+		deflater.end();
+		inflater.end();
+	}
+	
+	protected ByteBuffer getBuffer( final int numBytes )
+	{
+		if ( buffer.capacity() < numBytes )
+			buffer = ByteBuffer.allocate( numBytes ).order( ByteOrder.nativeOrder() );
+		
+		buffer.clear();
+		buffer.limit( numBytes );
+		
+		return buffer;
+	}
+	
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + " (" + getNumBytes() + " of " + getNumUncompressedBytes() + " bytes, ratio " + String.format( "%.2f", getCompressionRatio() ) + ")";
+	}
+}
@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.cell;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A {@link CellStore} that writes each {@link Cell} to its own region of a file, the regions
+ * are assigned in the order the cells are written for the first time.
+ */
+public class FileCellStore implements CellStore
+{
+	final protected File file;
+	final protected boolean temporary;
+	final protected RandomAccessFile raf;
+	final protected FileChannel channel;
+	
+	// the position of each cell in the file, -1 if it has not been written yet
+	protected long[] positions = new long[ 0 ];
+	protected long fileSize = 0;
+	
+	// reused for the transfer between the storage arrays and the file
+	protected ByteBuffer buffer = ByteBuffer.allocateDirect( 0 );
+
+	public FileCellStore( final File file ) throws IOException
+	{
+		this( file, false );
+	}
+	
+	protected FileCellStore( final File file, final boolean temporary ) throws IOException
+	{
+		this.file = file;
+		this.temporary = temporary;
+		this.raf = new RandomAccessFile( file, "rw" );
+		this.channel = raf.getChannel();
+	}
+
+	/**
+	 * Creates a {@link FileCellStore} on a new file that is deleted on {@link #close()} or when the virtual machine exits.
+	 * 
+	 * @param directory - where to create the file, null means the default temporary-file directory
+	 * @return - the {@link FileCellStore}
+	 * @throws IOException
+	 */
+	public static FileCellStore createTemporaryStore( final File directory ) throws IOException
+	{
+		final File file = File.createTempFile( "imglib", ".cells", directory );
+		file.deleteOnExit();
+		
+		return new FileCellStore( file, true );
+	}
+	
+	@Override
+	public synchronized boolean read( final int cellId, final Object storageArray ) throws IOException
+	{
+		if ( cellId >= positions.length || positions[ cellId ] < 0 )
+			return false;
+		
+		long position = positions[ cellId ];
+		
+		final ByteBuffer bytes = getBuffer( getNumBytes( storageArray ) );
+		
+		while ( bytes.hasRemaining() )
+		{
+			final int n = channel.read( bytes, position );
+			
+			if ( n < 0 )
+				throw new IOException( "FileCellStore.read(): unexpected end of file '" + file + "' reading cell " + cellId );
+			
+			position += n;
+		}
+		
+		bytes.flip();
+		fromBytes( bytes, storageArray );
+		
+		return true;
+	}
+
+	@Override
+	public synchronized void write( final int cellId, final Object storageArray ) throws IOException
+	{
+		final int numBytes = getNumBytes( storageArray );
+		
+		if ( cellId >= positions.length )
+		{
+			final int oldLength = positions.length;
+			positions = Arrays.copyOf( positions, Math.max( cellId + 1, oldLength * 2 ) );
+			Arrays.fill( positions, oldLength, positions.length, -1 );
+		}
+		
+		if ( positions[ cellId ] < 0 )
+		{
+			positions[ cellId ] = fileSize;
+			fileSize += numBytes;
+		}
+		
+		final ByteBuffer bytes = getBuffer( numBytes );
+		toBytes( storageArray, bytes );
+		
+		long position = positions[ cellId ];
+		while ( bytes.hasRemaining() )
+			position += channel.write( bytes, position );
+	}
+	
+	@Override
+	public synchronized long getNumBytes() { return fileSize; }
+	
+	@Override
+	public synchronized void close()
+	{
+		try
+		{
+			channel.close();
+			raf.close();
+		}
+		catch ( IOException e )
+		{
+			System.err.println( "FileCellStore.close(): cannot close file '" + file + "': " + e );
+		}
+		
+		if ( temporary )
+			file.delete();
+	}
+	
+	public File getFile() { return file; }
+	
+	protected ByteBuffer getBuffer( final int numBytes )
+	{
+		if ( buffer.capacity() < numBytes )
+			buffer = ByteBuffer.allocateDirect( numBytes ).order( ByteOrder.nativeOrder() );
+		
+		buffer.clear();
+		buffer.limit( numBytes );
+		
+		return buffer;
+	}
+
+	/**
+	 * @param storageArray - a primitive array
+	 * @return - the number of bytes needed to store it
+	 */
+	public static int getNumBytes( final Object storageArray )
+	{
+		if ( storageArray instanceof byte[] )
+			return ((byte[])storageArray).length;
+		else if ( storageArray instanceof short[] )
+			return ((short[])storageArray).length * 2;
+		else if ( storageArray instanceof char[] )
+			return ((char[])storageArray).length * 2;
+		else if ( storageArray instanceof int[] )
+			return ((int[])storageArray).length * 4;
+		else if ( storageArray instanceof float[] )
+			return ((float[])storageArray).length * 4;
+		else if ( storageArray instanceof long[] )
+			return ((long[])storageArray).length * 8;
+		else if ( storageArray instanceof double[] )
+			return ((double[])storageArray).length * 8;
+		else
+			throw new IllegalArgumentException( "Unsupported storage array: " + storageArray );
+	}
+
+	/**
+	 * Copies a primitive array into the bytes between position and limit of the buffer, 
+	 * position and limit are not changed.
+	 */
+	public static void toBytes( final Object storageArray, final ByteBuffer bytes )
+	{
+		if ( storageArray instanceof byte[] )
+			bytes.duplicate().put( (byte[])storageArray );
+		else if ( storageArray instanceof short[] )
+			bytes.asShortBuffer().put( (short[])storageArray );
+		else if ( storageArray instanceof char[] )
+			bytes.asCharBuffer().put( (char[])storageArray );
+		else if ( storageArray instanceof int[] )
+			bytes.asIntBuffer().put( (int[])storageArray );
+		else if ( storageArray instanceof float[] )
+			bytes.asFloatBuffer().put( (float[])storageArray );
+		else if ( storageArray instanceof long[] )
+			bytes.asLongBuffer().put( (long[])storageArray );
+		else if ( storageArray instanceof double[] )
+			bytes.asDoubleBuffer().put( (double[])storageArray );
+		else
+			throw new IllegalArgumentException( "Unsupported storage array: " + storageArray );
+	}
+
+	/**
+	 * Copies the bytes between position and limit of the buffer into a primitive array, 
+	 * position and limit are not changed.
+	 */
+	public static void fromBytes( final ByteBuffer bytes, final Object storageArray )
+	{
+		if ( storageArray instanceof byte[] )
+			bytes.duplicate().get( (byte[])storageArray );
+		else if ( storageArray instanceof short[] )
+			bytes.asShortBuffer().get( (short[])storageArray );
+		else if ( storageArray instanceof char[] )
+			bytes.asCharBuffer().get( (char[])storageArray );
+		else if ( storageArray instanceof int[] )
+			bytes.asIntBuffer().get( (int[])storageArray );
+		else if ( storageArray instanceof float[] )
+			bytes.asFloatBuffer().get( (float[])storageArray );
+		else if ( storageArray instanceof long[] )
+			bytes.asLongBuffer().get( (long[])storageArray );
+		else if ( storageArray instanceof double[] )
+			bytes.asDoubleBuffer().get( (double[])storageArray );
+		else
+			throw new IllegalArgumentException( "Unsupported storage array: " + storageArray );
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.cell;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import mpicbg.imglib.container.ContainerFactory;
+import mpicbg.imglib.container.PixelGridContainerImpl;
+import mpicbg.imglib.container.basictypecontainer.array.MappedFile;
+import mpicbg.imglib.container.basictypecontainer.array.NIOArrayDataAccess;
+import mpicbg.imglib.type.Type;
+
+/**
+ * A {@link CellContainer} where each {@link Cell} is a {@link java.nio.MappedByteBuffer} over one region of a file.
+ * The regions are stored one after the other in the order of the cell ids, so for cells that span
+ * complete planes (e.g. a cell size of width x height x 1) the layout is identical to a plain raw stack.
+ */
+public class MappedCellContainer<T extends Type<T>, A extends NIOArrayDataAccess<A>> extends CellContainer<T, A>
+{
+	final protected MappedFile file;
+	final protected long fileOffset;
+	
+	// the position in the file where the next cell is mapped
+	protected long position;
+	
+	public MappedCellContainer( final ContainerFactory factory, final A creator, final MappedFile file, final long fileOffset, final int[] dim, final int[] cellSize, final int entitiesPerPixel )
+	{
+		super( factory, dim, cellSize, entitiesPerPixel );
+		
+		this.file = file;
+		this.fileOffset = fileOffset;
+		this.position = fileOffset;
+		
+		// the mappings stay valid without the file handle, so it is closed as soon as all regions are mapped
+		boolean mapped = false;
+		try
+		{
+			createCells( creator );
+			mapped = true;
+		}
+		finally
+		{
+			if ( !mapped )
+				file.closeAfterFailure();
+		}
+		
+		try
+		{
+			file.close();
+		}
+		catch ( IOException e )
+		{
+			throw new RuntimeException( "MappedCellContainer(): cannot close file '" + file.getFile() + "': " + e );
+		}
+	}
+
+	@Override
+	public Cell<T, A> createCellInstance( final A creator, final int cellId, final int[] dim, final int offset[], final int entitiesPerPixel )
+	{
+		final long numBytes = (long)PixelGridContainerImpl.getNumEntities( dim, entitiesPerPixel ) * creator.getNumBytesPerEntity();
+		final ByteBuffer bytes;
+		
+		try
+		{
+			bytes = file.map( position, numBytes );
+		}
+		catch ( IOException e )
+		{
+			throw new RuntimeException( "MappedCellContainer.createCellInstance(): cannot map cell " + cellId + " of file '" + file.getFile() + "': " + e );
+		}
+		
+		position += numBytes;
+		
+		return new Cell<T,A>( cellId, dim, offset, entitiesPerPixel, creator.createArray( bytes ) );
+	}
+	
+	public MappedFile getMappedFile() { return file; }
+	public long getFileOffset() { return fileOffset; }
+}
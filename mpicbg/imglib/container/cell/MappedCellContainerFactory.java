@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.cell;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+import mpicbg.imglib.container.DirectAccessContainer;
+import mpicbg.imglib.container.basictypecontainer.BitAccess;
+import mpicbg.imglib.container.basictypecontainer.array.MappedFile;
+import mpicbg.imglib.container.basictypecontainer.array.NIOArrayDataAccess;
+import mpicbg.imglib.container.basictypecontainer.array.NIOByteArray;
+import mpicbg.imglib.container.basictypecontainer.array.NIOCharArray;
+import mpicbg.imglib.container.basictypecontainer.array.NIODoubleArray;
+import mpicbg.imglib.container.basictypecontainer.array.NIOFloatArray;
+import mpicbg.imglib.container.basictypecontainer.array.NIOIntArray;
+import mpicbg.imglib.container.basictypecontainer.array.NIOLongArray;
+import mpicbg.imglib.container.basictypecontainer.array.NIOShortArray;
+import mpicbg.imglib.type.Type;
+
+/**
+ * Creates {@link MappedCellContainer}s, each {@link Cell} is mapped to its own region of a file so the 
+ * images can be much larger than the RAM and the 2^31-1 bytes a single mapping can hold.
+ * The first container maps the given file (starting at the file offset, e.g. behind a header), all 
+ * further containers, e.g. the ones created by {@link mpicbg.imglib.image.Image#createNewImage()}, 
+ * map temporary files in the same directory.
+ */
+public class MappedCellContainerFactory extends CellContainerFactory
+{
+	protected File file, tempDirectory;
+	protected long fileOffset = 0;
+	protected ByteOrder byteOrder = ByteOrder.nativeOrder();
+	protected boolean readOnly = false;
+	protected boolean fileInUse = false;
+
+	/**
+	 * All containers are mapped to temporary files in the default temporary-file directory
+	 */
+	public MappedCellContainerFactory( final int[] cellSize )
+	{
+		super( cellSize );
+	}
+
+	/**
+	 * The first container is mapped to the given file, all other containers to temporary files next to it
+	 * 
+	 * @param file - the file to map, it is created or extended if necessary
+	 * @param cellSize - the size of the cells
+	 */
+	public MappedCellContainerFactory( final File file, final int[] cellSize )
+	{
+		super( cellSize );
+		
+		this.file = file;
+		this.tempDirectory = file.getAbsoluteFile().getParentFile();
+	}
+
+	public MappedCellContainerFactory( final File file, final int cellSize )
+	{
+		super( cellSize );
+		
+		this.file = file;
+		this.tempDirectory = file.getAbsoluteFile().getParentFile();
+	}
+
+	public void setFileOffset( final long fileOffset ) { this.fileOffset = fileOffset; }
+	public long getFileOffset() { return fileOffset; }
+	public void setByteOrder( final ByteOrder byteOrder ) { this.byteOrder = byteOrder; }
+	public ByteOrder getByteOrder() { return byteOrder; }
+	public void setReadOnly( final boolean readOnly ) { this.readOnly = readOnly; }
+	public boolean isReadOnly() { return readOnly; }
+	public void setTemporaryDirectory( final File tempDirectory ) { this.tempDirectory = tempDirectory; }
+	public File getTemporaryDirectory() { return tempDirectory; }
+
+	protected <T extends Type<T>, A extends NIOArrayDataAccess<A>> MappedCellContainer<T, A> createInstance( final A creator, int[] dimensions, final int entitiesPerPixel )
+	{
+		dimensions = checkDimensions( dimensions );
+		int[] cellSize = checkCellSize( this.cellSize, dimensions );
+
+		try
+		{
+			synchronized ( this )
+			{
+				if ( file != null && !fileInUse )
+				{
+					fileInUse = true;
+					return new MappedCellContainer<T, A>( this, creator, new MappedFile( file, readOnly, byteOrder ), fileOffset, dimensions, cellSize, entitiesPerPixel );
+				}
+			}
+			
+			return new MappedCellContainer<T, A>( this, creator, MappedFile.createTemporaryFile( tempDirectory, byteOrder ), 0, dimensions, cellSize, entitiesPerPixel );
+		}
+		catch ( IOException e )
+		{
+			throw new RuntimeException( "MappedCellContainerFactory.createInstance(): cannot open file: " + e );
+		}
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, ? extends BitAccess> createBitInstance( int[] dimensions, int entitiesPerPixel )
+	{
+		throw new IllegalStateException("Cannot create memory-mapped bit arrays");
+	}
+	
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, NIOByteArray> createByteInstance( int[] dimensions, int entitiesPerPixel )
+	{
+		return createInstance( new NIOByteArray( 0 ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, NIOCharArray> createCharInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( new NIOCharArray( 0 ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, NIODoubleArray> createDoubleInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( new NIODoubleArray( 0 ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, NIOFloatArray> createFloatInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( new NIOFloatArray( 0 ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, NIOIntArray> createIntInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( new NIOIntArray( 0 ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, NIOLongArray> createLongInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( new NIOLongArray( 0 ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, NIOShortArray> createShortInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( new NIOShortArray( 0 ), dimensions, entitiesPerPixel );
+	}
+}
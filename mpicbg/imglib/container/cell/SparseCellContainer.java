@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.cell;
+
+import mpicbg.imglib.container.ContainerFactory;
+import mpicbg.imglib.container.basictypecontainer.array.ArrayDataAccess;
+import mpicbg.imglib.container.basictypecontainer.array.SparseArrayDataAccess;
+import mpicbg.imglib.cursor.cell.SparseCellCursor;
+import mpicbg.imglib.cursor.cell.SparseCellLocalizableCursor;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.type.Type;
+
+/**
+ * A {@link CellContainer} whose {@link Cell}s hold {@link SparseArrayDataAccess}es. A {@link Cell}
+ * that was never written (or only with the background value) costs no pixel storage and reads as
+ * the background, so the memory scales with the occupied volume. All standard {@link CellCursor}s
+ * work as usual and visit every pixel, {@link #createOccupiedCursor(Image)} and
+ * {@link #createOccupiedLocalizableCursor(Image)} skip the empty {@link Cell}s entirely.
+ */
+public class SparseCellContainer<T extends Type<T>, A extends ArrayDataAccess<A>> extends CellContainer<T, A>
+{
+	public SparseCellContainer( final ContainerFactory factory, final A creator, final int[] dim, final int[] cellSize, final int entitiesPerPixel )
+	{
+		super( factory, dim, cellSize, entitiesPerPixel );
+		
+		if ( !SparseArrayDataAccess.class.isInstance( creator ) )
+			throw new RuntimeException( "SparseCellContainer(): " + creator.getClass().getSimpleName() + " is no SparseArrayDataAccess." );
+		
+		createCells( creator );
+	}
+	
+	/**
+	 * @param cellId - the index of the {@link Cell}
+	 * @return - true if the {@link Cell} has allocated pixel storage
+	 */
+	public boolean isOccupied( final int cellId ) { return ( (SparseArrayDataAccess)data.get( cellId ).getData() ).isAllocated(); }
+	
+	/**
+	 * @param cellId - the index of the first {@link Cell} to test
+	 * @return - the index of the first occupied {@link Cell} &gt;= cellId, or {@link #getNumCells()} if there is none
+	 */
+	public int getNextOccupiedCell( int cellId )
+	{
+		while ( cellId < numCells && !isOccupied( cellId ) )
+			++cellId;
+		
+		return cellId;
+	}
+	
+	public int getNumOccupiedCells()
+	{
+		int numOccupied = 0;
+		
+		for ( int c = 0; c < numCells; ++c )
+			if ( isOccupied( c ) )
+				++numOccupied;
+		
+		return numOccupied;
+	}
+	
+	public long getNumOccupiedPixels()
+	{
+		long numOccupied = 0;
+		
+		for ( int c = 0; c < numCells; ++c )
+			if ( isOccupied( c ) )
+				numOccupied += data.get( c ).getNumPixels();
+		
+		return numOccupied;
+	}
+	
+	/**
+	 * Releases the storage of all {@link Cell}s that contain nothing but background,
+	 * e.g. after a label was erased. No other thread may write into the image meanwhile.
+	 * 
+	 * @return - the number of released {@link Cell}s
+	 */
+	public int prune()
+	{
+		int numReleased = 0;
+		
+		for ( int c = 0; c < numCells; ++c )
+			if ( isOccupied( c ) && ( (SparseArrayDataAccess)data.get( c ).getData() ).releaseIfBackground() )
+				++numReleased;
+		
+		return numReleased;
+	}
+	
+	/**
+	 * Creates a {@link SparseCellCursor} that only visits the pixels of occupied {@link Cell}s,
+	 * all other pixels are background. Note that it is not registered at the {@link Image}.
+	 */
+	public SparseCellCursor<T> createOccupiedCursor( final Image<T> image )
+	{
+		return new SparseCellCursor<T>( this, image, linkedType.duplicateTypeOnSameDirectAccessContainer() );
+	}
+	
+	/**
+	 * Creates a {@link SparseCellLocalizableCursor} that only visits the pixels of occupied {@link Cell}s,
+	 * all other pixels are background. Note that it is not registered at the {@link Image}.
+	 */
+	public SparseCellLocalizableCursor<T> createOccupiedLocalizableCursor( final Image<T> image )
+	{
+		return new SparseCellLocalizableCursor<T>( this, image, linkedType.duplicateTypeOnSameDirectAccessContainer() );
+	}
+	
+	@Override
+	public String toString()
+	{
+		return super.toString() + " (" + getNumOccupiedCells() + " of " + numCells + " cells occupied)";
+	}
+}
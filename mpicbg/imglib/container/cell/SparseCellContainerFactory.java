@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.cell;
+
+import mpicbg.imglib.container.DirectAccessContainer;
+import mpicbg.imglib.container.basictypecontainer.array.ArrayDataAccess;
+import mpicbg.imglib.container.basictypecontainer.array.BitArray;
+import mpicbg.imglib.container.basictypecontainer.array.ByteArray;
+import mpicbg.imglib.container.basictypecontainer.array.CharArray;
+import mpicbg.imglib.container.basictypecontainer.array.DoubleArray;
+import mpicbg.imglib.container.basictypecontainer.array.FloatArray;
+import mpicbg.imglib.container.basictypecontainer.array.IntArray;
+import mpicbg.imglib.container.basictypecontainer.array.LongArray;
+import mpicbg.imglib.container.basictypecontainer.array.ShortArray;
+import mpicbg.imglib.container.basictypecontainer.array.SparseBitArray;
+import mpicbg.imglib.container.basictypecontainer.array.SparseByteArray;
+import mpicbg.imglib.container.basictypecontainer.array.SparseCharArray;
+import mpicbg.imglib.container.basictypecontainer.array.SparseDoubleArray;
+import mpicbg.imglib.container.basictypecontainer.array.SparseFloatArray;
+import mpicbg.imglib.container.basictypecontainer.array.SparseIntArray;
+import mpicbg.imglib.container.basictypecontainer.array.SparseLongArray;
+import mpicbg.imglib.container.basictypecontainer.array.SparseShortArray;
+import mpicbg.imglib.type.Type;
+
+/**
+ * Creates {@link SparseCellContainer}s for mostly-background images like masks or label volumes.
+ * The background is given as one value for all entities, it is cast to the primitive type
+ * of the container (a BitType background is true for any value != 0).
+ */
+public class SparseCellContainerFactory extends CellContainerFactory
+{
+	final public static int defaultCellSize = 32;
+	
+	protected double background = 0;
+	
+	public SparseCellContainerFactory()
+	{
+		super( defaultCellSize );
+	}
+	
+	public SparseCellContainerFactory( final int cellSize )
+	{
+		super( cellSize );
+	}
+	
+	public SparseCellContainerFactory( final int[] cellSize )
+	{
+		super( cellSize );
+	}
+	
+	public void setBackground( final double background ) { this.background = background; }
+	public double getBackground() { return background; }
+	
+	protected <T extends Type<T>, A extends ArrayDataAccess<A>> SparseCellContainer<T, A> createInstance( final A creator, int[] dimensions, final int entitiesPerPixel )
+	{
+		dimensions = checkDimensions( dimensions );
+		int[] cellSize = checkCellSize( this.cellSize, dimensions );
+		
+		return new SparseCellContainer<T, A>( this, creator, dimensions, cellSize, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, BitArray> createBitInstance( int[] dimensions, int entitiesPerPixel )
+	{
+		return createInstance( (BitArray)new SparseBitArray( 1, background != 0 ), dimensions, entitiesPerPixel );
+	}
+	
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, ByteArray> createByteInstance( int[] dimensions, int entitiesPerPixel )
+	{
+		return createInstance( (ByteArray)new SparseByteArray( 1, (byte)background ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, CharArray> createCharInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( (CharArray)new SparseCharArray( 1, (char)background ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, DoubleArray> createDoubleInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( (DoubleArray)new SparseDoubleArray( 1, background ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, FloatArray> createFloatInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( (FloatArray)new SparseFloatArray( 1, (float)background ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, IntArray> createIntInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( (IntArray)new SparseIntArray( 1, (int)background ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, LongArray> createLongInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( (LongArray)new SparseLongArray( 1, (long)background ), dimensions, entitiesPerPixel );
+	}
+
+	@Override
+	public <T extends Type<T>> DirectAccessContainer<T, ShortArray> createShortInstance(int[] dimensions, int entitiesPerPixel)
+	{
+		return createInstance( (ShortArray)new SparseShortArray( 1, (short)background ), dimensions, entitiesPerPixel );
+	}
+}
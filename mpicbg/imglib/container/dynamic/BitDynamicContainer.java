@@ -29,8 +29,6 @@
  */
 package mpicbg.imglib.container.dynamic;
 
-import java.util.ArrayList;
-
 import mpicbg.imglib.cursor.Cursor;
 import mpicbg.imglib.cursor.dynamic.DynamicCursor;
 import mpicbg.imglib.type.Type;
@@ -38,23 +36,21 @@ import mpicbg.imglib.type.Type;
 public class BitDynamicContainer <T extends Type<T>> extends DynamicContainer<T, BitDynamicContainerAccessor>
 {
 	final static int bitsPerEntity = Integer.SIZE;
-	final ArrayList<Integer> data;
+	final IntChunkList data;
 	
 	public BitDynamicContainer( final DynamicContainerFactory factory, final int[] dim, final int entitiesPerPixel )
 	{
 		super( factory, dim, entitiesPerPixel );
 		
-		data = new ArrayList<Integer>();
-
 		final int numElements;
 		
 		if ( this.numEntities % bitsPerEntity == 0 )
 			numElements = this.numEntities / bitsPerEntity;
 		else
 			numElements = this.numEntities / bitsPerEntity + 1;
-			
-		for ( int i = 0; i < numElements; ++i )
-			data.add( 0 );
+
+		data = new IntChunkList( factory.getChunkSizeBits() );
+		data.resize( numElements );
 	}
 	
 	@Override
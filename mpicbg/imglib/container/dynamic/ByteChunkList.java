@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.dynamic;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of {@link DynamicChunkList primitive chunks} of byte.
+ */
+public class ByteChunkList extends DynamicChunkList
+{
+	protected byte[][] chunks = new byte[ 0 ][];
+
+	public ByteChunkList( final int chunkSizeBits ) { super( chunkSizeBits ); }
+	public ByteChunkList() { this( defaultChunkSizeBits ); }
+
+	final public byte get( final int index ) { return chunks[ index >>> chunkSizeBits ][ index & chunkMask ]; }
+	final public void set( final int index, final byte value ) { chunks[ index >>> chunkSizeBits ][ index & chunkMask ] = value; }
+
+	public void add( final byte value )
+	{
+		resize( size + 1 );
+		set( size - 1, value );
+	}
+
+	/**
+	 * Returns the primitive array backing a chunk, e.g. for bulk access
+	 *
+	 * @param chunk - the index of the chunk
+	 * @return the byte[], its length is {@link #getChunkSize()} for all but the last chunk which may be shorter
+	 */
+	public byte[] getChunk( final int chunk ) { return chunks[ chunk ]; }
+
+	@Override
+	protected void ensureChunkCapacity( final int minNumChunks )
+	{
+		if ( minNumChunks > chunks.length )
+			chunks = Arrays.copyOf( chunks, newChunkCapacity( chunks.length, minNumChunks ) );
+	}
+
+	@Override
+	protected void allocateChunk( final int chunk, final int length ) { chunks[ chunk ] = new byte[ length ]; }
+
+	@Override
+	protected void resizeChunk( final int chunk, final int length ) { chunks[ chunk ] = Arrays.copyOf( chunks[ chunk ], length ); }
+
+	@Override
+	protected void releaseChunk( final int chunk ) { chunks[ chunk ] = null; }
+
+	@Override
+	protected void clearChunk( final int chunk, final int from, final int to ) { Arrays.fill( chunks[ chunk ], from, to, (byte)0 ); }
+}
@@ -29,24 +29,20 @@
  */
 package mpicbg.imglib.container.dynamic;
 
-import java.util.ArrayList;
-
 import mpicbg.imglib.cursor.Cursor;
 import mpicbg.imglib.cursor.dynamic.DynamicCursor;
 import mpicbg.imglib.type.Type;
 
 public class ByteDynamicContainer <T extends Type<T>> extends DynamicContainer<T, ByteDynamicContainerAccessor>
 {
-	final ArrayList<Byte> data;
+	final ByteChunkList data;
 	
 	public ByteDynamicContainer( final DynamicContainerFactory factory, final int[] dim, final int entitiesPerPixel )
 	{
 		super( factory, dim, entitiesPerPixel );
 		
-		data = new ArrayList<Byte>();
-		
-		for ( int i = 0; i < numPixels*entitiesPerPixel; ++i )
-			data.add( (byte)0 );
+		data = new ByteChunkList( factory.getChunkSizeBits() );
+		data.resize( numPixels * entitiesPerPixel );
 	}
 	
 	@Override
@@ -29,24 +29,20 @@
  */
 package mpicbg.imglib.container.dynamic;
 
-import java.util.ArrayList;
-
 import mpicbg.imglib.cursor.Cursor;
 import mpicbg.imglib.cursor.dynamic.DynamicCursor;
 import mpicbg.imglib.type.Type;
 
 public class CharDynamicContainer <T extends Type<T>> extends DynamicContainer<T, CharDynamicContainerAccessor>
 {
-	final ArrayList<Character> data;
+	final CharChunkList data;
 	
 	public CharDynamicContainer( final DynamicContainerFactory factory, final int[] dim, final int entitiesPerPixel )
 	{
 		super( factory, dim, entitiesPerPixel );
 		
-		data = new ArrayList<Character>();
-		
-		for ( int i = 0; i < numPixels*entitiesPerPixel; ++i )
-			data.add( ' ' );
+		data = new CharChunkList( factory.getChunkSizeBits() );
+		data.resize( numPixels * entitiesPerPixel );
 	}
 	
 	@Override
@@ -29,24 +29,20 @@
  */
 package mpicbg.imglib.container.dynamic;
 
-import java.util.ArrayList;
-
 import mpicbg.imglib.cursor.Cursor;
 import mpicbg.imglib.cursor.dynamic.DynamicCursor;
 import mpicbg.imglib.type.Type;
 
 public class DoubleDynamicContainer <T extends Type<T>> extends DynamicContainer<T, DoubleDynamicContainerAccessor>
 {
-	final ArrayList<Double> data;
+	final DoubleChunkList data;
 	
 	public DoubleDynamicContainer( final DynamicContainerFactory factory, final int[] dim, final int entitiesPerPixel )
 	{
 		super( factory, dim, entitiesPerPixel );
 		
-		data = new ArrayList<Double>();
-		
-		for ( int i = 0; i < numPixels*entitiesPerPixel; ++i )
-			data.add( 0.0 );
+		data = new DoubleChunkList( factory.getChunkSizeBits() );
+		data.resize( numPixels * entitiesPerPixel );
 	}
 	
 	@Override
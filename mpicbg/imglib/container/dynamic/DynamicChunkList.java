@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.container.dynamic;
+
+/**
+ * Base class of the growable primitive lists backing the {@link DynamicContainer}s.
+ * The entries are stored in primitive chunks of 2^chunkSizeBits entries, so growing 
+ * never copies more than one chunk and no entry is boxed. An entry is addressed by 
+ * <code>chunks[ index >>> chunkSizeBits ][ index & chunkMask ]</code>.
+ * 
+ * Only the last chunk may be shorter, it starts with the entries needed and grows 
+ * geometrically up to the chunk size, so small lists do not occupy a full chunk.
+ */
+public abstract class DynamicChunkList
+{
+	/**
+	 * 2^16 entries per chunk, i.e. 256kb for float
+	 */
+	final public static int defaultChunkSizeBits = 16;
+	
+	/**
+	 * The smallest length the last chunk is allocated with
+	 */
+	final public static int minChunkLength = 16;
+
+	final protected int chunkSizeBits, chunkSize, chunkMask;
+
+	protected int size = 0, numChunks = 0;
+	
+	// the number of entries the last chunk has room for
+	protected int lastChunkLength = 0;
+
+	public DynamicChunkList( final int chunkSizeBits )
+	{
+		if ( chunkSizeBits < 1 || chunkSizeBits > 30 )
+			throw new RuntimeException( "DynamicChunkList(): chunkSizeBits must be within [1, 30], but is " + chunkSizeBits );
+
+		this.chunkSizeBits = chunkSizeBits;
+		this.chunkSize = 1 << chunkSizeBits;
+		this.chunkMask = chunkSize - 1;
+	}
+
+	public int size() { return size; }
+	public int getNumChunks() { return numChunks; }
+	public int getChunkSize() { return chunkSize; }
+	public int getChunkSizeBits() { return chunkSizeBits; }
+
+	/**
+	 * Grows (or shrinks) the list to the given number of entries. New entries are 0,
+	 * chunks that are no longer needed are released.
+	 *
+	 * @param newSize - the new number of entries
+	 */
+	public void resize( final int newSize )
+	{
+		if ( newSize < 0 )
+			throw new RuntimeException( "DynamicChunkList.resize(): size cannot be negative: " + newSize );
+
+		final int newNumChunks = ( newSize == 0 ) ? 0 : ( ( newSize - 1 ) >>> chunkSizeBits ) + 1;
+		
+		// the number of entries used in the new last chunk
+		final int newLastChunkSize = newSize - ( Math.max( 0, newNumChunks - 1 ) << chunkSizeBits );
+
+		if ( newNumChunks > numChunks )
+		{
+			ensureChunkCapacity( newNumChunks );
+			
+			// all but the last chunk are complete
+			if ( numChunks > 0 && lastChunkLength < chunkSize )
+				resizeChunk( numChunks - 1, chunkSize );
+
+			for ( int c = numChunks; c < newNumChunks - 1; ++c )
+				allocateChunk( c, chunkSize );
+			
+			lastChunkLength = newChunkLength( 0, newLastChunkSize );
+			allocateChunk( newNumChunks - 1, lastChunkLength );
+		}
+		else if ( newNumChunks == numChunks && newLastChunkSize > lastChunkLength )
+		{
+			lastChunkLength = newChunkLength( lastChunkLength, newLastChunkSize );
+			resizeChunk( numChunks - 1, lastChunkLength );
+		}
+		else
+		{
+			for ( int c = newNumChunks; c < numChunks; ++c )
+				releaseChunk( c );
+			
+			if ( newNumChunks < numChunks )
+				lastChunkLength = ( newNumChunks == 0 ) ? 0 : chunkSize;
+
+			// entries beyond the new size must read as 0 once the list grows again
+			if ( newSize < size && newNumChunks > 0 )
+			{
+				final int offset = ( newNumChunks - 1 ) << chunkSizeBits;
+				clearChunk( newNumChunks - 1, newSize - offset, Math.min( size - offset, lastChunkLength ) );
+			}
+		}
+
+		numChunks = newNumChunks;
+		size = newSize;
+	}
+
+	/**
+	 * Releases all chunks.
+	 */
+	public void clear() { resize( 0 ); }
+
+	protected abstract void ensureChunkCapacity( int minNumChunks );
+	protected abstract void allocateChunk( int chunk, int length );
+	protected abstract void resizeChunk( int chunk, int length );
+	protected abstract void releaseChunk( int chunk );
+	protected abstract void clearChunk( int chunk, int from, int to );
+
+	protected static int newChunkCapacity( final int currentCapacity, final int minNumChunks )
+	{
+		return Math.max( minNumChunks, currentCapacity * 2 + 1 );
+	}
+	
+	/**
+	 * @return - the length for the last chunk, at least twice the current length but not more than the chunk size
+	 */
+	protected int newChunkLength( final int currentLength, final int minLength )
+	{
+		return Math.min( chunkSize, Math.max( minLength, Math.max( minChunkLength, currentLength * 2 ) ) );
+	}
+}
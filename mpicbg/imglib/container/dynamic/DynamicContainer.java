@@ -38,6 +38,7 @@ import mpicbg.imglib.cursor.dynamic.DynamicLocalizableByDimCursor;
 import mpicbg.imglib.cursor.dynamic.DynamicLocalizableByDimOutOfBoundsCursor;
 import mpicbg.imglib.cursor.dynamic.DynamicLocalizableCursor;
 import mpicbg.imglib.cursor.dynamic.DynamicLocalizablePlaneCursor;
+import mpicbg.imglib.cursor.dynamic.DynamicSplittableCursor;
 import mpicbg.imglib.image.Image;
 import mpicbg.imglib.outofbounds.OutOfBoundsStrategyFactory;
 import mpicbg.imglib.type.Type;
@@ -54,8 +55,9 @@ public abstract class DynamicContainer<T extends Type<T>, A extends DynamicConta
 		super( factory, dim, entitiesPerPixel );
 		
 		this.step = Array.createAllocationSteps( dim );
-		this.numPixels = super.numPixels; 
-		this.numEntities = super.numEntities; 
+		// fails for more than 2^31-1 pixels, the pixels are addressed with an int
+		this.numPixels = super.getNumPixels(); 
+		this.numEntities = super.getNumEntities(); 
 	}
 	
 	public int[] getSteps() { return step.clone(); }
@@ -116,4 +118,11 @@ public abstract class DynamicContainer<T extends Type<T>, A extends DynamicConta
 		// create a Cursor using a Type that is linked to the container
 		return new DynamicLocalizablePlaneCursor<T>( this, image, linkedType.duplicateTypeOnSameDirectAccessContainer() );
 	}
+
+	@Override
+	public DynamicSplittableCursor<T> createSplittableCursor( final Image<T> image )
+	{
+		// create a Cursor using a Type that is linked to the container
+		return new DynamicSplittableCursor<T>( this, image, linkedType.duplicateTypeOnSameDirectAccessContainer() );
+	}
 }
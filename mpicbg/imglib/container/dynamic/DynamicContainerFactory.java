@@ -35,6 +35,21 @@ import mpicbg.imglib.type.Type;
 
 public class DynamicContainerFactory extends DirectAccessContainerFactory
 {
+	protected int chunkSizeBits = DynamicChunkList.defaultChunkSizeBits;
+
+	public DynamicContainerFactory() {}
+
+	/**
+	 * @param chunkSizeBits - the containers store their entities in primitive chunks of 2^chunkSizeBits entities
+	 */
+	public DynamicContainerFactory( final int chunkSizeBits )
+	{
+		this.chunkSizeBits = chunkSizeBits;
+	}
+
+	public void setChunkSizeBits( final int chunkSizeBits ) { this.chunkSizeBits = chunkSizeBits; }
+	public int getChunkSizeBits() { return chunkSizeBits; }
+
 	@Override
 	public <T extends Type<T>> DirectAccessContainer<T, BitDynamicContainerAccessor> createBitInstance( final int[] dimensions, final int entitiesPerPixel)
 	{
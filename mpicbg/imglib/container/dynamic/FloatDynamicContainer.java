@@ -29,24 +29,20 @@
  */
 package mpicbg.imglib.container.dynamic;
 
-import java.util.ArrayList;
-
 import mpicbg.imglib.cursor.Cursor;
 import mpicbg.imglib.cursor.dynamic.DynamicCursor;
 import mpicbg.imglib.type.Type;
 
 public class FloatDynamicContainer <T extends Type<T>> extends DynamicContainer<T, FloatDynamicContainerAccessor>
 {
-	final ArrayList<Float> data;
+	final FloatChunkList data;
 	
 	public FloatDynamicContainer( final DynamicContainerFactory factory, final int[] dim, final int entitiesPerPixel )
 	{
 		super( factory, dim, entitiesPerPixel );
 		
-		data = new ArrayList<Float>();
-		
-		for ( int i = 0; i < numPixels*entitiesPerPixel; ++i )
-			data.add( 0.0f );
+		data = new FloatChunkList( factory.getChunkSizeBits() );
+		data.resize( numPixels * entitiesPerPixel );
 	}
 	
 	@Override
@@ -29,24 +29,20 @@
  */
 package mpicbg.imglib.container.dynamic;
 
-import java.util.ArrayList;
-
 import mpicbg.imglib.cursor.Cursor;
 import mpicbg.imglib.cursor.dynamic.DynamicCursor;
 import mpicbg.imglib.type.Type;
 
 public class IntDynamicContainer <T extends Type<T>> extends DynamicContainer<T, IntDynamicContainerAccessor>
 {
-	final ArrayList<Integer> data;
+	final IntChunkList data;
 	
 	public IntDynamicContainer( final DynamicContainerFactory factory, final int[] dim, final int entitiesPerPixel )
 	{
 		super( factory, dim, entitiesPerPixel );
 		
-		data = new ArrayList<Integer>();
-		
-		for ( int i = 0; i < numPixels*entitiesPerPixel; ++i )
-			data.add( 0 );
+		data = new IntChunkList( factory.getChunkSizeBits() );
+		data.resize( numPixels * entitiesPerPixel );
 	}
 	
 	@Override
@@ -45,6 +45,8 @@ import mpicbg.imglib.cursor.imageplus.ImagePlusLocalizableByDimCursor;
 import mpicbg.imglib.cursor.imageplus.ImagePlusLocalizableByDimOutOfBoundsCursor;
 import mpicbg.imglib.cursor.imageplus.ImagePlusLocalizableCursor;
 import mpicbg.imglib.cursor.imageplus.ImagePlusLocalizablePlaneCursor;
+import mpicbg.imglib.cursor.imageplus.ImagePlusSpanIterator;
+import mpicbg.imglib.cursor.imageplus.ImagePlusSplittableCursor;
 import mpicbg.imglib.exception.ImgLibException;
 import mpicbg.imglib.image.Image;
 import mpicbg.imglib.outofbounds.OutOfBoundsStrategyFactory;
@@ -93,6 +95,17 @@ public class ImagePlusContainer<T extends Type<T>, A extends ArrayDataAccess<A>>
 	@Override
 	public A update( final Cursor<?> c ) { return mirror.get( c.getStorageIndex() ); }
 	
+	public A getPlane( final int z ) { return mirror.get( z ); }
+	
+	@Override
+	public ImagePlusSpanIterator<A> createSpanIterator() { return new ImagePlusSpanIterator<A>( this ); }
+	
+	@Override
+	public ImagePlusSplittableCursor<T> createSplittableCursor( final Image<T> image ) 
+	{
+		return new ImagePlusSplittableCursor<T>( this, image, linkedType.duplicateTypeOnSameDirectAccessContainer() );
+	}
+	
 	protected static int[] getCorrectDimensionality( final ImagePlus imp )
 	{
 		int numDimensions = 3;
@@ -32,6 +32,7 @@ package mpicbg.imglib.cursor;
 import java.util.Iterator;
 
 import mpicbg.imglib.container.Container;
+import mpicbg.imglib.image.CursorRegistry;
 import mpicbg.imglib.image.Image;
 import mpicbg.imglib.type.Type;
 
@@ -50,6 +51,9 @@ public abstract class CursorImpl<T extends Type<T>> implements Cursor<T>
 	final protected Container<T> container;
 	protected boolean isClosed = false, debug = false;
 	
+	// the entry in the CursorRegistry of the Image, if the Cursor was created by the Image
+	protected CursorRegistry.Registration registration = null;
+	
 	public CursorImpl( final Container<T> container, final Image<T> image )
 	{
 		this.image = image;
@@ -74,6 +78,27 @@ public abstract class CursorImpl<T extends Type<T>> implements Cursor<T>
 	@Override
 	public void setDebug( final boolean debug ) { this.debug = debug; }
 	
+	/**
+	 * Called by the {@link Image} that registered this {@link Cursor}.
+	 */
+	public void setRegistration( final CursorRegistry.Registration registration ) { this.registration = registration; }
+	
+	/**
+	 * Marks the {@link Cursor} as closed and unregisters it from its {@link Image}, 
+	 * has to be called by all implementations of close(). A {@link Cursor} that is reset 
+	 * after being closed is not registered again, the {@link CursorRegistry} does not track it anymore.
+	 */
+	protected void setClosed()
+	{
+		isClosed = true;
+		
+		if ( registration != null )
+		{
+			registration.unregister();
+			registration = null;
+		}
+	}
+	
 	@Override
 	public void remove() {}
 	
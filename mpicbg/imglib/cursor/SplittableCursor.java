@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.cursor;
+
+import mpicbg.imglib.type.Type;
+
+/**
+ * A {@link Cursor} that can be split into {@link Cursor}s on disjoint parts of the pixels
+ * it has not visited yet, e.g. to process an {@link mpicbg.imglib.image.Image} on several threads. 
+ * Splitting is O(1) and happens at storage boundaries (cells, planes, chunks), so that different 
+ * threads never write into the same array element, also not for packed types like 
+ * {@link mpicbg.imglib.type.logic.BitType}. Each split has its own {@link Type} instance linked to the container.
+ * <p>
+ * Usage:
+ * <pre>
+ * final ArrayList&lt;SplittableCursor&lt;T&gt;&gt; cursors = image.createSplittableCursors( numThreads );
+ * // hand each cursor to one thread, which iterates it like any other cursor and closes it
+ * </pre>
+ */
+public interface SplittableCursor<T extends Type<T>> extends Cursor<T>
+{
+	/**
+	 * Splits off the second half of the pixels this {@link Cursor} has not visited yet, 
+	 * this {@link Cursor} keeps the first half.
+	 * 
+	 * @return - a new {@link SplittableCursor} that has not been moved yet or null if the remaining
+	 * pixels cannot be split at a storage boundary
+	 */
+	public SplittableCursor<T> trySplit();
+	
+	/**
+	 * @return - the number of pixels this {@link Cursor} has not visited yet
+	 */
+	public long getNumRemaining();
+}
@@ -67,7 +67,7 @@ public class ArrayCursor<T extends Type<T>> extends CursorImpl<T> implements Cur
 	@Override
 	public void close() 
 	{ 
-		isClosed = true;
+		setClosed();
 		type.updateIndex( sizeMinus1 + 1 );
 	}
 
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.cursor.array;
+
+import mpicbg.imglib.container.array.Array;
+import mpicbg.imglib.cursor.SplittableCursor;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.type.Type;
+
+/**
+ * Iterates the pixels [first, last] of an {@link Array}.
+ */
+public class ArraySplittableCursor<T extends Type<T>> extends ArrayCursor<T> implements SplittableCursor<T>
+{
+	// splits are aligned so that two cursors never share an int of a BitArray (also for 12 bit per pixel)
+	final protected static int alignment = 64;
+	
+	protected int first, last;
+	
+	public ArraySplittableCursor( final Array<T,?> container, final Image<T> image, final T type )
+	{
+		this( container, image, type, 0, container.getNumPixels() - 1 );
+	}
+
+	public ArraySplittableCursor( final Array<T,?> container, final Image<T> image, final T type, final int first, final int last )
+	{
+		super( container, image, type );
+		
+		this.first = first;
+		this.last = last;
+		
+		reset();
+	}
+	
+	@Override
+	public boolean hasNext() { return type.getIndex() < last; }
+
+	@Override
+	public void close() 
+	{ 
+		setClosed();
+		type.updateIndex( last + 1 );
+	}
+
+	@Override
+	public void reset()
+	{ 
+		type.updateIndex( first - 1 ); 
+		type.updateContainer( this );
+		isClosed = false;
+	}
+
+	@Override
+	public long getNumRemaining() { return last - type.getIndex(); }
+
+	@Override
+	public ArraySplittableCursor<T> trySplit()
+	{
+		final int next = type.getIndex() + 1;
+		final int mid = ( ( next + ( last + 1 - next ) / 2 + alignment / 2 ) / alignment ) * alignment;
+		
+		if ( mid <= next || mid > last )
+			return null;
+		
+		final ArraySplittableCursor<T> split = new ArraySplittableCursor<T>( container, image, type.duplicateTypeOnSameDirectAccessContainer(), mid, last );
+		last = mid - 1;
+		
+		return split;
+	}
+}
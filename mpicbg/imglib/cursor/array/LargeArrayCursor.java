@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.cursor.array;
+
+import mpicbg.imglib.container.array.LargeArray;
+import mpicbg.imglib.cursor.Cursor;
+import mpicbg.imglib.cursor.CursorImpl;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.type.Type;
+
+public class LargeArrayCursor<T extends Type<T>> extends CursorImpl<T> implements Cursor<T>
+{
+	protected final T type;
+	protected final LargeArray<T,?> container;
+	protected final int pageSizeBits, lastPage;
+	protected final long pageMask;
+	
+	/*
+	 * The index of the current page
+	 */
+	protected int page;
+	
+	/*
+	 * The number of pixels in the current page 
+	 */
+	protected int pageMaxI;
+	
+	public LargeArrayCursor( final LargeArray<T,?> container, final Image<T> image, final T type ) 
+	{
+		super( container, image );
+
+		this.type = type;
+		this.container = container;
+		this.pageSizeBits = container.getPageSizeBits();
+		this.pageMask = ( 1l << pageSizeBits ) - 1;
+		this.lastPage = container.getNumPages() - 1;
+		
+		reset();
+	}
+	
+	protected void setPage( final int page )
+	{
+		this.page = page;
+		pageMaxI = container.getPageSize( page );
+		
+		type.updateContainer( this );
+	}
+	
+	/**
+	 * @return - the index of the current pixel in the whole container
+	 */
+	public long getIndex() { return ( (long)page << pageSizeBits ) + type.getIndex(); }
+	
+	protected void setIndex( final long index )
+	{
+		final int newPage = (int)( index >> pageSizeBits );
+		
+		if ( newPage != page )
+			setPage( newPage );
+		
+		type.updateIndex( (int)( index & pageMask ) );
+	}
+	
+	@Override
+	public T getType() { return type; }
+	
+	@Override
+	public boolean hasNext() { return page < lastPage || type.getIndex() < pageMaxI - 1; }
+
+	@Override
+	public void fwd( final long steps ) { setIndex( getIndex() + steps ); }
+
+	@Override
+	public void fwd() 
+	{ 
+		if ( type.getIndex() < pageMaxI - 1 )
+		{
+			type.incIndex();
+		}
+		else
+		{
+			setPage( page + 1 );
+			type.updateIndex( 0 );
+		}
+	}
+
+	@Override
+	public void close() 
+	{ 
+		setClosed();
+		setPage( lastPage );
+		type.updateIndex( pageMaxI );
+	}
+
+	@Override
+	public void reset()
+	{ 
+		setPage( 0 );
+		type.updateIndex( -1 ); 
+		isClosed = false;
+	}
+
+	@Override
+	public LargeArray<T,?> getStorageContainer(){ return container; }
+
+	@Override
+	public int getStorageIndex() { return page; }
+	
+	@Override
+	public String toString() { return type.toString(); }		
+}
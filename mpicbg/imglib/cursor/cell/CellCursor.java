@@ -115,7 +115,8 @@ public class CellCursor<T extends Type<T>> extends CursorImpl<T> implements Curs
 		if (!isClosed)
 		{
 			lastCell = -1;
-			isClosed = true;
+			container.releaseCellData( this );
+			setClosed();
 		}
 	}
 
@@ -32,23 +32,15 @@ package mpicbg.imglib.cursor.cell;
 import mpicbg.imglib.container.array.Array;
 import mpicbg.imglib.container.cell.CellContainer;
 import mpicbg.imglib.cursor.LocalizableByDimCursor;
-import mpicbg.imglib.cursor.array.ArrayLocalizableByDimCursor;
 import mpicbg.imglib.cursor.Localizable;
 import mpicbg.imglib.cursor.special.LocalNeighborhoodCursor;
 import mpicbg.imglib.cursor.special.LocalNeighborhoodCursorFactory;
 import mpicbg.imglib.cursor.special.RegionOfInterestCursor;
 import mpicbg.imglib.image.Image;
 import mpicbg.imglib.type.Type;
-import mpicbg.imglib.type.label.FakeType;
 
 public class CellLocalizableByDimCursor<T extends Type<T>> extends CellLocalizableCursor<T> implements LocalizableByDimCursor<T>
 {
-	/**
-	 * Here we "misuse" a ArrayLocalizableCursor to iterate over cells,
-	 * it always gives us the location of the current cell we are instantiating 
-	 */
-	final ArrayLocalizableByDimCursor<FakeType> cursor;
-	
 	/*
 	protected final CellContainer<?,?> img;
 	
@@ -114,9 +106,6 @@ public class CellLocalizableByDimCursor<T extends Type<T>> extends CellLocalizab
 		this.cellStep = new int[ numDimensions ];
 		this.tmp = new int[ numDimensions ];
 		
-		this.cursor = ArrayLocalizableByDimCursor.createLinearByDimCursor( numCellsDim );
-		cursor.setPosition( new int[ container.getNumDimensions() ] );
-		
 		// the steps when moving from cell to cell
 		Array.createAllocationSteps( numCellsDim, cellStep );
 		
@@ -138,6 +127,9 @@ public class CellLocalizableByDimCursor<T extends Type<T>> extends CellLocalizab
 		for ( int d = 0; d < numDimensions; d++ )
 			cellEnd[ d ] = cellOffset[ d ] + cellDimensions[ d ];
 		
+		// fwd() changes the cell without knowing the cell position
+		container.getCellPosition( cellOffset, cellPosition );
+		
 		// the steps when moving inside a cell
 		cellInstance.getSteps( step );
 		//Array.createAllocationSteps( cellDimensions, step );
@@ -325,32 +317,71 @@ public class CellLocalizableByDimCursor<T extends Type<T>> extends CellLocalizab
 	}
 	
 
-	@Override
-	public void setPosition( final int[] position )
+	/**
+	 * Moves the cursor to the current {@link #position} inside the image. If it is
+	 * still inside the current cell only the index inside the cell is updated.
+	 */
+	protected void updatePosition()
 	{
-		for ( int d = 0; d < numDimensions; d++ )
-			this.position[ d ] = position[ d ];
-
+		if ( cell == lastCell )
+		{
+			int i = 0;
+			int d = 0;
+			
+			for ( ; d < numDimensions; d++ )
+			{
+				final int l = position[ d ] - cellOffset[ d ];
+				
+				if ( l < 0 || l >= cellDimensions[ d ] )
+					break;
+				
+				i += l * step[ d ];
+			}
+			
+			if ( d == numDimensions )
+			{
+				type.updateIndex( i );
+				return;
+			}
+		}
+		
 		// the cell position in "cell space" from the image coordinates 
 		container.getCellPosition( position, cellPosition );
 		
 		// get the cell index
-		cell = container.getCellIndex( cursor, cellPosition );
+		cell = container.getCellIndex( cellPosition );
 
-		getCellData(cell);
+		getCellData( cell );
 		type.updateIndex( cellInstance.getPosGlobal( position ) );
 	}
 
+	@Override
+	public void setPosition( final int[] position )
+	{
+		for ( int d = 0; d < numDimensions; d++ )
+			this.position[ d ] = position[ d ];
+
+		updatePosition();
+	}
+
 	@Override
 	public void setPosition( final int position, final int dim )
 	{
+		if ( cell == lastCell && position >= cellOffset[ dim ] && position < cellEnd[ dim ] )
+		{
+			// still inside the cell
+			type.incIndex( ( position - this.position[ dim ] ) * step[ dim ] );
+			this.position[ dim ] = position;
+			return;
+		}
+		
 		this.position[ dim ] = position;
 
 		// the cell position in "cell space" from the image coordinates 
 		cellPosition[ dim ] = container.getCellPosition( position, dim );
 
 		// get the cell index
-		cell = container.getCellIndex( cursor, cellPosition[ dim ], dim );
+		cell = container.getCellIndex( cellPosition );
 		
 		getCellData(cell);
 		type.updateIndex( cellInstance.getPosGlobal( this.position ) );
@@ -359,11 +390,11 @@ public class CellLocalizableByDimCursor<T extends Type<T>> extends CellLocalizab
 	@Override
 	public void close()
 	{
-		cursor.close();
 		if (!isClosed)
 		{
 			lastCell = -1;
-			isClosed = true;
+			container.releaseCellData( this );
+			setClosed();
 		}		
 	}
 }
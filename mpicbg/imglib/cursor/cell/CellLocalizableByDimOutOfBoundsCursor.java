@@ -157,15 +157,7 @@ public class CellLocalizableByDimOutOfBoundsCursor<T extends Type<T>> extends Ce
 				if ( !isOutOfBounds )
 				{
 					type.updateContainer( this );			
-					
-					// the cell position in "cell space" from the image coordinates 
-					container.getCellPosition( position, cellPosition );
-					
-					// get the cell index
-					cell = container.getCellIndex( cursor, cellPosition );
-
-					getCellData(cell);
-					type.updateIndex( cellInstance.getPosGlobal( position ) );
+					updatePosition();
 				}
 				else
 				{
@@ -240,7 +232,7 @@ public class CellLocalizableByDimOutOfBoundsCursor<T extends Type<T>> extends Ce
 			isOutOfBounds = true;
 			lastCell = -1;						
 			cell = numCells;
-			position[0]++;
+			position[ dim ]++;
 			outOfBoundsStrategy.initOutOfBOunds(  );
 		}
 	}
@@ -264,7 +256,7 @@ public class CellLocalizableByDimOutOfBoundsCursor<T extends Type<T>> extends Ce
 			type.decIndex( step[ dim ] );
 			position[ dim ]--;	
 		}
-		else if ( cellPosition[ dim ] == numCellsDim[ dim ] - 1 && numCells != 1)
+		else if ( cellPosition[ dim ] > 0 && cellPosition[ dim ] == numCellsDim[ dim ] - 1 )
 		{
 			// current cell is the last one, so we cannot propagate the i
 			cellPosition[ dim ]--;
@@ -293,7 +285,7 @@ public class CellLocalizableByDimOutOfBoundsCursor<T extends Type<T>> extends Ce
 			isOutOfBounds = true;
 			lastCell = -1;						
 			cell = numCells;
-			position[0]++;
+			position[ dim ]--;
 			outOfBoundsStrategy.initOutOfBOunds(  );			
 		}
 	}
@@ -332,14 +324,7 @@ public class CellLocalizableByDimOutOfBoundsCursor<T extends Type<T>> extends Ce
 			if ( wasOutOfBounds ) // we reenter the image with this setPosition() call
 				type.updateContainer( this );			
 						
-			// the cell position in "cell space" from the image coordinates 
-			container.getCellPosition( position, cellPosition );
-			
-			// get the cell index
-			cell = container.getCellIndex( cursor, cellPosition );
-
-			getCellData(cell);
-			type.updateIndex( cellInstance.getPosGlobal( position ) );			
+			updatePosition();
 		}	
 	}
 	
@@ -369,15 +354,7 @@ public class CellLocalizableByDimOutOfBoundsCursor<T extends Type<T>> extends Ce
 			else
 			{
 				// jumped around inside the image
-				
-				// the cell position in "cell space" from the image coordinates 
-				cellPosition[ dim ] = container.getCellPosition( position, dim );
-
-				// get the cell index
-				cell = container.getCellIndex( cursor, cellPosition[ dim ], dim );
-				
-				getCellData(cell);
-				type.updateIndex( cellInstance.getPosGlobal( this.position ) );				
+				updatePosition();
 			}
 		}
 	}	
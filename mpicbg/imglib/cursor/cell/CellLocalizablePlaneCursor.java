@@ -32,19 +32,11 @@ package mpicbg.imglib.cursor.cell;
 import mpicbg.imglib.container.array.Array;
 import mpicbg.imglib.container.cell.CellContainer;
 import mpicbg.imglib.cursor.LocalizablePlaneCursor;
-import mpicbg.imglib.cursor.array.ArrayLocalizableByDimCursor;
 import mpicbg.imglib.image.Image;
 import mpicbg.imglib.type.Type;
-import mpicbg.imglib.type.label.FakeType;
 
 public class CellLocalizablePlaneCursor<T extends Type<T>> extends CellLocalizableCursor<T> implements LocalizablePlaneCursor<T>
 {
-	/**
-	 * Here we "misuse" a ArrayLocalizableCursor to iterate over cells,
-	 * it always gives us the location of the current cell we are instantiating 
-	 */
-	final ArrayLocalizableByDimCursor<FakeType> cursor;
-
 	/*
 	protected final CellContainer<?,?> img;
 	
@@ -79,9 +71,6 @@ public class CellLocalizablePlaneCursor<T extends Type<T>> extends CellLocalizab
 		numCellsDim = container.getNumCellsDim();
 		cellStep = new int[ numDimensions ];
 		
-		cursor = ArrayLocalizableByDimCursor.createLinearByDimCursor( numCellsDim ); 
-		cursor.setPosition( new int[ container.getNumDimensions() ] );
-		
 		// the steps when moving from cell to cell
 		Array.createAllocationSteps( numCellsDim, cellStep );
 
@@ -133,7 +122,7 @@ public class CellLocalizablePlaneCursor<T extends Type<T>> extends CellLocalizab
 			}
 
 			// get the new cell index
-			cell = container.getCellIndex( cursor, cellPosition );
+			cell = container.getCellIndex( cellPosition );
 			
 			// get the new cell data
 			getCellData(cell);
@@ -258,7 +247,7 @@ public class CellLocalizablePlaneCursor<T extends Type<T>> extends CellLocalizab
 		container.getCellPosition( position, cellPosition );
 		
 		// get the cell index
-		cell = container.getCellIndex( cursor, cellPosition );
+		cell = container.getCellIndex( cellPosition );
 
 		getCellData(cell);
 		type.updateIndex( cellInstance.getPosGlobal( position ) );
@@ -267,11 +256,11 @@ public class CellLocalizablePlaneCursor<T extends Type<T>> extends CellLocalizab
 	@Override
 	public void close()
 	{
-		cursor.close();
 		if (!isClosed)
 		{
 			lastCell = -1;
-			isClosed = true;
+			container.releaseCellData( this );
+			setClosed();
 		}		
 	}	
 }
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.cursor.cell;
+
+import mpicbg.imglib.container.basictypecontainer.array.ArrayDataAccess;
+import mpicbg.imglib.container.cell.CellContainer;
+import mpicbg.imglib.cursor.span.SpanIterator;
+
+/**
+ * Each cell of a {@link CellContainer} is one span. Cells of a 
+ * {@link mpicbg.imglib.container.cell.CachedCellContainer} are loaded when the 
+ * iterator moves there and stay in memory as long as the iterator is located in them.
+ */
+public class CellSpanIterator<A extends ArrayDataAccess<A>> extends SpanIterator<A>
+{
+	final protected CellContainer<?,A> container;
+	
+	public CellSpanIterator( final CellContainer<?,A> container )
+	{
+		super( container.getNumCells(), container.getNumEntitiesPerPixel() );
+		
+		this.container = container;
+	}
+
+	@Override
+	protected void update( final int span )
+	{
+		access = container.getCellData( span, this );
+		start = 0;
+		length = container.getCell( span ).getNumPixels();
+	}
+	
+	@Override
+	public void close()
+	{
+		super.close();
+		container.releaseCellData( this );
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.cursor.cell;
+
+import mpicbg.imglib.container.cell.CellContainer;
+import mpicbg.imglib.cursor.SplittableCursor;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.type.Type;
+
+/**
+ * Iterates the cells [firstCell, endCell) of a {@link CellContainer}, splits are made between cells.
+ */
+public class CellSplittableCursor<T extends Type<T>> extends CellCursor<T> implements SplittableCursor<T>
+{
+	protected int firstCell, endCell;
+	
+	public CellSplittableCursor( final CellContainer<T,?> container, final Image<T> image, final T type )
+	{
+		this( container, image, type, 0, container.getNumCells() );
+	}
+
+	public CellSplittableCursor( final CellContainer<T,?> container, final Image<T> image, final T type, final int firstCell, final int endCell )
+	{
+		super( container, image, type );
+		
+		this.firstCell = firstCell;
+		this.endCell = endCell;
+		
+		reset();
+	}
+
+	@Override
+	public void reset()
+	{
+		type.updateIndex( -1 );
+		cell = firstCell;
+		getCellData( cell );
+		isClosed = false;
+	}
+
+	@Override
+	public boolean hasNext()
+	{			
+		if ( cell < endCell - 1 )
+			return true;
+		else if ( type.getIndex() < cellMaxI - 1 )
+			return true;
+		else
+			return false;
+	}	
+
+	/**
+	 * Moves steps pixels forward, whole cells in between are skipped without loading them,
+	 * which takes time linear in the number of skipped cells.
+	 * 
+	 * @throws IndexOutOfBoundsException - if this would move beyond the last cell of this cursor
+	 */
+	@Override
+	public void fwd( final long steps )
+	{
+		long i = type.getIndex() + steps;
+		
+		if ( i < cellMaxI )
+		{
+			type.incIndex( (int)steps );
+			return;
+		}
+		
+		int c = cell;
+		int size = cellMaxI;
+		
+		while ( i >= size )
+		{
+			if ( ++c >= endCell )
+				throw new IndexOutOfBoundsException( "CellSplittableCursor.fwd(): cannot move " + steps + " steps, only " + getNumRemaining() + " pixels remain in cells [" + firstCell + ", " + endCell + ")." );
+			
+			i -= size;
+			size = container.getCell( c ).getNumPixels();
+		}
+		
+		cell = c;
+		getCellData( cell );
+		type.updateIndex( (int)i );
+	}
+
+	@Override
+	public long getNumRemaining()
+	{
+		long numRemaining = cellMaxI - 1 - type.getIndex();
+		
+		for ( int c = cell + 1; c < endCell; ++c )
+			numRemaining += container.getCell( c ).getNumPixels();
+		
+		return numRemaining;
+	}
+
+	@Override
+	public CellSplittableCursor<T> trySplit()
+	{
+		// if the cursor has not been moved yet the current cell can be split off as well,
+		// otherwise it stays with this cursor
+		final int mid = ( cell + 1 + endCell ) / 2;
+		
+		if ( mid <= cell || mid >= endCell )
+			return null;
+		
+		final CellSplittableCursor<T> split = new CellSplittableCursor<T>( container, image, type.duplicateTypeOnSameDirectAccessContainer(), mid, endCell );
+		endCell = mid;
+		
+		return split;
+	}
+}
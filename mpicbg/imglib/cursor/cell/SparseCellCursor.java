@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.cursor.cell;
+
+import mpicbg.imglib.container.cell.SparseCellContainer;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.type.Type;
+
+/**
+ * A {@link CellCursor} that only iterates the occupied {@link mpicbg.imglib.container.cell.Cell}s
+ * of a {@link SparseCellContainer}, all skipped pixels are background.
+ */
+public class SparseCellCursor<T extends Type<T>> extends CellCursor<T>
+{
+	final protected SparseCellContainer<T,?> sparseContainer;
+	
+	public SparseCellCursor( final SparseCellContainer<T,?> container, final Image<T> image, final T type )
+	{
+		super( container, image, type );
+		
+		this.sparseContainer = container;
+		
+		// the superclass called reset() before sparseContainer was set
+		reset();
+	}
+	
+	@Override
+	public void reset()
+	{
+		if ( sparseContainer == null )
+			return;
+		
+		type.updateIndex( -1 );
+		cell = sparseContainer.getNextOccupiedCell( 0 );
+		
+		if ( cell < numCells )
+		{
+			getCellData( cell );
+		}
+		else
+		{
+			getCellData( 0 );
+			cellMaxI = 0;
+		}
+		
+		isClosed = false;
+	}
+	
+	@Override
+	public boolean hasNext()
+	{
+		if ( cell < numCells && type.getIndex() < cellMaxI - 1 )
+			return true;
+		else
+			return sparseContainer.getNextOccupiedCell( cell + 1 ) < numCells;
+	}
+	
+	@Override
+	public void fwd()
+	{
+		if ( type.getIndex() < cellMaxI - 1 )
+		{
+			type.incIndex();
+		}
+		else
+		{
+			cell = sparseContainer.getNextOccupiedCell( cell + 1 );
+			type.updateIndex( 0 );
+			getCellData( cell );
+		}
+	}
+}
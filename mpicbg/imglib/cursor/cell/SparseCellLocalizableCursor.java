@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.cursor.cell;
+
+import mpicbg.imglib.container.cell.SparseCellContainer;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.type.Type;
+
+/**
+ * A {@link CellLocalizableCursor} that only iterates the occupied {@link mpicbg.imglib.container.cell.Cell}s
+ * of a {@link SparseCellContainer}, all skipped pixels are background.
+ */
+public class SparseCellLocalizableCursor<T extends Type<T>> extends CellLocalizableCursor<T>
+{
+	final protected SparseCellContainer<T,?> sparseContainer;
+	
+	public SparseCellLocalizableCursor( final SparseCellContainer<T,?> container, final Image<T> image, final T type )
+	{
+		super( container, image, type );
+		
+		this.sparseContainer = container;
+		
+		// the superclasses called reset() before sparseContainer was set
+		reset();
+	}
+	
+	@Override
+	public void reset()
+	{
+		if ( sparseContainer == null )
+			return;
+		
+		type.updateIndex( -1 );
+		cell = sparseContainer.getNextOccupiedCell( 0 );
+		
+		if ( cell < numCells )
+		{
+			getCellData( cell );
+		}
+		else
+		{
+			getCellData( 0 );
+			cellMaxI = 0;
+		}
+		
+		isClosed = false;
+		
+		// the first fwd() only increments the index, so we start one pixel before the cell offset
+		for ( int d = 0; d < numDimensions; d++ )
+			position[ d ] = cellOffset[ d ];
+		
+		position[ 0 ]--;
+	}
+	
+	@Override
+	public boolean hasNext()
+	{
+		if ( cell < numCells && type.getIndex() < cellMaxI - 1 )
+			return true;
+		else
+			return sparseContainer.getNextOccupiedCell( cell + 1 ) < numCells;
+	}
+	
+	@Override
+	public void fwd()
+	{
+		if ( type.getIndex() < cellMaxI - 1 )
+		{
+			type.incIndex();
+			
+			for ( int d = 0; d < numDimensions; d++ )
+			{
+				if ( position[ d ] < cellDimensions[ d ] + cellOffset[ d ] - 1 )
+				{
+					position[ d ]++;
+					
+					for ( int e = 0; e < d; e++ )
+						position[ e ] = cellOffset[ e ];
+					
+					break;
+				}
+			}
+		}
+		else
+		{
+			cell = sparseContainer.getNextOccupiedCell( cell + 1 );
+			
+			if ( cell < numCells )
+			{
+				type.updateIndex( 0 );
+				getCellData( cell );
+				
+				for ( int d = 0; d < numDimensions; d++ )
+					position[ d ] = cellOffset[ d ];
+			}
+			else
+			{
+				// we have to run out of the image so that the next hasNext() fails
+				lastCell = -1;
+				type.updateIndex( cellMaxI );
+			}
+		}
+	}
+}
@@ -81,7 +81,7 @@ public class DynamicCursor<T extends Type<T>> extends CursorImpl<T> implements C
 	@Override
 	public void close() 
 	{ 
-		isClosed = true;
+		setClosed();
 		internalIndex = Integer.MAX_VALUE;
 	}
 
@@ -82,7 +82,7 @@ public class ImagePlusCursor<T extends Type<T>> extends CursorImpl<T> implements
 	@Override
 	public void close()
 	{
-		isClosed = true;
+		setClosed();
 		type.updateIndex( slicePixelCountMinus1 + 1 );
 		slice = maxSliceMinus1 + 1;
 	}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.cursor.imageplus;
+
+import mpicbg.imglib.container.imageplus.ImagePlusContainer;
+import mpicbg.imglib.cursor.SplittableCursor;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.type.Type;
+
+/**
+ * Iterates the slices [firstSlice, endSlice) of an {@link ImagePlusContainer}, splits are made between slices.
+ */
+public class ImagePlusSplittableCursor<T extends Type<T>> extends ImagePlusCursor<T> implements SplittableCursor<T>
+{
+	protected int firstSlice, endSlice;
+	
+	public ImagePlusSplittableCursor( final ImagePlusContainer<T,?> container, final Image<T> image, final T type )
+	{
+		this( container, image, type, 0, container.getDepth() );
+	}
+
+	public ImagePlusSplittableCursor( final ImagePlusContainer<T,?> container, final Image<T> image, final T type, final int firstSlice, final int endSlice )
+	{
+		super( container, image, type );
+		
+		this.firstSlice = firstSlice;
+		this.endSlice = endSlice;
+		
+		reset();
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if ( type.getIndex() < slicePixelCountMinus1 || slice < endSlice - 1 )
+			return true;
+		else
+			return false;
+	}
+
+	@Override
+	public void fwd( final long steps )
+	{
+		final long i = type.getIndex() + steps;
+		
+		if ( i <= slicePixelCountMinus1 )
+		{
+			type.incIndex( (int)steps );
+		}
+		else
+		{
+			final int slicePixelCount = slicePixelCountMinus1 + 1;
+			
+			slice += (int)( i / slicePixelCount );
+			type.updateIndex( (int)( i % slicePixelCount ) );
+			type.updateContainer( this );
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		setClosed();
+		type.updateIndex( slicePixelCountMinus1 + 1 );
+		slice = endSlice;
+	}
+
+	@Override
+	public void reset()
+	{
+		slice = firstSlice;
+		type.updateIndex( -1 );
+		type.updateContainer( this );
+		isClosed = false;
+	}
+
+	@Override
+	public long getNumRemaining() { return slicePixelCountMinus1 - type.getIndex() + (long)( endSlice - 1 - slice ) * ( slicePixelCountMinus1 + 1 ); }
+
+	@Override
+	public ImagePlusSplittableCursor<T> trySplit()
+	{
+		// if the cursor has not been moved yet the current slice can be split off as well,
+		// otherwise it stays with this cursor
+		final int mid = ( slice + 1 + endSlice ) / 2;
+		
+		if ( mid <= slice || mid >= endSlice )
+			return null;
+		
+		final ImagePlusSplittableCursor<T> split = new ImagePlusSplittableCursor<T>( container, image, type.duplicateTypeOnSameDirectAccessContainer(), mid, endSlice );
+		endSlice = mid;
+		
+		return split;
+	}
+}
@@ -170,7 +170,7 @@ public class ShapeListLocalizableByDimCursor< T extends Type< T > > extends Curs
 	}
 
 	@Override
-	public void close(){}
+	public void close(){ setClosed(); }
 
 	@Override
 	public int getStorageIndex(){ return 0; }
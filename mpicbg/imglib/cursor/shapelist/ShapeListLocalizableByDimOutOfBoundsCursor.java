@@ -44,10 +44,13 @@ public class ShapeListLocalizableByDimOutOfBoundsCursor<T extends Type<T>> exten
 	
 	boolean isOutOfBounds = false;
 	
+	final int[] tmp;
+	
 	public ShapeListLocalizableByDimOutOfBoundsCursor( final ShapeList<T> container, final Image<T> image, final OutOfBoundsStrategyFactory<T> outOfBoundsStrategyFactory ) 
 	{
 		super( container, image );
 		
+		this.tmp = new int[ numDimensions ];
 		this.outOfBoundsStrategyFactory = outOfBoundsStrategyFactory;
 		this.outOfBoundsStrategy = outOfBoundsStrategyFactory.createStrategy( this );
 		
@@ -232,12 +235,14 @@ public class ShapeListLocalizableByDimOutOfBoundsCursor<T extends Type<T>> exten
 	@Override
 	public void moveTo( final Localizable localizable )
 	{
-		moveTo( localizable.getPosition() );
+		localizable.getPosition( tmp );
+		moveTo( tmp );
 	}
 
 	@Override
 	public void setPosition( final Localizable localizable )
 	{
-		setPosition( localizable.getPosition() );
+		localizable.getPosition( tmp );
+		setPosition( tmp );
 	}
 }
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.cursor.span;
+
+import mpicbg.imglib.container.basictypecontainer.DataAccess;
+
+/**
+ * Iterates all pixels of a container as spans, i.e. runs of pixels that are stored consecutively 
+ * in one {@link DataAccess}. There is one span for an {@link mpicbg.imglib.container.array.Array},
+ * one per page of a {@link mpicbg.imglib.container.array.LargeArray}, one per cell of a 
+ * {@link mpicbg.imglib.container.cell.CellContainer} and one per plane of an 
+ * {@link mpicbg.imglib.container.imageplus.ImagePlusContainer}.
+ * <p>
+ * The pixels of the current span are [getStartIndex(), getStartIndex() + getLength()) in the {@link DataAccess}
+ * returned by {@link #getAccess()}, their entities are [start * entitiesPerPixel, (start + length) * entitiesPerPixel).
+ * Algorithms can therefore run primitive loops, e.g. on 
+ * {@link mpicbg.imglib.container.basictypecontainer.array.FloatArray#getCurrentStorageArray()}, 
+ * independent of the container. The order of the spans is the order of the pixels of a {@link mpicbg.imglib.cursor.Cursor}
+ * on the same container.
+ * The span of an empty {@link mpicbg.imglib.container.basictypecontainer.array.SparseArrayDataAccess} has no storage 
+ * array (null) as reading must not allocate it, all its pixels are background. Call 
+ * {@link mpicbg.imglib.container.basictypecontainer.array.SparseArrayDataAccess#allocate()} to write into it.
+ * <p>
+ * Usage:
+ * <pre>
+ * final SpanIterator&lt;FloatArray&gt; spans = ...;
+ * while ( spans.hasNext() )
+ * {
+ *	spans.fwd();
+ *	final float[] data = spans.getAccess().getCurrentStorageArray();
+ *	for ( int i = spans.getStartIndex(); i &lt; spans.getStartIndex() + spans.getLength(); ++i )
+ *		data[ i ] *= 2;
+ * }
+ * spans.close();
+ * </pre>
+ */
+public abstract class SpanIterator<A extends DataAccess>
+{
+	final protected int numSpans, entitiesPerPixel;
+	
+	protected int span;
+	protected A access;
+	protected int start, length;
+	
+	public SpanIterator( final int numSpans, final int entitiesPerPixel )
+	{
+		this.numSpans = numSpans;
+		this.entitiesPerPixel = entitiesPerPixel;
+		
+		reset();
+	}
+	
+	/**
+	 * Sets access, start and length of a span
+	 * 
+	 * @param span - the index of the span
+	 */
+	protected abstract void update( final int span );
+	
+	public boolean hasNext() { return span < numSpans - 1; }
+	
+	public void fwd()
+	{
+		++span;
+		update( span );
+	}
+	
+	/**
+	 * Moves to an arbitrary span, e.g. to process the spans in parallel
+	 */
+	public void setSpan( final int span )
+	{
+		if ( span < 0 || span >= numSpans )
+			throw new IndexOutOfBoundsException( "SpanIterator.setSpan(): " + span + " is not in [0, " + numSpans + ")" );
+		
+		this.span = span;
+		update( span );
+	}
+	
+	public void reset()
+	{
+		span = -1;
+		access = null;
+		start = length = 0;
+	}
+	
+	public void close() { access = null; }
+	
+	public A getAccess() { return access; }
+	public int getStartIndex() { return start; }
+	public int getLength() { return length; }
+	public int getSpanIndex() { return span; }
+	public int getNumSpans() { return numSpans; }
+	public int getNumEntitiesPerPixel() { return entitiesPerPixel; }
+}
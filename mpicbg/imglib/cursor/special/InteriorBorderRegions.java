@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.cursor.special;
+
+import java.util.ArrayList;
+
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.type.Type;
+
+/**
+ * Splits an image of a given size, for a kernel reaching from minOffset to maxOffset relative to
+ * its center, into one interior region where the kernel never leaves the image and a set of
+ * disjoint border regions covering the remaining pixels. Only the border regions need cursors
+ * with an {@link mpicbg.imglib.outofbounds.OutOfBoundsStrategy}, the interior can be served by plain
+ * in-bounds cursors.
+ * 
+ * Border region 2*d+0 and 2*d+1 (if not empty) are the low and high slab in dimension d, limited to
+ * the interior range in all dimensions < d and spanning the full image in all dimensions > d.
+ */
+public class InteriorBorderRegions
+{
+	final int numDimensions;
+	final int[] dim, minOffset, maxOffset;
+	final int[] interiorOffset, interiorSize;
+	final int[][] borderOffsets, borderSizes;
+
+	/**
+	 * @param dim - the dimensions of the image
+	 * @param radius - the radius of a symmetric kernel in each dimension
+	 */
+	public InteriorBorderRegions( final int[] dim, final int[] radius )
+	{
+		this( dim, negate( radius ), radius );
+	}
+
+	/**
+	 * @param dim - the dimensions of the image
+	 * @param minOffset - the smallest offset (&lt;= 0) of the kernel relative to the current pixel
+	 * @param maxOffset - the largest offset (&gt;= 0) of the kernel relative to the current pixel
+	 */
+	public InteriorBorderRegions( final int[] dim, final int[] minOffset, final int[] maxOffset )
+	{
+		if ( dim.length != minOffset.length || dim.length != maxOffset.length )
+			throw new RuntimeException( "InteriorBorderRegions(): dimensionality of image and kernel offsets do not match." );
+
+		this.numDimensions = dim.length;
+		this.dim = dim.clone();
+		this.minOffset = minOffset.clone();
+		this.maxOffset = maxOffset.clone();
+		this.interiorOffset = new int[ numDimensions ];
+		this.interiorSize = new int[ numDimensions ];
+
+		for ( int d = 0; d < numDimensions; ++d )
+		{
+			if ( minOffset[ d ] > 0 || maxOffset[ d ] < 0 )
+				throw new RuntimeException( "InteriorBorderRegions(): kernel offsets must contain the center pixel (minOffset <= 0 <= maxOffset)." );
+
+			interiorOffset[ d ] = Math.min( -minOffset[ d ], dim[ d ] );
+			interiorSize[ d ] = Math.max( 0, dim[ d ] - maxOffset[ d ] - interiorOffset[ d ] );
+		}
+
+		final ArrayList<int[]> offsets = new ArrayList<int[]>();
+		final ArrayList<int[]> sizes = new ArrayList<int[]>();
+
+		for ( int d = 0; d < numDimensions; ++d )
+		{
+			final int interiorEnd = interiorOffset[ d ] + interiorSize[ d ];
+
+			// low and high slab in dimension d
+			for ( int side = 0; side < 2; ++side )
+			{
+				final int[] offset = new int[ numDimensions ];
+				final int[] size = new int[ numDimensions ];
+
+				for ( int e = 0; e < d; ++e )
+				{
+					offset[ e ] = interiorOffset[ e ];
+					size[ e ] = interiorSize[ e ];
+				}
+
+				if ( side == 0 )
+				{
+					offset[ d ] = 0;
+					size[ d ] = interiorOffset[ d ];
+				}
+				else
+				{
+					offset[ d ] = interiorEnd;
+					size[ d ] = dim[ d ] - interiorEnd;
+				}
+
+				for ( int e = d + 1; e < numDimensions; ++e )
+				{
+					offset[ e ] = 0;
+					size[ e ] = dim[ e ];
+				}
+
+				if ( getNumPixels( size ) > 0 )
+				{
+					offsets.add( offset );
+					sizes.add( size );
+				}
+			}
+		}
+
+		borderOffsets = offsets.toArray( new int[ offsets.size() ][] );
+		borderSizes = sizes.toArray( new int[ sizes.size() ][] );
+	}
+
+	public int getNumDimensions() { return numDimensions; }
+
+	public boolean hasInterior() { return getNumPixels( interiorSize ) > 0; }
+	public int[] getInteriorOffset() { return interiorOffset.clone(); }
+	public int[] getInteriorSize() { return interiorSize.clone(); }
+	public int getNumInteriorPixels() { return getNumPixels( interiorSize ); }
+
+	public int getNumBorderRegions() { return borderOffsets.length; }
+	public int[] getBorderOffset( final int region ) { return borderOffsets[ region ].clone(); }
+	public int[] getBorderSize( final int region ) { return borderSizes[ region ].clone(); }
+
+	public int getNumBorderPixels()
+	{
+		int count = 0;
+
+		for ( final int[] size : borderSizes )
+			count += getNumPixels( size );
+
+		return count;
+	}
+
+	/**
+	 * @param position - a position inside the image
+	 * @return true if the kernel centered at this position lies completely inside the image
+	 */
+	public boolean isInterior( final int[] position )
+	{
+		for ( int d = 0; d < numDimensions; ++d )
+		{
+			final int p = position[ d ] - interiorOffset[ d ];
+
+			if ( p < 0 || p >= interiorSize[ d ] )
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * @param position - any position
+	 * @param d - the dimension
+	 * @return true if the kernel centered at this position does not leave the image in dimension d
+	 */
+	public boolean isInterior( final int[] position, final int d )
+	{
+		final int p = position[ d ] - interiorOffset[ d ];
+		return p >= 0 && p < interiorSize[ d ];
+	}
+
+	/**
+	 * Creates a {@link RegionOfInterestCursor} over the interior region backed by a plain in-bounds cursor.
+	 * 
+	 * @param image - the image to iterate
+	 * @return the cursor or null if there is no interior
+	 */
+	public <T extends Type<T>> RegionOfInterestCursor<T> createInteriorCursor( final Image<T> image )
+	{
+		if ( !hasInterior() )
+			return null;
+
+		return image.createLocalizableByDimCursor().createRegionOfInterestCursor( interiorOffset, interiorSize );
+	}
+
+	/**
+	 * Creates a {@link RegionOfInterestCursor} over one of the border regions backed by a plain in-bounds cursor,
+	 * the neighborhood of its pixels needs an {@link mpicbg.imglib.outofbounds.OutOfBoundsStrategy} though.
+	 * 
+	 * @param image - the image to iterate
+	 * @param region - the index of the border region
+	 * @return the cursor
+	 */
+	public <T extends Type<T>> RegionOfInterestCursor<T> createBorderCursor( final Image<T> image, final int region )
+	{
+		return image.createLocalizableByDimCursor().createRegionOfInterestCursor( borderOffsets[ region ], borderSizes[ region ] );
+	}
+
+	@Override
+	public String toString()
+	{
+		return "InteriorBorderRegions: interior " + getNumInteriorPixels() + " px in [" + toString( interiorOffset ) + "] size [" + 
+			   toString( interiorSize ) + "], " + getNumBorderRegions() + " border regions with " + getNumBorderPixels() + " px";
+	}
+
+	protected static String toString( final int[] values )
+	{
+		String s = "" + values[ 0 ];
+
+		for ( int d = 1; d < values.length; ++d )
+			s += ", " + values[ d ];
+
+		return s;
+	}
+
+	protected static int getNumPixels( final int[] size )
+	{
+		int count = 1;
+
+		for ( final int s : size )
+			count *= s;
+
+		return count;
+	}
+
+	protected static int[] negate( final int[] values )
+	{
+		final int[] negated = new int[ values.length ];
+
+		for ( int d = 0; d < values.length; ++d )
+			negated[ d ] = -values[ d ];
+
+		return negated;
+	}
+}
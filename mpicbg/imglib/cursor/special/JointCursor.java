@@ -0,0 +1,291 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.cursor.special;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import mpicbg.imglib.container.Container;
+import mpicbg.imglib.container.array.Array;
+import mpicbg.imglib.container.array.LargeArray;
+import mpicbg.imglib.container.cell.CellContainer;
+import mpicbg.imglib.container.imageplus.ImagePlusContainer;
+import mpicbg.imglib.cursor.Cursor;
+import mpicbg.imglib.cursor.CursorImpl;
+import mpicbg.imglib.cursor.LocalizableByDimCursor;
+import mpicbg.imglib.cursor.LocalizableCursor;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.type.Type;
+
+/**
+ * Iterates several images of the same size in lock step. The first image is iterated by a {@link Cursor}, 
+ * all other images are linked to it by link(), which returns a {@link Link} that gives access to the pixel 
+ * of the linked image at the current position.
+ * <p>
+ * If a linked image has the same storage layout as the first one (e.g. two {@link Array}s, or two 
+ * {@link CellContainer}s with the same cell size), the {@link Type} of the {@link Link} is moved by the
+ * index of the {@link Cursor} directly, so all images pay for one iteration. Otherwise the linked image 
+ * is localized by a {@link LocalizableByDimCursor} at each pixel.
+ * <pre>
+ * final JointCursor&lt;FloatType&gt; cursor = new JointCursor&lt;FloatType&gt;( out );
+ * final JointCursor.Link&lt;FloatType&gt; a = cursor.link( imageA );
+ * final JointCursor.Link&lt;FloatType&gt; b = cursor.link( imageB );
+ * 
+ * while ( cursor.hasNext() )
+ * {
+ * 	cursor.fwd();
+ * 	cursor.getType().set( a.getType() );
+ * 	cursor.getType().add( b.getType() );
+ * }
+ * cursor.close();
+ * </pre>
+ */
+public class JointCursor<T extends Type<T>> extends CursorImpl<T>
+{
+	/**
+	 * A linked image, getType() returns its pixel at the current position of the {@link JointCursor}.
+	 */
+	public static class Link<S extends Type<S>>
+	{
+		final Image<S> image;
+		
+		// set if the image shares the index of the JointCursor
+		final S linkedType;
+		
+		// set otherwise
+		final LocalizableByDimCursor<S> cursor;
+		
+		Link( final Image<S> image, final S linkedType, final LocalizableByDimCursor<S> cursor )
+		{
+			this.image = image;
+			this.linkedType = linkedType;
+			this.cursor = cursor;
+		}
+		
+		public S getType() { return linkedType != null ? linkedType : cursor.getType(); }
+		public Image<S> getImage() { return image; }
+		
+		/**
+		 * @return - true if the image is moved by the index of the {@link JointCursor}, false if it is localized
+		 */
+		public boolean isIndexCompatible() { return linkedType != null; }
+	}
+	
+	Cursor<T> cursor;
+	
+	final ArrayList<Link<?>> links = new ArrayList<Link<?>>();
+	
+	// the types that share the index of the cursor and the cursors that have to be localized
+	Type<?>[] linkedTypes = new Type<?>[ 0 ];
+	LocalizableByDimCursor<?>[] linkedCursors = new LocalizableByDimCursor<?>[ 0 ];
+	
+	int storageIndex, arrayIndex;
+	boolean started, localize, isActive;
+	final boolean singleStorage;
+	
+	public JointCursor( final Image<T> image )
+	{
+		super( image.getContainer(), image );
+		
+		this.cursor = image.createCursor();
+		this.singleStorage = Array.class.isInstance( image.getContainer() );
+		this.isActive = true;
+		
+		reset();
+	}
+	
+	/**
+	 * Links another image of the same size to this cursor. All images have to be linked before the iteration starts.
+	 * 
+	 * @param image - the image to link
+	 * @return - the {@link Link} giving access to the pixels of the image
+	 */
+	public <S extends Type<S>> Link<S> link( final Image<S> image )
+	{
+		if ( started )
+			throw new RuntimeException( "JointCursor.link(): images can only be linked before the iteration starts." );
+		
+		if ( !this.image.getContainer().compareStorageContainerDimensions( image.getContainer() ) )
+			throw new RuntimeException( "JointCursor.link(): " + image + " has different dimensions than " + this.image );
+		
+		final Link<S> link;
+		
+		if ( isIndexCompatible( this.image.getContainer(), image.getContainer() ) )
+		{
+			// a type on the container of the linked image, which we move with the index of our cursor
+			final Cursor<S> c = image.createCursor();
+			final S linkedType = c.getType().duplicateTypeOnSameDirectAccessContainer();
+			c.close();
+			
+			// an Array has only one storage, which never changes during the iteration
+			if ( singleStorage )
+				linkedType.updateContainer( this );
+			
+			link = new Link<S>( image, linkedType, null );
+			
+			linkedTypes = Arrays.copyOf( linkedTypes, linkedTypes.length + 1 );
+			linkedTypes[ linkedTypes.length - 1 ] = linkedType;
+		}
+		else
+		{
+			// the linked cursors are positioned by our cursor
+			if ( !LocalizableCursor.class.isInstance( cursor ) )
+			{
+				cursor.close();
+				cursor = this.image.createLocalizableCursor();
+			}
+			
+			link = new Link<S>( image, null, image.createLocalizableByDimCursor() );
+			
+			linkedCursors = Arrays.copyOf( linkedCursors, linkedCursors.length + 1 );
+			linkedCursors[ linkedCursors.length - 1 ] = link.cursor;
+			localize = true;
+		}
+		
+		links.add( link );
+		
+		return link;
+	}
+	
+	@Override
+	public void reset()
+	{
+		cursor.reset();
+		storageIndex = -1;
+		arrayIndex = -2;
+		started = false;
+	}
+
+	@Override
+	public boolean hasNext() { return cursor.hasNext(); }
+
+	@Override
+	public void fwd()
+	{
+		started = true;
+		cursor.fwd();
+		
+		final int i = cursor.getArrayIndex();
+		
+		// the cursor leaves the current cell, page or plane only if the index does not simply increase; an Array 
+		// has only one storage and must not even check, a call in its loop makes the JIT reload all linked types
+		if ( !singleStorage && i != arrayIndex + 1 )
+			updateStorage();
+		
+		arrayIndex = i;
+		
+		final Type<?>[] linkedTypes = this.linkedTypes;
+		
+		for ( int j = 0; j < linkedTypes.length; ++j )
+			linkedTypes[ j ].updateIndex( i );
+		
+		if ( localize )
+			localize();
+	}
+	
+	final protected void updateStorage()
+	{
+		final int s = cursor.getStorageIndex();
+		
+		if ( s != storageIndex )
+		{
+			storageIndex = s;
+			
+			for ( final Type<?> linkedType : linkedTypes )
+				linkedType.updateContainer( this );
+		}
+	}
+	
+	final protected void localize()
+	{
+		final LocalizableCursor<T> localizableCursor = (LocalizableCursor<T>)cursor;
+		
+		for ( final LocalizableByDimCursor<?> linkedCursor : linkedCursors )
+			linkedCursor.setPosition( localizableCursor );
+	}
+	
+	@Override
+	public T getType() { return cursor.getType(); }
+	
+	/**
+	 * @return - the {@link Cursor} iterating the first image, a {@link LocalizableCursor} if any image is not index compatible
+	 */
+	public Cursor<T> getCursor() { return cursor; }
+	
+	public int getNumLinks() { return links.size(); }
+	
+	public Link<?> getLink( final int i ) { return links.get( i ); }
+
+	@Override
+	public int getArrayIndex() { return cursor.getArrayIndex(); }
+
+	@Override
+	public int getStorageIndex() { return cursor.getStorageIndex(); }
+
+	@Override
+	public boolean isActive() { return cursor.isActive() && isActive; }
+
+	@Override
+	public void close()
+	{
+		cursor.close();
+		
+		for ( final Link<?> link : links )
+		{
+			if ( link.cursor != null )
+				link.cursor.close();
+			else if ( CellContainer.class.isInstance( link.image.getContainer() ) )
+				( (CellContainer<?,?>)link.image.getContainer() ).releaseCellData( this );
+		}
+		
+		isActive = false;
+	}
+	
+	/**
+	 * @return - true if two containers store their pixels in the same layout, so that the 
+	 * storage and array index of a {@link Cursor} on one addresses the same pixel in the other
+	 */
+	public static boolean isIndexCompatible( final Container<?> container1, final Container<?> container2 )
+	{
+		if ( !container1.compareStorageContainerCompatibility( container2 ) || container1.getClass() != container2.getClass() )
+			return false;
+		
+		if ( Array.class.isInstance( container1 ) || ImagePlusContainer.class.isInstance( container1 ) )
+			return true;
+		
+		if ( CellContainer.class.isInstance( container1 ) )
+			return Arrays.equals( ( (CellContainer<?,?>)container1 ).getCellSize(), ( (CellContainer<?,?>)container2 ).getCellSize() );
+		
+		if ( LargeArray.class.isInstance( container1 ) )
+			return ( (LargeArray<?,?>)container1 ).getPageSizeBits() == ( (LargeArray<?,?>)container2 ).getPageSizeBits();
+		
+		return false;
+	}
+}
@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.cursor.special;
+
+import mpicbg.imglib.cursor.CursorImpl;
+import mpicbg.imglib.cursor.LocalizableByDimCursor;
+import mpicbg.imglib.cursor.LocalizableCursor;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.outofbounds.OutOfBoundsStrategyFactory;
+import mpicbg.imglib.type.Type;
+
+/**
+ * Walks the digital line between two points of an n-dimensional image (Bresenham). The dimension with the 
+ * largest distance between the two points moves by one pixel in every step, all other dimensions follow 
+ * whenever their error term overflows. The {@link LocalizableByDimCursor} is only moved by fwd(dim) and bck(dim), 
+ * which is much cheaper than setting the position of every pixel of the line.
+ * <p>
+ * The line has to lie inside the image unless the {@link LocalizableByDimCursor} has an 
+ * {@link mpicbg.imglib.outofbounds.OutOfBoundsStrategy}. One {@link LineCursor} can walk many lines by 
+ * calling {@link #reset(int[], int[])}.
+ */
+public class LineCursor<T extends Type<T>> extends CursorImpl<T> implements LocalizableCursor<T>
+{
+	final LocalizableByDimCursor<T> cursor;
+	final boolean ownCursor;
+	final int numDimensions;
+	final int[] from, to, position;
+	
+	// the absolute distance, the direction and the error term for each dimension
+	final int[] delta, sign, error;
+	
+	boolean isActive, debug = false;
+	int i, numPixels, drivingDim;
+	
+	public LineCursor( final LocalizableByDimCursor<T> cursor, final int[] from, final int[] to )
+	{
+		this( cursor, from, to, false );
+	}
+
+	public LineCursor( final Image<T> image, final int[] from, final int[] to )
+	{
+		this( image.createLocalizableByDimCursor(), from, to, true );
+	}
+
+	public LineCursor( final Image<T> image, final int[] from, final int[] to, final OutOfBoundsStrategyFactory<T> outOfBoundsFactory )
+	{
+		this( image.createLocalizableByDimCursor( outOfBoundsFactory ), from, to, true );
+	}
+
+	protected LineCursor( final LocalizableByDimCursor<T> cursor, final int[] from, final int[] to, final boolean ownCursor )
+	{
+		super( cursor.getStorageContainer(), cursor.getImage() );
+		
+		this.cursor = cursor;
+		this.ownCursor = ownCursor;
+		this.numDimensions = cursor.getImage().getNumDimensions();
+		
+		this.from = new int[ numDimensions ];
+		this.to = new int[ numDimensions ];
+		this.position = new int[ numDimensions ];
+		this.delta = new int[ numDimensions ];
+		this.sign = new int[ numDimensions ];
+		this.error = new int[ numDimensions ];
+		
+		this.isActive = true;
+		
+		reset( from, to );
+	}
+	
+	/**
+	 * Walks another line with the same cursor, the arrays are copied.
+	 * 
+	 * @param from - the first pixel of the line
+	 * @param to - the last pixel of the line
+	 */
+	public void reset( final int[] from, final int[] to )
+	{
+		if ( from.length != numDimensions || to.length != numDimensions )
+			throw new RuntimeException( "LineCursor.reset(): the end points of the line must have " + numDimensions + " dimensions." );
+		
+		drivingDim = 0;
+		
+		for ( int d = 0; d < numDimensions; ++d )
+		{
+			this.from[ d ] = from[ d ];
+			this.to[ d ] = to[ d ];
+			
+			final int dist = to[ d ] - from[ d ];
+			delta[ d ] = Math.abs( dist );
+			sign[ d ] = dist < 0 ? -1 : 1;
+			
+			if ( delta[ d ] > delta[ drivingDim ] )
+				drivingDim = d;
+		}
+		
+		numPixels = delta[ drivingDim ] + 1;
+		
+		reset();
+	}
+
+	@Override
+	public void reset()
+	{
+		i = -1;
+		
+		final int n = delta[ drivingDim ];
+		
+		for ( int d = 0; d < numDimensions; ++d )
+		{
+			position[ d ] = from[ d ];
+			error[ d ] = 2 * delta[ d ] - n;
+		}
+		
+		// the first pixel is at from, like in the RegionOfInterestCursor the cursor is placed here already
+		cursor.setPosition( from );
+	}
+
+	@Override
+	public boolean hasNext() { return i < numPixels - 1; }
+
+	@Override
+	public void fwd()
+	{
+		++i;
+		
+		if ( i == 0 )
+			return;
+		
+		final int twoN = 2 * delta[ drivingDim ];
+		
+		for ( int d = 0; d < numDimensions; ++d )
+		{
+			if ( d == drivingDim )
+			{
+				move( d );
+			}
+			else
+			{
+				if ( error[ d ] > 0 )
+				{
+					move( d );
+					error[ d ] -= twoN;
+				}
+				
+				error[ d ] += 2 * delta[ d ];
+			}
+		}
+	}
+	
+	final protected void move( final int d )
+	{
+		if ( sign[ d ] > 0 )
+		{
+			cursor.fwd( d );
+			++position[ d ];
+		}
+		else
+		{
+			cursor.bck( d );
+			--position[ d ];
+		}
+	}
+	
+	/**
+	 * @return - the number of pixels of the line, including both end points
+	 */
+	public int getNumPixels() { return numPixels; }
+	
+	/**
+	 * @return - the index of the current pixel along the line, 0 is the first one
+	 */
+	public int getIndex() { return i; }
+	
+	public LocalizableByDimCursor<T> getCursor() { return cursor; }
+	
+	@Override
+	public T getType() { return cursor.getType(); }
+
+	@Override
+	public void close() 
+	{
+		if ( ownCursor )
+			cursor.close();
+		
+		isActive = false;
+	}
+
+	@Override
+	public int getArrayIndex() { return cursor.getArrayIndex(); }
+
+	@Override
+	public int getStorageIndex() { return cursor.getStorageIndex(); }
+
+	@Override
+	public boolean isActive() { return cursor.isActive() && isActive; }
+
+	@Override
+	public void setDebug( final boolean debug ) { this.debug = debug; }
+
+	@Override
+	public void getPosition( final int[] position )
+	{
+		for ( int d = 0; d < numDimensions; ++d )
+			position[ d ] = this.position[ d ];
+	}
+
+	@Override
+	public int[] getPosition() { return position.clone(); }
+
+	@Override
+	public int getPosition( final int dim ) { return position[ dim ]; }
+
+	@Override
+	public String getPositionAsString()
+	{
+		String pos = "(" + position[ 0 ];
+		
+		for ( int d = 1; d < numDimensions; d++ )
+			pos += ", " + position[ d ];
+		
+		pos += ")";
+		
+		return pos;
+	}
+	
+	@Override
+	public String toString() { return getPositionAsString() + " = " + getType(); }
+}
@@ -49,4 +49,20 @@ public class LocalNeighborhoodCursorFactory
 			return new LocalNeighborhoodCursor<T>( cursor );
 		}
 	}
+	
+	/**
+	 * Creates a {@link NeighborhoodCursor} on an arbitrary neighborhood, e.g. NeighborhoodCursor.createBoxOffsets( radius, false ) 
+	 */
+	public static <T extends Type<T>>NeighborhoodCursor<T> createNeighborhoodCursor( final LocalizableByDimCursor<T> cursor, final int[][] offsets )
+	{
+		return new NeighborhoodCursor<T>( cursor, offsets );
+	}
+
+	/**
+	 * Creates a {@link SlidingWindowCursor} that moves the window given by the offsets along dimension 0 and reports entering and leaving pixels to the listener 
+	 */
+	public static <T extends Type<T>>SlidingWindowCursor<T> createSlidingWindowCursor( final LocalizableByDimCursor<T> cursor, final int[][] offsets, final SlidingWindowListener<T> listener )
+	{
+		return new SlidingWindowCursor<T>( cursor, offsets, listener );
+	}
 }
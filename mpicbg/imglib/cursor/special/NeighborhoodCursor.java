@@ -0,0 +1,317 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.cursor.special;
+
+import java.util.ArrayList;
+
+import mpicbg.imglib.container.array.Array;
+import mpicbg.imglib.cursor.CursorImpl;
+import mpicbg.imglib.cursor.LocalizableByDimCursor;
+import mpicbg.imglib.cursor.LocalizableCursor;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.type.Type;
+import mpicbg.imglib.type.logic.BitType;
+
+/**
+ * Iterates an arbitrary n-dimensional neighborhood, given as a list of offsets relative to the position of a 
+ * {@link LocalizableByDimCursor}. Box, ball or {@link mpicbg.imglib.algorithm.roi.StructuringElement} shaped
+ * offsets can be created with the static methods.
+ * <p>
+ * If the neighborhood lies completely inside an {@link Array} the pixels are addressed by precomputed 
+ * index offsets, otherwise the {@link LocalizableByDimCursor} is moved from neighbor to neighbor, so 
+ * that its {@link mpicbg.imglib.outofbounds.OutOfBoundsStrategy} applies.
+ * <p>
+ * Like the {@link LocalNeighborhoodCursor}, call update() after moving the {@link LocalizableByDimCursor} 
+ * and reset() to move it back to the center after iterating the neighborhood.
+ */
+public class NeighborhoodCursor<T extends Type<T>> extends CursorImpl<T>
+{
+	final LocalizableByDimCursor<T> cursor;
+	final int numDimensions, numOffsets;
+	
+	// the position of each neighbor relative to the center
+	final int[][] offsets;
+	
+	// the move from the previous neighbor (or the center) to each neighbor 
+	final int[][] moves;
+	
+	// the bounding box of the offsets
+	final int[] min, max;
+	
+	final int[] dim, center;
+	
+	// only set if the cursor iterates an Array 
+	final Array<T,?> array;
+	final int[] indexOffsets;
+	final T arrayType;
+	
+	int i, centerIndex;
+	boolean interior, isActive;
+	
+	public NeighborhoodCursor( final LocalizableByDimCursor<T> cursor, final int[][] offsets )
+	{
+		super( cursor.getStorageContainer(), cursor.getImage() );
+		
+		this.cursor = cursor;
+		this.numDimensions = cursor.getImage().getNumDimensions();
+		this.numOffsets = offsets.length;
+		this.offsets = new int[ numOffsets ][];
+		this.moves = new int[ numOffsets ][ numDimensions ];
+		this.min = new int[ numDimensions ];
+		this.max = new int[ numDimensions ];
+		this.dim = cursor.getImage().getDimensions();
+		this.center = new int[ numDimensions ];
+		
+		for ( int j = 0; j < numOffsets; ++j )
+		{
+			if ( offsets[ j ].length != numDimensions )
+				throw new RuntimeException( "NeighborhoodCursor(): offset " + j + " has " + offsets[ j ].length + " instead of " + numDimensions + " dimensions." );
+			
+			this.offsets[ j ] = offsets[ j ].clone();
+			
+			for ( int d = 0; d < numDimensions; ++d )
+			{
+				moves[ j ][ d ] = j == 0 ? offsets[ j ][ d ] : offsets[ j ][ d ] - offsets[ j - 1 ][ d ];
+				min[ d ] = Math.min( min[ d ], offsets[ j ][ d ] );
+				max[ d ] = Math.max( max[ d ], offsets[ j ][ d ] );
+			}
+		}
+		
+		if ( Array.class.isInstance( cursor.getStorageContainer() ) )
+		{
+			this.array = (Array<T,?>)cursor.getStorageContainer();
+			this.indexOffsets = new int[ numOffsets ];
+			
+			final int[] steps = Array.createAllocationSteps( dim );
+			
+			for ( int j = 0; j < numOffsets; ++j )
+				for ( int d = 0; d < numDimensions; ++d )
+					indexOffsets[ j ] += offsets[ j ][ d ] * steps[ d ];
+			
+			this.arrayType = cursor.getType().duplicateTypeOnSameDirectAccessContainer();
+			this.arrayType.updateContainer( this );
+		}
+		else
+		{
+			this.array = null;
+			this.indexOffsets = null;
+			this.arrayType = null;
+		}
+		
+		this.isActive = true;
+		
+		update();
+	}
+
+	/**
+	 * Takes the current position of the {@link LocalizableByDimCursor} as new center.
+	 */
+	public void update()
+	{
+		cursor.getPosition( center );
+		
+		interior = true;
+		
+		for ( int d = 0; d < numDimensions && interior; ++d )
+			if ( center[ d ] + min[ d ] < 0 || center[ d ] + max[ d ] >= dim[ d ] )
+				interior = false;
+		
+		if ( interior && array != null )
+			centerIndex = array.getPos( center );
+		
+		i = -1;
+	}
+
+	@Override
+	public void reset()
+	{
+		if ( i >= 0 && ( array == null || !interior ) )
+			cursor.setPosition( center );
+		
+		i = -1;
+	}
+	
+	@Override
+	public boolean hasNext() { return i < numOffsets - 1; }
+
+	@Override
+	public void fwd()
+	{
+		++i;
+		
+		if ( interior && array != null )
+		{
+			arrayType.updateIndex( centerIndex + indexOffsets[ i ] );
+		}
+		else
+		{
+			final int[] move = moves[ i ];
+			
+			for ( int d = 0; d < numDimensions; ++d )
+				if ( move[ d ] != 0 )
+					cursor.move( move[ d ], d );
+		}
+	}
+
+	@Override
+	public T getType() { return ( interior && array != null ) ? arrayType : cursor.getType(); }
+	
+	/**
+	 * @return - true if the whole neighborhood of the current center is inside the image
+	 */
+	public boolean isInterior() { return interior; }
+	
+	public int getNumNeighbors() { return numOffsets; }
+	
+	public int getRelativePosition( final int d ) { return offsets[ i ][ d ]; }
+	
+	public void getRelativePosition( final int[] position )
+	{
+		for ( int d = 0; d < numDimensions; ++d )
+			position[ d ] = offsets[ i ][ d ];
+	}
+	
+	public void getPosition( final int[] position )
+	{
+		for ( int d = 0; d < numDimensions; ++d )
+			position[ d ] = center[ d ] + offsets[ i ][ d ];
+	}
+
+	@Override
+	public void close() { isActive = false; }
+
+	@Override
+	public int getStorageIndex() { return ( interior && array != null ) ? 0 : cursor.getStorageIndex(); }
+
+	@Override
+	public boolean isActive() { return cursor.isActive() && isActive; }
+
+	/**
+	 * @param radius - the radius in each dimension, the box has the size 2 * radius + 1
+	 * @param includeCenter - if false the offset 0 is left out
+	 * @return - the offsets of all pixels of the box in the order of a linear iteration
+	 */
+	public static int[][] createBoxOffsets( final int[] radius, final boolean includeCenter )
+	{
+		final ArrayList<int[]> offsets = new ArrayList<int[]>();
+		final int[] offset = new int[ radius.length ];
+		
+		for ( int d = 0; d < radius.length; ++d )
+			offset[ d ] = -radius[ d ];
+		
+		while ( true )
+		{
+			if ( includeCenter || !isZero( offset ) )
+				offsets.add( offset.clone() );
+
+			int d = 0;
+			for ( ; d < radius.length; ++d )
+			{
+				if ( offset[ d ] < radius[ d ] )
+				{
+					++offset[ d ];
+					break;
+				}
+				offset[ d ] = -radius[ d ];
+			}
+			
+			if ( d == radius.length )
+				break;
+		}
+		
+		return offsets.toArray( new int[ offsets.size() ][] );
+	}
+	
+	/**
+	 * @return - the offsets of all pixels with a euclidean distance &lt;= radius
+	 */
+	public static int[][] createBallOffsets( final int numDimensions, final double radius, final boolean includeCenter )
+	{
+		final int[] r = new int[ numDimensions ];
+		
+		for ( int d = 0; d < numDimensions; ++d )
+			r[ d ] = (int)radius;
+		
+		final ArrayList<int[]> offsets = new ArrayList<int[]>();
+		
+		for ( final int[] offset : createBoxOffsets( r, includeCenter ) )
+		{
+			double dist = 0;
+			
+			for ( int d = 0; d < numDimensions; ++d )
+				dist += offset[ d ] * offset[ d ];
+			
+			if ( dist <= radius * radius )
+				offsets.add( offset );
+		}
+		
+		return offsets.toArray( new int[ offsets.size() ][] );
+	}
+	
+	/**
+	 * Creates the offsets of all pixels that are set in a binary shape like a {@link mpicbg.imglib.algorithm.roi.StructuringElement}.
+	 * 
+	 * @param shape - the shape
+	 * @param origin - the pixel of the shape that corresponds to offset 0, e.g. StructuringElement.getOffset()
+	 */
+	public static int[][] createOffsets( final Image<BitType> shape, final int[] origin )
+	{
+		final ArrayList<int[]> offsets = new ArrayList<int[]>();
+		final LocalizableCursor<BitType> c = shape.createLocalizableCursor();
+		
+		while ( c.hasNext() )
+		{
+			c.fwd();
+			
+			if ( c.getType().get() )
+			{
+				final int[] offset = c.getPosition();
+				
+				for ( int d = 0; d < offset.length; ++d )
+					offset[ d ] -= origin[ d ];
+				
+				offsets.add( offset );
+			}
+		}
+		
+		c.close();
+		
+		return offsets.toArray( new int[ offsets.size() ][] );
+	}
+	
+	final private static boolean isZero( final int[] offset )
+	{
+		for ( final int o : offset )
+			if ( o != 0 )
+				return false;
+		
+		return true;
+	}
+}
@@ -98,8 +98,9 @@ public class RegionOfInterestCursor<T extends Type<T>> extends CursorImpl<T> imp
 	public void reset()
 	{
 		i = -1;
+		
+		// do not move the cursor in front of the offset, it might not be able to leave the image 
 		cursor.setPosition( offset );
-		cursor.bck( 0 );
 			
 		for ( int d = 0; d < numDimensions; ++d )
 		{
@@ -116,6 +117,13 @@ public class RegionOfInterestCursor<T extends Type<T>> extends CursorImpl<T> imp
 	{
 		++i;
 		
+		// the first pixel is the one at the offset where the cursor was set to in reset()
+		if ( i == 0 )
+		{
+			roiPosition[ 0 ] = 0;
+			return;
+		}
+		
 		for ( int d = 0; d < numDimensions; d++ )
 		{
 			if ( currentDirectionDim[ d ] )
@@ -0,0 +1,313 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.cursor.special;
+
+import java.util.ArrayList;
+
+import mpicbg.imglib.cursor.CursorImpl;
+import mpicbg.imglib.cursor.LocalizableByDimCursor;
+import mpicbg.imglib.cursor.LocalizableCursor;
+import mpicbg.imglib.type.Type;
+
+/**
+ * Moves a window, given as a list of offsets like for the {@link NeighborhoodCursor}, over the whole image in lines 
+ * along the scan dimension. Instead of reading the full window at every pixel, only the pixels leaving and entering the 
+ * window when it moves one pixel along the scan dimension are reported to a {@link SlidingWindowListener}, for a box 
+ * of size k^n these are two hyperslices of k^(n-1) pixels. At the start of each line the whole window is reported. 
+ * <p>
+ * The {@link LocalizableByDimCursor} is the center of the window, its {@link mpicbg.imglib.outofbounds.OutOfBoundsStrategy} 
+ * defines the pixels outside of the image. getType() returns the center pixel, the listener has seen the window of the
+ * current position when fwd() returns.
+ */
+public class SlidingWindowCursor<T extends Type<T>> extends CursorImpl<T> implements LocalizableCursor<T>
+{
+	final LocalizableByDimCursor<T> cursor;
+	final SlidingWindowListener<T> listener;
+	final int numDimensions, scanDim;
+	final long numPixels;
+	final int[] dim, position;
+	
+	// the whole window, the pixels entering it relative to the new and leaving it relative to the old center
+	final NeighborhoodCursor<T> window, entering, leaving;
+	
+	boolean isActive, debug = false;
+	long i;
+
+	public SlidingWindowCursor( final LocalizableByDimCursor<T> cursor, final int[][] offsets, final SlidingWindowListener<T> listener )
+	{
+		this( cursor, offsets, 0, listener );
+	}
+
+	public SlidingWindowCursor( final LocalizableByDimCursor<T> cursor, final int[][] offsets, final int scanDim, final SlidingWindowListener<T> listener )
+	{
+		super( cursor.getStorageContainer(), cursor.getImage() );
+		
+		this.numDimensions = cursor.getImage().getNumDimensions();
+		
+		if ( scanDim < 0 || scanDim >= numDimensions )
+			throw new RuntimeException( "SlidingWindowCursor(): scan dimension " + scanDim + " does not exist in a " + numDimensions + "-dimensional image." );
+		
+		this.cursor = cursor;
+		this.listener = listener;
+		this.scanDim = scanDim;
+		this.numPixels = cursor.getImage().getNumPixelsLong();
+		this.dim = cursor.getImage().getDimensions();
+		this.position = new int[ numDimensions ];
+		
+		this.window = new NeighborhoodCursor<T>( cursor, offsets );
+		this.entering = new NeighborhoodCursor<T>( cursor, createEnteringOffsets( offsets, scanDim ) );
+		this.leaving = new NeighborhoodCursor<T>( cursor, createLeavingOffsets( offsets, scanDim ) );
+		
+		this.isActive = true;
+		
+		reset();
+	}
+	
+	@Override
+	public void reset()
+	{
+		i = -1;
+		
+		for ( int d = 0; d < numDimensions; ++d )
+			position[ d ] = 0;
+	}
+
+	@Override
+	public boolean hasNext() { return i < numPixels - 1; }
+
+	@Override
+	public void fwd()
+	{
+		++i;
+		
+		if ( i == 0 || position[ scanDim ] == dim[ scanDim ] - 1 )
+		{
+			// start the next line
+			if ( i > 0 )
+			{
+				position[ scanDim ] = 0;
+				
+				for ( int d = 0; d < numDimensions; ++d )
+				{
+					if ( d == scanDim )
+						continue;
+					
+					if ( position[ d ] < dim[ d ] - 1 )
+					{
+						++position[ d ];
+						break;
+					}
+					
+					position[ d ] = 0;
+				}
+			}
+			
+			cursor.setPosition( position );
+			listener.reset( position.clone() );
+			
+			report( window, true );
+		}
+		else
+		{
+			report( leaving, false );
+			
+			cursor.fwd( scanDim );
+			++position[ scanDim ];
+			
+			report( entering, true );
+		}
+	}
+	
+	final protected void report( final NeighborhoodCursor<T> pixels, final boolean enter )
+	{
+		pixels.update();
+		
+		if ( enter )
+		{
+			while ( pixels.hasNext() )
+			{
+				pixels.fwd();
+				listener.enter( pixels.getType() );
+			}
+		}
+		else
+		{
+			while ( pixels.hasNext() )
+			{
+				pixels.fwd();
+				listener.leave( pixels.getType() );
+			}
+		}
+		
+		pixels.reset();
+	}
+	
+	public int getScanDimension() { return scanDim; }
+	
+	public int getWindowSize() { return window.getNumNeighbors(); }
+	
+	/**
+	 * @return - the number of pixels entering (and leaving) the window for each move along the scan dimension
+	 */
+	public int getNumEntering() { return entering.getNumNeighbors(); }
+
+	@Override
+	public T getType() { return cursor.getType(); }
+
+	@Override
+	public void close() 
+	{
+		window.close();
+		entering.close();
+		leaving.close();
+		isActive = false;
+	}
+
+	@Override
+	public int getArrayIndex() { return cursor.getArrayIndex(); }
+
+	@Override
+	public int getStorageIndex() { return cursor.getStorageIndex(); }
+
+	@Override
+	public boolean isActive() { return cursor.isActive() && isActive; }
+
+	@Override
+	public void setDebug( final boolean debug ) { this.debug = debug; }
+
+	@Override
+	public void getPosition( final int[] position )
+	{
+		for ( int d = 0; d < numDimensions; ++d )
+			position[ d ] = this.position[ d ];
+	}
+
+	@Override
+	public int[] getPosition() { return position.clone(); }
+
+	@Override
+	public int getPosition( final int dim ) { return position[ dim ]; }
+
+	@Override
+	public String getPositionAsString()
+	{
+		String pos = "(" + position[ 0 ];
+		
+		for ( int d = 1; d < numDimensions; d++ )
+			pos += ", " + position[ d ];
+		
+		pos += ")";
+		
+		return pos;
+	}
+	
+	@Override
+	public String toString() { return getPositionAsString() + " = " + getType(); }
+	
+	/**
+	 * @param offsets - the window
+	 * @param dim - the dimension the window moves along
+	 * @return - the offsets that enter the window when it moves one pixel forward in dim, relative to the new center
+	 */
+	public static int[][] createEnteringOffsets( final int[][] offsets, final int dim )
+	{
+		return createEdgeOffsets( offsets, dim, 1 );
+	}
+
+	/**
+	 * @param offsets - the window
+	 * @param dim - the dimension the window moves along
+	 * @return - the offsets that leave the window when it moves one pixel forward in dim, relative to the old center
+	 */
+	public static int[][] createLeavingOffsets( final int[][] offsets, final int dim )
+	{
+		return createEdgeOffsets( offsets, dim, -1 );
+	}
+	
+	/**
+	 * Returns all offsets o of the window where o + step * e_dim is not part of the window
+	 */
+	protected static int[][] createEdgeOffsets( final int[][] offsets, final int dim, final int step )
+	{
+		if ( offsets.length == 0 )
+			return new int[ 0 ][];
+		
+		final int numDimensions = offsets[ 0 ].length;
+		final int[] min = offsets[ 0 ].clone();
+		final int[] max = offsets[ 0 ].clone();
+		final int[] size = new int[ numDimensions ];
+		
+		for ( final int[] offset : offsets )
+			for ( int d = 0; d < numDimensions; ++d )
+			{
+				min[ d ] = Math.min( min[ d ], offset[ d ] );
+				max[ d ] = Math.max( max[ d ], offset[ d ] );
+			}
+		
+		int numEntries = 1;
+		
+		for ( int d = 0; d < numDimensions; ++d )
+		{
+			size[ d ] = max[ d ] - min[ d ] + 1;
+			numEntries *= size[ d ];
+		}
+		
+		// mark the window in its bounding box
+		final boolean[] inside = new boolean[ numEntries ];
+		
+		for ( final int[] offset : offsets )
+			inside[ getIndex( offset, min, size ) ] = true;
+		
+		final ArrayList<int[]> edge = new ArrayList<int[]>();
+		
+		for ( final int[] offset : offsets )
+		{
+			final int[] neighbor = offset.clone();
+			neighbor[ dim ] += step;
+			
+			final int p = neighbor[ dim ] - min[ dim ];
+			
+			if ( p < 0 || p >= size[ dim ] || !inside[ getIndex( neighbor, min, size ) ] )
+				edge.add( offset.clone() );
+		}
+		
+		return edge.toArray( new int[ edge.size() ][] );
+	}
+	
+	final private static int getIndex( final int[] offset, final int[] min, final int[] size )
+	{
+		int index = 0;
+		
+		for ( int d = size.length - 1; d >= 0; --d )
+			index = index * size[ d ] + offset[ d ] - min[ d ];
+		
+		return index;
+	}
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2009--2010, Stephan Preibisch & Stephan Saalfeld
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.  Redistributions in binary
+ * form must reproduce the above copyright notice, this list of conditions and
+ * the following disclaimer in the documentation and/or other materials
+ * provided with the distribution.  Neither the name of the Fiji project nor
+ * the names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Stephan Preibisch & Stephan Saalfeld
+ */
+package mpicbg.imglib.image;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mpicbg.imglib.cursor.Cursor;
+import mpicbg.imglib.type.Type;
+
+/**
+ * Keeps track of the open {@link Cursor}s of an {@link Image}. The {@link Cursor}s are referenced weakly, 
+ * so that cursors that are never closed do not pile up, and registering does not lock the {@link Image}.
+ * {@link mpicbg.imglib.cursor.CursorImpl}s unregister themselves when they are closed, all cursors that are
+ * garbage collected without having been closed are counted as leaked. A {@link Cursor} that is reused 
+ * by calling reset() after close() is not tracked anymore.
+ */
+public class CursorRegistry<T extends Type<T>>
+{
+	/**
+	 * The entry of one {@link Cursor}, it is handed to the {@link Cursor} so that it can unregister in close()
+	 */
+	public static class Registration extends WeakReference<Cursor<?>>
+	{
+		final CursorRegistry<?> registry;
+		
+		Registration( final Cursor<?> cursor, final CursorRegistry<?> registry )
+		{
+			super( cursor, registry.collected );
+			this.registry = registry;
+		}
+		
+		/**
+		 * Called when the {@link Cursor} is closed, calling it more than once has no effect
+		 */
+		public void unregister() { registry.unregister( this ); }
+	}
+	
+	final protected ConcurrentHashMap<Registration, Boolean> registrations = new ConcurrentHashMap<Registration, Boolean>();
+	final protected ReferenceQueue<Cursor<?>> collected = new ReferenceQueue<Cursor<?>>();
+	
+	final protected AtomicLong numRegistered = new AtomicLong(), numClosed = new AtomicLong(), numLeaked = new AtomicLong();
+	
+	public Registration register( final Cursor<T> cursor )
+	{
+		expunge();
+		
+		final Registration registration = new Registration( cursor, this );
+		registrations.put( registration, Boolean.TRUE );
+		numRegistered.incrementAndGet();
+		
+		return registration;
+	}
+	
+	protected void unregister( final Registration registration )
+	{
+		if ( registrations.remove( registration ) != null )
+		{
+			// a cleared reference is not enqueued anymore
+			registration.clear();
+			numClosed.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Unregisters a {@link Cursor} that does not hold its {@link Registration}
+	 */
+	public void unregister( final Cursor<T> cursor )
+	{
+		for ( final Registration registration : registrations.keySet() )
+			if ( registration.get() == cursor )
+				unregister( registration );
+	}
+	
+	/**
+	 * Removes the entries of garbage collected {@link Cursor}s
+	 */
+	protected void expunge()
+	{
+		Reference<? extends Cursor<?>> reference;
+		
+		while ( ( reference = collected.poll() ) != null )
+			if ( registrations.remove( reference ) != null )
+				numLeaked.incrementAndGet();
+	}
+	
+	/**
+	 * @return - all registered {@link Cursor}s that have neither been closed nor garbage collected
+	 */
+	@SuppressWarnings("unchecked")
+	public ArrayList<Cursor<T>> getCursors()
+	{
+		expunge();
+		
+		final ArrayList<Cursor<T>> cursors = new ArrayList<Cursor<T>>( registrations.size() );
+		
+		for ( final Registration registration : registrations.keySet() )
+		{
+			final Cursor<?> cursor = registration.get();
+			
+			if ( cursor != null )
+				cursors.add( (Cursor<T>)cursor );
+		}
+		
+		return cursors;
+	}
+	
+	/**
+	 * Forgets all {@link Cursor}s without closing them, they are not counted as closed or leaked
+	 */
+	public void clear()
+	{
+		for ( final Registration registration : registrations.keySet() )
+		{
+			registrations.remove( registration );
+			registration.clear();
+		}
+		
+		expunge();
+	}
+	
+	/**
+	 * @return - the number of open {@link Cursor}s that are still referenced somewhere
+	 */
+	public int getNumLiveCursors()
+	{
+		expunge();
+		return registrations.size();
+	}
+
+	/**
+	 * @return - the number of {@link Cursor}s registered since the creation of the registry
+	 */
+	public long getNumRegisteredCursors() { return numRegistered.get(); }
+
+	/**
+	 * @return - the number of registered {@link Cursor}s that were closed
+	 */
+	public long getNumClosedCursors() { return numClosed.get(); }
+	
+	/**
+	 * @return - the number of registered {@link Cursor}s that were garbage collected without being closed
+	 */
+	public long getNumLeakedCursors() 
+	{ 
+		expunge();
+		return numLeaked.get(); 
+	}
+	
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + " (" + getNumLiveCursors() + " live, " + getNumClosedCursors() + " closed, " + getNumLeakedCursors() + " leaked)";
+	}
+}
@@ -37,12 +37,16 @@ import java.util.concurrent.atomic.AtomicLong;
 import mpicbg.imglib.algorithm.math.MathLib;
 import mpicbg.imglib.container.Container;
 import mpicbg.imglib.container.ContainerFactory;
+import mpicbg.imglib.container.DirectAccessContainerImpl;
 import mpicbg.imglib.container.ImageProperties;
 import mpicbg.imglib.cursor.Cursor;
+import mpicbg.imglib.cursor.CursorImpl;
 import mpicbg.imglib.cursor.LocalizableByDimCursor;
 import mpicbg.imglib.cursor.LocalizableCursor;
 import mpicbg.imglib.cursor.LocalizablePlaneCursor;
+import mpicbg.imglib.cursor.SplittableCursor;
 import mpicbg.imglib.cursor.array.ArrayLocalizableCursor;
+import mpicbg.imglib.cursor.span.SpanIterator;
 import mpicbg.imglib.cursor.vector.Dimensionality;
 import mpicbg.imglib.image.display.Display;
 import mpicbg.imglib.interpolation.Interpolator;
@@ -53,7 +57,7 @@ import mpicbg.imglib.type.label.FakeType;
 
 public class Image<T extends Type<T>> implements ImageProperties, Dimensionality, Collection<T>
 {
-	final protected ArrayList<Cursor<T>> cursors;
+	final protected CursorRegistry<T> cursors;
 	final ContainerFactory containerFactory;
 	final Container<T> container;
 	final ImageFactory<T> imageFactory;
@@ -88,7 +92,7 @@ public class Image<T extends Type<T>> implements ImageProperties, Dimensionality
 				dim[i] = 1;	
 			}
 		}
-		this.cursors = new ArrayList<Cursor<T>>();		
+		this.cursors = new CursorRegistry<T>();		
 		this.containerFactory = imageFactory.getContainerFactory();		
 		this.imageFactory = imageFactory;
 
@@ -235,6 +239,74 @@ public class Image<T extends Type<T>> implements ImageProperties, Dimensionality
 		return cursor;								
 	}
 
+	/**
+	 * Creates a {@link SplittableCursor} which can be split into {@link Cursor}s on disjoint parts of the {@link Image}
+	 * for parallel processing. Each split has its own {@link Type} instance.
+	 * @return - the {@link SplittableCursor} or null if the container does not support splitting
+	 */
+	public SplittableCursor<T> createSplittableCursor()
+	{
+		if ( !DirectAccessContainerImpl.class.isInstance( container ) )
+			return null;
+		
+		@SuppressWarnings("unchecked")
+		final SplittableCursor<T> cursor = ( (DirectAccessContainerImpl<T,?>)container ).createSplittableCursor( this );
+		
+		if ( cursor != null )
+			addCursor( cursor );
+		
+		return cursor;
+	}
+	
+	/**
+	 * Splits the {@link Image} into at most numParts {@link SplittableCursor}s by splitting the largest part 
+	 * until there are enough parts or no part can be split anymore.
+	 * @param numParts - the number of parts, e.g. the number of threads
+	 * @return - the list of {@link SplittableCursor}s or null if the container does not support splitting
+	 */
+	public ArrayList<SplittableCursor<T>> createSplittableCursors( final int numParts )
+	{
+		final SplittableCursor<T> cursor = createSplittableCursor();
+		
+		if ( cursor == null )
+			return null;
+		
+		final ArrayList<SplittableCursor<T>> parts = new ArrayList<SplittableCursor<T>>( numParts );
+		parts.add( cursor );
+		
+		while ( parts.size() < numParts )
+		{
+			SplittableCursor<T> largest = null;
+			
+			for ( final SplittableCursor<T> part : parts )
+				if ( largest == null || part.getNumRemaining() > largest.getNumRemaining() )
+					largest = part;
+			
+			final SplittableCursor<T> split = largest.trySplit();
+			
+			if ( split == null )
+				break;
+			
+			addCursor( split );
+			parts.add( split );
+		}
+		
+		return parts;
+	}
+
+	/**
+	 * Creates a {@link SpanIterator} that traverses the pixel data as runs of consecutive pixels
+	 * in the underlying arrays, which allows algorithms to run primitive loops independent of the container.
+	 * @return - the {@link SpanIterator} or null if the container does not store its pixels in arrays
+	 */
+	public SpanIterator<?> createSpanIterator()
+	{
+		if ( DirectAccessContainerImpl.class.isInstance( container ) )
+			return ( (DirectAccessContainerImpl<?,?>)container ).createSpanIterator();
+		else
+			return null;
+	}
+
 	/**
 	 * Creates and {@link Interpolator} on this {@link Image} given a certain {@link InterpolatorFactory}.
 	 * @param factory - the {@link InterpolatorFactory} to use
@@ -287,8 +359,13 @@ public class Image<T extends Type<T>> implements ImageProperties, Dimensionality
 	public int getNumDimensions() { return getContainer().getNumDimensions(); }
 	@Override
 	public int[] getDimensions() { return getContainer().getDimensions(); }
+	/**
+	 * @throws ArithmeticException - if the {@link Image} has more than 2^31-1 pixels, use {@link #getNumPixelsLong()} then
+	 */
 	@Override
 	public int getNumPixels() { return getContainer().getNumPixels(); }
+	
+	public long getNumPixelsLong() { return getContainer().getNumPixelsLong(); }
 
 	@Override
 	public String getName() { return name; }
@@ -364,7 +441,7 @@ public class Image<T extends Type<T>> implements ImageProperties, Dimensionality
 	 */
 	public void closeAllCursors()
 	{
-		for ( final Cursor<?> i : cursors )
+		for ( final Cursor<?> i : cursors.getCursors() )
 			i.close();
 	}
 	
@@ -374,14 +451,15 @@ public class Image<T extends Type<T>> implements ImageProperties, Dimensionality
 	 */
 	public void getCursors( final Collection< Cursor< T > > collection )
 	{
-		collection.addAll( cursors );
+		collection.addAll( cursors.getCursors() );
 	}
 	
 	/**
 	 * Return all {@link Cursor}s currently instantiated for this {@link Image} in a new {@link ArrayList}.
+	 * Closed {@link Cursor}s and {@link Cursor}s that are not referenced anymore are not part of it.
 	 * @return - {@link ArrayList} containing the {@link Cursor}s
 	 */
-	public ArrayList< Cursor< T > > getCursors(){ return new ArrayList< Cursor< T > >( cursors ); }	
+	public ArrayList< Cursor< T > > getCursors(){ return cursors.getCursors(); }	
 
 	/**
 	 * Return all active {@link Cursor}s currently instantiated for this {@link Image}.
@@ -391,7 +469,7 @@ public class Image<T extends Type<T>> implements ImageProperties, Dimensionality
 	{ 
 		final ArrayList<Cursor<T>> activeCursors = new ArrayList<Cursor<T>>();
 		
-		for (Cursor<T> i : cursors)
+		for (Cursor<T> i : cursors.getCursors())
 			if (i.isActive())
 				activeCursors.add(i);
 		
@@ -399,26 +477,50 @@ public class Image<T extends Type<T>> implements ImageProperties, Dimensionality
 	}	
 	
 	/**
-	 * Adds a {@link Cursor} to the {@link ArrayList} of instantiated {@link Cursor}s.
+	 * Adds a {@link Cursor} to the {@link CursorRegistry} of instantiated {@link Cursor}s.
 	 * @param c - new {@link Cursor}
 	 */
-	protected synchronized void addCursor( final Cursor<T> c ) { cursors.add( c );	}
+	protected void addCursor( final Cursor<T> c ) 
+	{ 
+		final CursorRegistry.Registration registration = cursors.register( c );
+		
+		if ( CursorImpl.class.isInstance( c ) )
+			( (CursorImpl<?>)c ).setRegistration( registration );
+	}
 	
 	/**
-	 * Remove a {@link Cursor} from the {@link ArrayList} of instantiated {@link Cursor}s.
+	 * Remove a {@link Cursor} from the {@link CursorRegistry} of instantiated {@link Cursor}s.
 	 * @param c - {@link Cursor} to be removed
 	 */
-	protected synchronized void removeCursor( final Cursor<T> c )
+	protected void removeCursor( final Cursor<T> c )
 	{
 		c.close();
-		cursors.remove( c );
+		cursors.unregister( c );
 	}
 	
 	/**
-	 * Returns the number of {@link Cursor}s instantiated on this {@link Image}.
+	 * Returns the number of open {@link Cursor}s instantiated on this {@link Image} that are still referenced.
 	 * @return - the number of {@link Cursor}s
 	 */
-	public int getNumCursors() { return cursors.size(); }
+	public int getNumCursors() { return cursors.getNumLiveCursors(); }
+	
+	/**
+	 * Returns the number of {@link Cursor}s of this {@link Image} that have been closed.
+	 * @return - the number of closed {@link Cursor}s
+	 */
+	public long getNumClosedCursors() { return cursors.getNumClosedCursors(); }
+	
+	/**
+	 * Returns the number of {@link Cursor}s of this {@link Image} that were garbage collected without 
+	 * being closed, a growing number points to code that forgets to close its {@link Cursor}s.
+	 * @return - the number of leaked {@link Cursor}s
+	 */
+	public long getNumLeakedCursors() { return cursors.getNumLeakedCursors(); }
+	
+	/**
+	 * @return - the {@link CursorRegistry} that keeps track of the {@link Cursor}s of this {@link Image}
+	 */
+	public CursorRegistry<T> getCursorRegistry() { return cursors; }
 	
 	/**
 	 * Returns the number of active {@link Cursor}s instantiated on this {@link Image}.
@@ -428,7 +530,7 @@ public class Image<T extends Type<T>> implements ImageProperties, Dimensionality
 	{
 		int active = 0;
 		
-		for (Cursor<?> i : cursors)
+		for (Cursor<?> i : cursors.getCursors())
 			if (i.isActive())
 				active++;
 		
@@ -466,9 +568,15 @@ public class Image<T extends Type<T>> implements ImageProperties, Dimensionality
 	@Override
 	public boolean retainAll(Collection<?> c) {throw new UnsupportedOperationException( "Image.retainAll(): not supported." ); }
 
+	/**
+	 * @throws ArithmeticException - if the {@link Image} has more than 2^31-1 pixels
+	 */
 	@Override
 	public int size() { return this.getNumPixels(); }
 
+	/**
+	 * @throws ArithmeticException - if the {@link Image} has more than 2^31-1 pixels
+	 */
 	@Override
 	public T[] toArray()
 	{
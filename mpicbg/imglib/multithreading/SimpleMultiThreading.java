@@ -30,6 +30,14 @@
 
 package mpicbg.imglib.multithreading;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class SimpleMultiThreading
 {
 	/*
@@ -105,6 +113,125 @@ public class SimpleMultiThreading
 		}
 	}
 
+	/*
+	 * The pool of all algorithms that do not have their own ExecutorService, created on first use
+	 */
+	private static ExecutorService sharedExecutorService = null;
+	
+	/**
+	 * Returns the {@link ExecutorService} shared by all algorithms. It has one daemon thread
+	 * per available processor, so algorithms running at the same time do not oversubscribe 
+	 * the machine and no threads are created per pass.
+	 */
+	public static synchronized ExecutorService getSharedExecutorService()
+	{
+		if ( sharedExecutorService == null )
+		{
+			final AtomicInteger threadNumber = new AtomicInteger( 0 );
+			
+			sharedExecutorService = Executors.newFixedThreadPool( Runtime.getRuntime().availableProcessors(), new ThreadFactory()
+			{
+				public Thread newThread( final Runnable run )
+				{
+					final Thread thread = new Thread( run, "imglib-" + threadNumber.getAndIncrement() );
+					thread.setDaemon( true );
+					return thread;
+				}
+			});
+		}
+		
+		return sharedExecutorService;
+	}
+	
+	/**
+	 * Runs the tasks on an {@link ExecutorService} and waits until all of them are done.
+	 * The calling thread runs the first task itself, and afterwards every task that no thread of the
+	 * pool has started yet. Algorithms calling each other from inside a task therefore never wait 
+	 * for a free thread of the pool. The tasks should take their work from a shared counter, like 
+	 * the AtomicInteger in the example above, instead of splitting it statically.
+	 * 
+	 * @param tasks - the tasks to run in parallel
+	 * @param executorService - the pool, null for {@link #getSharedExecutorService()}
+	 */
+	public static void startAndJoin( final Runnable[] tasks, final ExecutorService executorService )
+	{
+		final ExecutorService service = ( executorService == null ) ? getSharedExecutorService() : executorService;
+		
+		final ClaimableTask[] claimableTasks = new ClaimableTask[ tasks.length ];
+		final Future<?>[] futures = new Future<?>[ tasks.length ];
+		
+		for ( int i = 1; i < tasks.length; ++i )
+		{
+			claimableTasks[ i ] = new ClaimableTask( tasks[ i ] );
+			futures[ i ] = service.submit( claimableTasks[ i ] );
+		}
+		
+		RuntimeException exception = null;
+		
+		for ( int i = 0; i < tasks.length; ++i )
+		{
+			if ( i == 0 || claimableTasks[ i ].claim() )
+			{
+				if ( i > 0 )
+					futures[ i ].cancel( false );
+				
+				try
+				{
+					tasks[ i ].run();
+				}
+				catch ( final RuntimeException e )
+				{
+					exception = e;
+				}
+				
+				futures[ i ] = null;
+			}
+		}
+		
+		// wait for the tasks that were started by the pool
+		for ( int i = 1; i < tasks.length; ++i )
+		{
+			if ( futures[ i ] == null )
+				continue;
+			
+			try
+			{
+				futures[ i ].get();
+			}
+			catch ( final InterruptedException e )
+			{
+				throw new RuntimeException( e );
+			}
+			catch ( final ExecutionException e )
+			{
+				exception = new RuntimeException( "SimpleMultiThreading.startAndJoin(): A task failed: " + e.getCause(), e.getCause() );
+			}
+		}
+		
+		if ( exception != null )
+			throw exception;
+	}
+	
+	/**
+	 * A task that is run only once, either by the pool or by the thread that submitted it.
+	 */
+	private static class ClaimableTask implements Runnable
+	{
+		final Runnable task;
+		final AtomicBoolean claimed = new AtomicBoolean( false );
+		
+		public ClaimableTask( final Runnable task ) { this.task = task; }
+		
+		public boolean claim() { return claimed.compareAndSet( false, true ); }
+		
+		@Override
+		public void run()
+		{
+			if ( claim() )
+				task.run();
+		}
+	}
+
 	public static void start(Thread[] threads)
 	{
 		for (int ithread = 0; ithread < threads.length; ++ithread)
@@ -42,12 +42,16 @@ public class Unsigned12BitType extends IntegerTypeImpl<Unsigned12BitType>
 	// the DirectAccessContainer
 	final DirectAccessContainer<Unsigned12BitType, ? extends BitAccess> storage;
 
-	// the adresses of the bits that we store
-	int j1, j2, j3, j4, j5, j6, j7, j8, j9, j10, j11, j12;
+	// the adress of the first (least significant) of the 12 bits that we store
+	int j;
 
 	// the (sub)DirectAccessContainer that holds the information 
 	BitAccess b;
 	
+	// b if it is a BitArray, then all 12 bits are read and written at once, 
+	// use BitArray.getBits( 12 * i, 12, short[], ... ) to unpack many pixels
+	BitArray bitArray;
+	
 	// this is the constructor if you want it to read from an array
 	public Unsigned12BitType( DirectAccessContainer<Unsigned12BitType, ? extends BitAccess> bitStorage )
 	{
@@ -60,7 +64,7 @@ public class Unsigned12BitType extends IntegerTypeImpl<Unsigned12BitType>
 	{
 		storage = null;
 		updateIndex( 0 );
-		b = new BitArray( 12 );
+		b = bitArray = new BitArray( 12 );
 		set( value );
 	}
 
@@ -86,6 +90,7 @@ public class Unsigned12BitType extends IntegerTypeImpl<Unsigned12BitType>
 	public void updateContainer( final Cursor<?> c ) 
 	{ 
 		b = storage.update( c );
+		bitArray = BitArray.class.isInstance( b ) ? (BitArray)b : null;
 	}
 	
 	@Override
@@ -93,37 +98,28 @@ public class Unsigned12BitType extends IntegerTypeImpl<Unsigned12BitType>
 
 	public short get() 
 	{
+		if ( bitArray != null )
+			return (short)bitArray.getBits( j, 12 );
+		
 		short value = 0;
 		
-		if ( b.getValue( j1 ) ) ++value;
-		if ( b.getValue( j2 ) ) value += 2;
-		if ( b.getValue( j3 ) ) value += 4;
-		if ( b.getValue( j4 ) ) value += 8;
-		if ( b.getValue( j5 ) ) value += 16;
-		if ( b.getValue( j6 ) ) value += 32;
-		if ( b.getValue( j7 ) ) value += 64;
-		if ( b.getValue( j8 ) ) value += 128;
-		if ( b.getValue( j9 ) ) value += 256;
-		if ( b.getValue( j10 ) ) value += 512;
-		if ( b.getValue( j11 ) ) value += 1024;
-		if ( b.getValue( j12 ) ) value += 2048;
+		for ( int k = 0; k < 12; ++k )
+			if ( b.getValue( j + k ) ) 
+				value |= 1 << k;
 		
 		return value; 
 	}
 	public void set( final short value ) 
 	{
-		b.setValue( j1, value % 2 == 1 );
-		b.setValue( j2, (value & 2) == 2 );
-		b.setValue( j3, (value & 4) == 4 );
-		b.setValue( j4, (value & 8) == 8 );
-		b.setValue( j5, (value & 16) == 16 );
-		b.setValue( j6, (value & 32) == 32 );
-		b.setValue( j7, (value & 64) == 64 );
-		b.setValue( j8, (value & 128) == 128 );
-		b.setValue( j9, (value & 256) == 256 );
-		b.setValue( j10, (value & 512) == 512 );
-		b.setValue( j11, (value & 1024) == 1024 );
-		b.setValue( j12, (value & 2048) == 2028 );		
+		if ( bitArray != null )
+		{
+			bitArray.setBits( j, 12, value );
+		}
+		else
+		{
+			for ( int k = 0; k < 12; ++k )
+				b.setValue( j + k, ( value & ( 1 << k ) ) != 0 );
+		}
 	}
 
 	@Override
@@ -144,91 +140,32 @@ public class Unsigned12BitType extends IntegerTypeImpl<Unsigned12BitType>
 	public void updateIndex( final int i ) 
 	{ 
 		this.i = i;
-		j1 = i * 12;
-		j2 = j1 + 1;
-		j3 = j1 + 2;
-		j4 = j1 + 3;
-		j5 = j1 + 4;
-		j6 = j1 + 5;
-		j7 = j1 + 6;
-		j8 = j1 + 7;
-		j9 = j1 + 8;
-		j10 = j1 + 9;
-		j11 = j1 + 10;
-		j12 = j1 + 11;
+		j = i * 12;
 	}
 	
 	@Override
 	public void incIndex() 
 	{ 
 		++i;
-		j1 += 12;
-		j2 += 12;
-		j3 += 12;
-		j4 += 12;
-		j5 += 12;
-		j6 += 12;
-		j7 += 12;
-		j8 += 12;
-		j9 += 12;
-		j10 += 12;
-		j11 += 12;
-		j12 += 12;
+		j += 12;
 	}
 	@Override
 	public void incIndex( final int increment ) 
 	{ 
 		i += increment; 
-		
-		final int inc12 = 12 * increment;		
-		j1 += inc12;
-		j2 += inc12;
-		j3 += inc12;
-		j4 += inc12;
-		j5 += inc12;
-		j6 += inc12;
-		j7 += inc12;
-		j8 += inc12;
-		j9 += inc12;
-		j10 += inc12;
-		j11 += inc12;
-		j12 += inc12;
+		j += 12 * increment;
 	}
 	@Override
 	public void decIndex() 
 	{ 
 		--i;
-		j1 -= 12;
-		j2 -= 12;
-		j3 -= 12;
-		j4 -= 12;
-		j5 -= 12;
-		j6 -= 12;
-		j7 -= 12;
-		j8 -= 12;
-		j9 -= 12;
-		j10 -= 12;
-		j11 -= 12;
-		j12 -= 12;
+		j -= 12;
 	}
 	@Override
 	public void decIndex( final int decrement ) 
 	{ 
 		i -= decrement; 
-
-		final int dec12 = 12 * decrement;		
-		j1 -= dec12;
-		j2 -= dec12;
-		j3 -= dec12;
-		j4 -= dec12;
-		j5 -= dec12;
-		j6 -= dec12;
-		j7 -= dec12;
-		j8 -= dec12;
-		j9 -= dec12;
-		j10 -= dec12;
-		j11 -= dec12;
-		j12 -= dec12;
+		j -= 12 * decrement;
 	}
 
 	
@@ -0,0 +1,89 @@
+package tests;
+
+import java.util.Random;
+
+import mpicbg.imglib.algorithm.gauss.GaussianConvolution;
+import mpicbg.imglib.container.array.ArrayContainerFactory;
+import mpicbg.imglib.container.cell.CellContainerFactory;
+import mpicbg.imglib.container.ContainerFactory;
+import mpicbg.imglib.cursor.Cursor;
+import mpicbg.imglib.image.Image;
+import mpicbg.imglib.image.ImageFactory;
+import mpicbg.imglib.outofbounds.OutOfBoundsStrategyMirrorFactory;
+import mpicbg.imglib.type.numeric.integer.Unsigned12BitType;
+
+/**
+ * Checks that a multithreaded Gaussian of an {@link Unsigned12BitType} image,
+ * whose pixels share the ints of a BitArray, gives the single-threaded result.
+ */
+public class PackedConvolutionTest {
+
+  /** Executes the test, returns true if all results are identical. */
+  public boolean execute() {
+    boolean success = true;
+    for (ContainerFactory factory : new ContainerFactory[] {
+      new ArrayContainerFactory(), new CellContainerFactory(16) })
+    {
+      Image<Unsigned12BitType> image = createImage(factory, new int[] {67, 45, 13});
+      Image<Unsigned12BitType> reference = convolve(image, 1);
+      for (int run = 0; run < 10; ++run) {
+        Image<Unsigned12BitType> result = convolve(image, 8);
+        if (!equals(reference, result)) {
+          System.out.println(factory.getClass().getSimpleName() + ": run " + run +
+            " with 8 threads differs from the single-threaded result");
+          success = false;
+        }
+        result.close();
+      }
+      reference.close();
+      image.close();
+    }
+    return success;
+  }
+
+  /** Creates an image filled with random 12-bit values. */
+  public Image<Unsigned12BitType> createImage(ContainerFactory factory, int[] dim) {
+    Image<Unsigned12BitType> image = new ImageFactory<Unsigned12BitType>(
+      new Unsigned12BitType(), factory).createImage(dim);
+    Random random = new Random(42);
+    Cursor<Unsigned12BitType> cursor = image.createCursor();
+    while (cursor.hasNext()) {
+      cursor.fwd();
+      cursor.getType().set((short)random.nextInt(4096));
+    }
+    cursor.close();
+    return image;
+  }
+
+  /** Convolves the image with a Gaussian of sigma 2 using the given number of threads. */
+  public Image<Unsigned12BitType> convolve(Image<Unsigned12BitType> image, int numThreads) {
+    GaussianConvolution<Unsigned12BitType> gauss = new GaussianConvolution<Unsigned12BitType>(
+      image, new OutOfBoundsStrategyMirrorFactory<Unsigned12BitType>(), 2);
+    gauss.setNumThreads(numThreads);
+    if (!gauss.checkInput() || !gauss.process())
+      throw new RuntimeException(gauss.getErrorMessage());
+    return gauss.getResult();
+  }
+
+  /** Compares two images of the same size pixel by pixel. */
+  public boolean equals(Image<Unsigned12BitType> a, Image<Unsigned12BitType> b) {
+    Cursor<Unsigned12BitType> cursorA = a.createCursor();
+    Cursor<Unsigned12BitType> cursorB = b.createCursor();
+    boolean equal = true;
+    while (cursorA.hasNext() && equal) {
+      cursorA.fwd();
+      cursorB.fwd();
+      equal = cursorA.getType().get() == cursorB.getType().get();
+    }
+    cursorA.close();
+    cursorB.close();
+    return equal;
+  }
+
+  public static void main(String[] args) {
+    boolean success = new PackedConvolutionTest().execute();
+    System.out.println(success ? "PackedConvolutionTest: ok" : "PackedConvolutionTest: FAILED");
+    System.exit(success ? 0 : 1);
+  }
+
+}